@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.contentstream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+
+/**
+ * The parsed operators of a content stream together with their operands, indirect operands
+ * already being resolved. A display list can be replayed by a {@link PDFStreamEngine} any number of
+ * times without parsing the content stream again, see {@link DisplayListCache}.
+ *
+ * <p>The lists of operators and operands can't be modified. The operands themselves are the
+ * mutable {@link COSBase} objects parsed from the content stream, which are passed to every
+ * replay. A display list can therefore only be shared by several threads as long as none of them
+ * modifies the operands, which the operators of PDFBox don't do.</p>
+ */
+public final class DisplayList
+{
+    private static final Log LOG = LogFactory.getLog(DisplayList.class);
+
+    private final List<Operator> operators;
+    private final List<List<COSBase>> operands;
+    private final int weight;
+
+    private DisplayList(List<Operator> operators, List<List<COSBase>> operands, int weight)
+    {
+        this.operators = operators;
+        this.operands = operands;
+        this.weight = weight;
+    }
+
+    /**
+     * Parses the given content stream. If the content stream can't be parsed completely, the
+     * display list holds the operators parsed before the error.
+     *
+     * @param contentStream the content stream to be parsed
+     * @return the display list of the content stream
+     * @throws IOException if the content stream could not be read at all
+     */
+    public static DisplayList parse(PDContentStream contentStream) throws IOException
+    {
+        List<Operator> operators = new ArrayList<>();
+        List<List<COSBase>> operands = new ArrayList<>();
+        int weight = 0;
+        List<COSBase> arguments = new ArrayList<>();
+        try (InputStream is = contentStream.getContents())
+        {
+            PDFStreamParser parser = new PDFStreamParser(is);
+            Object token = parser.parseNextToken();
+            while (token != null)
+            {
+                if (token instanceof COSObject)
+                {
+                    arguments.add(((COSObject) token).getObject());
+                }
+                else if (token instanceof Operator)
+                {
+                    operators.add((Operator) token);
+                    operands.add(arguments.isEmpty() ? Collections.<COSBase>emptyList()
+                            : Collections.unmodifiableList(arguments));
+                    weight += arguments.size() + 1;
+                    arguments = new ArrayList<>();
+                }
+                else
+                {
+                    arguments.add((COSBase) token);
+                }
+                token = parser.parseNextToken();
+            }
+        }
+        catch (IOException e)
+        {
+            if (operators.isEmpty())
+            {
+                throw e;
+            }
+            LOG.error("Error parsing content stream, keeping the " + operators.size()
+                    + " operators parsed before", e);
+        }
+        return new DisplayList(operators, operands, weight);
+    }
+
+    /**
+     * Returns the number of operators of the display list.
+     *
+     * @return the number of operators
+     */
+    public int size()
+    {
+        return operators.size();
+    }
+
+    /**
+     * Returns the operator at the given index.
+     *
+     * @param index the index of the operator
+     * @return the operator
+     */
+    public Operator getOperator(int index)
+    {
+        return operators.get(index);
+    }
+
+    /**
+     * Returns the operands of the operator at the given index. The returned list can't be
+     * modified.
+     *
+     * @param index the index of the operator
+     * @return the operands of the operator
+     */
+    public List<COSBase> getOperands(int index)
+    {
+        return operands.get(index);
+    }
+
+    /**
+     * Returns the weight of the display list, this is the total number of operators and operands.
+     *
+     * @return the weight of the display list
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+}
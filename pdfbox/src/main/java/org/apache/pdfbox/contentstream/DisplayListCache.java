@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.contentstream;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.common.COSObjectable;
+
+/**
+ * A thread safe cache of the display lists of pages, form XObjects, tiling patterns and Type 3
+ * glyphs. When set on a {@link PDFStreamEngine}, each content stream is parsed only once and
+ * replayed from its display list afterwards, e.g. when the same page is rendered several times at
+ * different resolutions, or when a form XObject is drawn on many pages.
+ *
+ * <p>The display lists are keyed by the COS object of the content stream, and the least recently
+ * used display lists are evicted when the total weight, i.e. the number of operators and operands,
+ * exceeds the limit of the cache. The cache doesn't notice when a content stream is modified,
+ * call {@link #remove(PDContentStream)} or {@link #clear()} in that case.</p>
+ */
+public class DisplayListCache
+{
+    /**
+     * The default maximum weight, i.e. the number of operators and operands, of the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 4L << 20;
+
+    private final LinkedHashMap<COSBase, DisplayList> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maximumWeight;
+    private long weight = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Creates a cache with the default maximum weight.
+     */
+    public DisplayListCache()
+    {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Creates a cache with the given maximum weight.
+     *
+     * @param maximumWeight the maximum total number of operators and operands
+     */
+    public DisplayListCache(long maximumWeight)
+    {
+        if (maximumWeight < 0)
+        {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns the display list of the given content stream, parsing it if it isn't cached yet.
+     *
+     * @param contentStream a content stream
+     * @return the display list of the content stream
+     * @throws IOException if the content stream could not be read
+     */
+    public DisplayList getDisplayList(PDContentStream contentStream) throws IOException
+    {
+        if (!(contentStream instanceof COSObjectable))
+        {
+            return DisplayList.parse(contentStream);
+        }
+        COSBase key = ((COSObjectable) contentStream).getCOSObject();
+        synchronized (this)
+        {
+            DisplayList displayList = entries.get(key);
+            if (displayList != null)
+            {
+                hitCount++;
+                return displayList;
+            }
+            missCount++;
+        }
+        // parse outside of the lock, another thread may parse the same stream concurrently
+        DisplayList displayList = DisplayList.parse(contentStream);
+        synchronized (this)
+        {
+            DisplayList old = entries.remove(key);
+            if (old != null)
+            {
+                weight -= old.getWeight();
+            }
+            // display lists larger than the whole cache aren't cached at all
+            if (displayList.getWeight() <= maximumWeight)
+            {
+                entries.put(key, displayList);
+                weight += displayList.getWeight();
+                Iterator<DisplayList> iterator = entries.values().iterator();
+                while (weight > maximumWeight && iterator.hasNext())
+                {
+                    weight -= iterator.next().getWeight();
+                    iterator.remove();
+                }
+            }
+        }
+        return displayList;
+    }
+
+    /**
+     * Removes the display list of the given content stream, e.g. after it has been modified.
+     *
+     * @param contentStream a content stream
+     */
+    public synchronized void remove(PDContentStream contentStream)
+    {
+        if (contentStream instanceof COSObjectable)
+        {
+            DisplayList old = entries.remove(((COSObjectable) contentStream).getCOSObject());
+            if (old != null)
+            {
+                weight -= old.getWeight();
+            }
+        }
+    }
+
+    /**
+     * Removes all display lists from the cache. The hit and miss counts are kept.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the maximum weight of the cache.
+     *
+     * @return the maximum total number of operators and operands
+     */
+    public long getMaximumWeight()
+    {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the current weight of the cache.
+     *
+     * @return the total number of cached operators and operands
+     */
+    public synchronized long getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the number of cached display lists.
+     *
+     * @return the number of cached display lists
+     */
+    public synchronized int getSize()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of requests which were served from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of requests which required parsing the content stream.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+}
@@ -86,6 +86,7 @@ public abstract class PDFStreamEngine
     private PDPage currentPage;
     private boolean isProcessingPage;
     private Matrix initialMatrix;
+    private DisplayListCache displayListCache;
 
     /**
      * Creates a new PDFStreamEngine.
@@ -119,6 +120,27 @@ public abstract class PDFStreamEngine
         operators.put(op.getName(), op);
     }
 
+    /**
+     * Sets the cache of display lists. When a cache is set, content streams are replayed from their
+     * display lists instead of being parsed each time they're processed.
+     *
+     * @param displayListCache the display list cache, or null to always parse the content streams
+     */
+    public void setDisplayListCache(DisplayListCache displayListCache)
+    {
+        this.displayListCache = displayListCache;
+    }
+
+    /**
+     * Returns the cache of display lists.
+     *
+     * @return the display list cache, or null if none is set
+     */
+    public DisplayListCache getDisplayListCache()
+    {
+        return displayListCache;
+    }
+
     /**
      * Initializes the stream engine for the given page.
      */
@@ -486,6 +508,15 @@ public abstract class PDFStreamEngine
      */
     private void processStreamOperators(PDContentStream contentStream) throws IOException
     {
+        if (displayListCache != null)
+        {
+            DisplayList displayList = displayListCache.getDisplayList(contentStream);
+            for (int i = 0, size = displayList.size(); i < size; i++)
+            {
+                processOperator(displayList.getOperator(i), displayList.getOperands(i));
+            }
+            return;
+        }
         List<COSBase> arguments = new ArrayList<>();
         try (InputStream is = contentStream.getContents())
         {
@@ -44,6 +44,19 @@ public class COSFloat extends COSNumber
         valueAsString = removeNullDigits(value.toPlainString());
     }
 
+    /**
+     * Constructor for a number which was parsed in place. The string representation is created
+     * when it is needed.
+     *
+     * @param unscaledValue The digits of the number.
+     * @param scale The number of digits after the decimal point, at most 18.
+     */
+    COSFloat(long unscaledValue, int scale)
+    {
+        // values with at most 18 digits can neither overflow nor underflow a float
+        value = BigDecimal.valueOf(unscaledValue, scale);
+    }
+
     /**
      * Constructor.
      *
@@ -202,7 +215,7 @@ public class COSFloat extends COSNumber
     @Override
     public String toString()
     {
-        return "COSFloat{" + valueAsString + "}";
+        return "COSFloat{" + getValueAsString() + "}";
     }
 
     /**
@@ -226,6 +239,15 @@ public class COSFloat extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(valueAsString.getBytes("ISO-8859-1"));
+        output.write(getValueAsString().getBytes("ISO-8859-1"));
+    }
+
+    private String getValueAsString()
+    {
+        if (valueAsString == null)
+        {
+            valueAsString = value.toPlainString();
+        }
+        return valueAsString;
     }
 }
@@ -18,9 +18,13 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.pdfbox.util.Charsets;
 import org.apache.pdfbox.util.Hex;
@@ -33,7 +37,12 @@ import org.apache.pdfbox.util.Hex;
 public final class COSName extends COSBase implements Comparable<COSName>
 {
     // using ConcurrentHashMap because this can be accessed by multiple threads
-    private static Map<String, COSName> nameMap = new ConcurrentHashMap<>(8192);
+    // document specific names are only weakly referenced, they are released together with the
+    // documents using them
+    private static final ConcurrentMap<String, NameReference> nameMap =
+            new ConcurrentHashMap<>(8192);
+
+    private static final ReferenceQueue<COSName> releasedNames = new ReferenceQueue<>();
 
     // all common COSName values are stored in this HashMap
     // they are already defined as static constants and don't need to be synchronized
@@ -620,23 +629,74 @@ public final class COSName extends COSBase implements Comparable<COSName>
             if (name == null)
             {
                 // It seems to be a document specific COSName
-                name = nameMap.get(aName);
+                NameReference reference = nameMap.get(aName);
+                name = reference != null ? reference.get() : null;
                 if (name == null)
                 {
-                    // name is added to the synchronized map in the constructor
-                    name = new COSName(aName, false);
+                    name = internName(aName);
                 }
             }
         }
         return name;
     }
 
+    /**
+     * Adds a document specific name to the map, unless another thread was faster.
+     */
+    private static COSName internName(String aName)
+    {
+        removeReleasedNames();
+        COSName name = new COSName(aName, false);
+        NameReference reference = new NameReference(name);
+        while (true)
+        {
+            NameReference existing = nameMap.putIfAbsent(aName, reference);
+            if (existing == null)
+            {
+                return name;
+            }
+            COSName existingName = existing.get();
+            if (existingName != null)
+            {
+                return existingName;
+            }
+            if (nameMap.replace(aName, existing, reference))
+            {
+                return name;
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of the names which were garbage collected.
+     */
+    private static void removeReleasedNames()
+    {
+        Reference<? extends COSName> released;
+        while ((released = releasedNames.poll()) != null)
+        {
+            nameMap.remove(((NameReference) released).key, released);
+        }
+    }
+
+    /**
+     * Returns the number of document specific names which are currently known. Names which
+     * aren't used anymore are counted until they are garbage collected.
+     *
+     * @return the number of document specific names
+     */
+    static int getDocumentNameCount()
+    {
+        removeReleasedNames();
+        return nameMap.size();
+    }
+
     /**
      * Private constructor. This will limit the number of COSName objects. that are created.
      * 
      * @param aName The name of the COSName object.
      * @param staticValue Indicates if the COSName object is static so that it can be stored in the HashMap without
-     * synchronizing.
+     * synchronizing. Other names are added to the map of document specific names by the caller.
      */
     private COSName(String aName, boolean staticValue)
     {
@@ -645,10 +705,6 @@ public final class COSName extends COSBase implements Comparable<COSName>
         {
             commonNameMap.put(aName, this);
         }
-        else
-        {
-            nameMap.put(aName, this);
-        }
         hashCode = name.hashCode();
     }
 
@@ -749,11 +805,26 @@ public final class COSName extends COSBase implements Comparable<COSName>
     }
 
     /**
-     * Not usually needed except if resources need to be reclaimed in a long running process.
+     * Not usually needed, document specific names are released by the garbage collector when they
+     * aren't used anymore.
      */
     public static synchronized void clearResources()
     {
         // Clear them all
         nameMap.clear();
     }
+
+    /**
+     * A weak reference to a document specific name, which knows its key in the name map.
+     */
+    private static final class NameReference extends WeakReference<COSName>
+    {
+        private final String key;
+
+        NameReference(COSName name)
+        {
+            super(name, releasedNames);
+            key = name.name;
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.pdfbox.cos;
 
 import java.io.IOException;
+import org.apache.pdfbox.util.Charsets;
 
 /**
  * This class represents an abstract number in a PDF document.
@@ -102,4 +103,82 @@ public abstract class COSNumber extends COSBase
             return new COSFloat(number);
         }
     }
+
+    /**
+     * This factory method will get the appropriate number object. Plain integers and reals are
+     * parsed in place, all other numbers are handed to {@link #get(String)}.
+     *
+     * @param bytes The array holding the number.
+     * @param offset The offset of the number in the array.
+     * @param length The length of the number.
+     *
+     * @return A number object, either COSInteger or COSFloat.
+     *
+     * @throws IOException If the bytes are not a number.
+     */
+    public static COSNumber get(byte[] bytes, int offset, int length) throws IOException
+    {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+'))
+        {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        // number of digits after the decimal point, -1 if there is no decimal point
+        int scale = -1;
+        while (i < end)
+        {
+            int b = bytes[i];
+            if (b >= '0' && b <= '9' && digits < 18)
+            {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (scale >= 0)
+                {
+                    scale++;
+                }
+            }
+            else if (b == '.' && scale < 0)
+            {
+                scale = 0;
+            }
+            else
+            {
+                break;
+            }
+            i++;
+        }
+        if (i < end || digits == 0 || scale >= 0 && !isPlainReal(bytes, offset, end, value))
+        {
+            // exponents, misplaced signs, huge numbers and lone signs or dots
+            return get(new String(bytes, offset, length, Charsets.ISO_8859_1));
+        }
+        if (negative)
+        {
+            value = -value;
+        }
+        if (scale < 0)
+        {
+            return COSInteger.get(value);
+        }
+        return new COSFloat(value, scale);
+    }
+
+    /**
+     * Returns true if the text of a real is the plain string representation of its value, i.e. if
+     * the real is written as it was read. There is no plus sign, no leading zero except the one
+     * in front of the decimal point, a digit in front of and after the decimal point and no
+     * negative zero.
+     */
+    private static boolean isPlainReal(byte[] bytes, int offset, int end, long unscaledValue)
+    {
+        int start = bytes[offset] == '-' ? offset + 1 : offset;
+        return bytes[start] != '+' && bytes[start] != '.' && bytes[end - 1] != '.'
+                && (bytes[start] != '0' || bytes[start + 1] == '.')
+                && (start == offset || unscaledValue != 0);
+    }
 }
@@ -45,6 +45,7 @@ public class COSStream extends COSDictionary implements Closeable
     private RandomAccess randomAccess;      // backing store, in-memory or on-disk
     private final ScratchFile scratchFile;  // used as a temp buffer during decoding
     private boolean isWriting;              // true if there's an open OutputStream
+    private StreamDecryptor decryptor;      // decrypts the backing store while it is read
     
     private static final Log LOG = LogFactory.getLog(COSStream.class);
     
@@ -136,7 +137,68 @@ public class COSStream extends COSDictionary implements Closeable
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
         ensureRandomAccessExists(true);
-        return new RandomAccessInputStream(randomAccess);
+        return createDecryptedInputStream();
+    }
+
+    /**
+     * Returns a new InputStream which reads the backing store, decrypting it if needed.
+     */
+    private InputStream createDecryptedInputStream() throws IOException
+    {
+        InputStream input = new RandomAccessInputStream(randomAccess);
+        if (decryptor != null)
+        {
+            return decryptor.decrypt(input);
+        }
+        return input;
+    }
+
+    /**
+     * Sets the decryptor of the raw stream data. The data is decrypted while it is read by
+     * {@link #createRawInputStream()} and {@link #createInputStream()}, until new data is
+     * written. Not for public use, only the security handler should call this method.
+     *
+     * @param decryptor the decryptor of the stream data, or null if the data isn't encrypted
+     */
+    public void setDecryptor(StreamDecryptor decryptor)
+    {
+        this.decryptor = decryptor;
+    }
+
+    /**
+     * Replaces the encrypted data of the stream by the decrypted data, so that the raw data and the
+     * length of the stream are the ones of the decrypted data. This is needed before the stream is
+     * written without encryption. Nothing is done if the stream isn't encrypted.
+     *
+     * @throws IOException If the stream could not be decrypted.
+     */
+    public void applyDecryption() throws IOException
+    {
+        if (decryptor == null)
+        {
+            return;
+        }
+        checkClosed();
+        if (isWriting)
+        {
+            throw new IllegalStateException("Cannot read while there is an open stream writer");
+        }
+        ensureRandomAccessExists(true);
+        RandomAccess decrypted = scratchFile.createBuffer();
+        try (InputStream input = createDecryptedInputStream();
+             OutputStream output = new RandomAccessOutputStream(decrypted))
+        {
+            IOUtils.copy(input, output);
+        }
+        catch (IOException e)
+        {
+            IOUtils.closeQuietly(decrypted);
+            throw e;
+        }
+        randomAccess.close();
+        randomAccess = decrypted;
+        decryptor = null;
+        setInt(COSName.LENGTH, (int) decrypted.length());
     }
 
     /**
@@ -171,7 +233,7 @@ public class COSStream extends COSDictionary implements Closeable
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
         ensureRandomAccessExists(true);
-        InputStream input = new RandomAccessInputStream(randomAccess);
+        InputStream input = createDecryptedInputStream();
         return COSInputStream.create(getFilterList(), this, input, scratchFile, options);
     }
 
@@ -220,6 +282,7 @@ public class COSStream extends COSDictionary implements Closeable
         }
         IOUtils.closeQuietly(randomAccess);
         randomAccess = scratchFile.createBuffer();
+        decryptor = null;
         OutputStream randomOut = new RandomAccessOutputStream(randomAccess);
         OutputStream cosOut = new COSOutputStream(getFilterList(), this, randomOut, scratchFile);
         isWriting = true;
@@ -271,6 +334,7 @@ public class COSStream extends COSDictionary implements Closeable
         }
         IOUtils.closeQuietly(randomAccess);
         randomAccess = scratchFile.createBuffer();
+        decryptor = null;
         OutputStream out = new RandomAccessOutputStream(randomAccess);
         isWriting = true;
         return new FilterOutputStream(out)
@@ -315,7 +379,9 @@ public class COSStream extends COSDictionary implements Closeable
     }
     
     /**
-     * Returns the length of the encoded stream.
+     * Returns the length of the encoded stream. This is the /Length of the stream dictionary, which
+     * is the length of the encrypted data for a stream which is decrypted while it is read, until
+     * {@link #applyDecryption()} is called.
      *
      * @return length in bytes
      */
@@ -330,6 +396,25 @@ public class COSStream extends COSDictionary implements Closeable
         return getInt(COSName.LENGTH, 0);
     }
 
+    /**
+     * Returns the number of bytes of the raw data as it is stored. This may differ from
+     * {@link #getLength()}, e.g. if the /Length of a repaired stream is wrong or if the data is
+     * still encrypted.
+     *
+     * @return the length of the raw data in bytes
+     * @throws IOException If the stream could not be read.
+     */
+    public long getRawLength() throws IOException
+    {
+        checkClosed();
+        if (isWriting)
+        {
+            throw new IllegalStateException("Cannot read while there is an open stream writer");
+        }
+        ensureRandomAccessExists(true);
+        return randomAccess.length();
+    }
+
     /**
      * This will return the filters to apply to the byte stream.
      * The method will return
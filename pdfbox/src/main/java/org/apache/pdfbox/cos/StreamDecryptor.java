@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.cos;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decrypts the raw data of an encrypted stream while it is read.
+ *
+ * @see COSStream#setDecryptor(StreamDecryptor)
+ */
+public interface StreamDecryptor
+{
+    /**
+     * Returns a stream which reads the decrypted data of the given encrypted data. Closing the
+     * returned stream closes the encrypted data.
+     *
+     * @param encrypted the encrypted data
+     * @return the decrypted data
+     * @throws IOException if the decryption could not be started
+     */
+    InputStream decrypt(InputStream encrypted) throws IOException;
+}
@@ -24,6 +24,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -152,4 +155,46 @@ public final class IOUtils
         }
         return initialException;
     }
+
+    /**
+     * Unmap a memory mapped byte buffer, i.e. release the underlying file mapping without waiting
+     * for the garbage collector. The buffer must not be accessed anymore after calling this method.
+     * This relies on JVM internals and quietly does nothing if they are not available.
+     *
+     * @param buf the buffer to be unmapped, may be <code>null</code>
+     */
+    public static void unmap(ByteBuffer buf)
+    {
+        if (buf == null || !buf.isDirect())
+        {
+            return;
+        }
+        try
+        {
+            try
+            {
+                // Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buf);
+            }
+            catch (NoSuchMethodException ex)
+            {
+                // Java 7 and 8
+                Method cleanerMethod = buf.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buf);
+                if (cleaner != null)
+                {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            LOG.debug("Unable to unmap ByteBuffer - ignoring", ex);
+        }
+    }
 }
@@ -24,6 +24,9 @@ import java.io.File;
  */
 public final class MemoryUsageSetting
 {
+    /** default size of the pages used for buffering */
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+
     private final boolean useMainMemory;
     private final boolean useTempFile;
     
@@ -37,6 +40,15 @@ public final class MemoryUsageSetting
     
     /** directory to be used for scratch file */
     private File tempDir;
+
+    /** if <code>true</code> input files are memory mapped instead of read via a page cache */
+    private boolean useMemoryMappedFile;
+
+    /** if <code>true</code> main-memory pages are stored in direct buffers outside of the java heap */
+    private boolean useDirectMemory;
+
+    /** size of the pages used for buffering */
+    private int pageSize = DEFAULT_PAGE_SIZE;
     
     /**
      * Private constructor for setup buffering memory usage called by one of the setup methods.
@@ -183,6 +195,9 @@ public final class MemoryUsageSetting
         MemoryUsageSetting copy = new MemoryUsageSetting( useMainMemory, useTempFile,
                                                           newMaxMainMemoryBytes, newMaxStorageBytes );
         copy.tempDir = tempDir;
+        copy.useMemoryMappedFile = useMemoryMappedFile;
+        copy.useDirectMemory = useDirectMemory;
+        copy.pageSize = pageSize;
         
         return copy;
     }
@@ -200,6 +215,87 @@ public final class MemoryUsageSetting
         return this;
     }
     
+    /**
+     * Sets whether a PDF file to be loaded shall be memory mapped. This only applies if the
+     * document is loaded from a file, it doesn't affect the buffering of PDF streams.
+     *
+     * <p>Memory mapping avoids copying the file content into a page cache on the java heap and
+     * shares the pages cached by the operating system with other processes reading the same
+     * file. It is most useful for large files which are accessed randomly.</p>
+     *
+     * @param useMemoryMappedFile if <code>true</code> the file is memory mapped
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseMemoryMappedFile(boolean useMemoryMappedFile)
+    {
+        this.useMemoryMappedFile = useMemoryMappedFile;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if a PDF file to be loaded shall be memory mapped.
+     */
+    public boolean useMemoryMappedFile()
+    {
+        return useMemoryMappedFile;
+    }
+
+    /**
+     * Sets whether the main-memory part of the buffers is stored in direct memory outside of the
+     * java heap. The direct memory is allocated in larger blocks which are re-used for new pages
+     * and released when the scratch file is closed.
+     *
+     * <p>This keeps large amounts of buffered stream data out of the heap and thus reduces the
+     * work of the garbage collector. The maximum direct memory of the JVM has to be large enough
+     * (see <code>-XX:MaxDirectMemorySize</code>), so restricting the main-memory usage is
+     * recommended.</p>
+     *
+     * @param useDirectMemory if <code>true</code> direct memory is used instead of the heap
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseDirectMemory(boolean useDirectMemory)
+    {
+        this.useDirectMemory = useDirectMemory;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if main-memory pages are stored in direct memory.
+     */
+    public boolean useDirectMemory()
+    {
+        return useDirectMemory;
+    }
+
+    /**
+     * Sets the size of the pages used for buffering. Larger pages reduce the bookkeeping and the
+     * number of I/O-operations for large streams while smaller pages waste less memory for small
+     * streams. The default is {@value #DEFAULT_PAGE_SIZE} bytes.
+     *
+     * @param pageSize the page size in bytes, must be at least 16
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setPageSize(int pageSize)
+    {
+        if (pageSize < 16)
+        {
+            throw new IllegalArgumentException("Page size must be at least 16, got " + pageSize);
+        }
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Returns the size of the pages used for buffering.
+     */
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
     /**
      * Returns <code>true</code> if main-memory is to be used.
      * 
@@ -25,7 +25,7 @@ import java.util.List;
  * An implementation of the RandomAccess interface to store data in memory.
  * The data will be stored in chunks organized in an ArrayList.
  */
-public class RandomAccessBuffer implements RandomAccess, Cloneable
+public class RandomAccessBuffer implements RandomAccess, RandomAccessReadPositional, Cloneable
 {
     // default chunk size is 1kb
     private static final int DEFAULT_CHUNK_SIZE = 1024;
@@ -257,6 +257,46 @@ public class RandomAccessBuffer implements RandomAccess, Cloneable
         return bytesRead;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= size)
+        {
+            return -1;
+        }
+        int bytesRead = 0;
+        int remaining = (int) Math.min(length, size - position);
+        while (remaining > 0)
+        {
+            long readPosition = position + bytesRead;
+            byte[] chunk = bufferList.get((int) (readPosition / chunkSize));
+            int positionInChunk = (int) (readPosition % chunkSize);
+            int count = Math.min(remaining, chunkSize - positionInChunk);
+            System.arraycopy(chunk, positionInChunk, b, offset + bytesRead, count);
+            bytesRead += count;
+            remaining -= count;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     private int readRemainingBytes(byte[] b, int offset, int length) throws IOException
     {
         if (pointer >= size)
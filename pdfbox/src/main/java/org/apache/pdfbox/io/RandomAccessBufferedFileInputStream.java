@@ -21,6 +21,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -35,7 +37,7 @@ import java.util.Map;
  * @author Timo Boehme
  */
 public class RandomAccessBufferedFileInputStream
-extends InputStream implements RandomAccessRead
+extends InputStream implements RandomAccessReadPositional
 {
     /**
      * The prefix for the temp file being used. 
@@ -260,6 +262,44 @@ extends InputStream implements RandomAccessRead
         return commonLen;
     }
     
+    /**
+     * Reads directly from the file using the positional read of its {@link FileChannel}, bypassing
+     * the page cache which is not thread safe.
+     */
+    @Override
+    public int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, fileLength - position));
+        FileChannel channel = raFile.getChannel();
+        int bytesRead = 0;
+        while (target.hasRemaining())
+        {
+            int count = channel.read(target, position + bytesRead);
+            if (count < 0)
+            {
+                break;
+            }
+            bytesRead += count;
+        }
+        return bytesRead == 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     @Override
     public int available() throws IOException
     {
@@ -313,6 +353,19 @@ extends InputStream implements RandomAccessRead
         return isClosed;
     }
 
+    /**
+     * Ensure that the file isn't closed.
+     * 
+     * @throws IOException If the file is already closed.
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed)
+        {
+            throw new IOException("RandomAccessBufferedFileInputStream already closed");
+        }
+    }
+
     @Override
     public int peek() throws IOException
     {
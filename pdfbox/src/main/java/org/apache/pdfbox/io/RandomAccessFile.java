@@ -19,6 +19,8 @@ package org.apache.pdfbox.io;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * A RandomAccess implementation which allows data to be stored in a scratch file on the disk to
@@ -26,7 +28,7 @@ import java.io.IOException;
  *
  * @author Ben Litchfield
  */
-public class RandomAccessFile implements RandomAccess
+public class RandomAccessFile implements RandomAccess, RandomAccessReadPositional
 {
     private final java.io.RandomAccessFile ras;
     private boolean isClosed;
@@ -100,6 +102,37 @@ public class RandomAccessFile implements RandomAccess
         return ras.length();
     }
 
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        // positional read of the channel doesn't change the file pointer
+        ByteBuffer target = ByteBuffer.wrap(b, offset, length);
+        FileChannel channel = ras.getChannel();
+        int bytesRead = 0;
+        while (target.hasRemaining())
+        {
+            int count = channel.read(target, position + bytesRead);
+            if (count < 0)
+            {
+                break;
+            }
+            bytesRead += count;
+        }
+        return bytesRead == 0 && length > 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     /**
      * Ensure that the RandomAccessFile is not closed
      * 
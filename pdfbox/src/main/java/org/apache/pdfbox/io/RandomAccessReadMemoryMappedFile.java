@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An implementation of the RandomAccessRead interface using a memory mapped file. The file is
+ * mapped in segments of 1 GB so that files larger than 2 GB are supported as well.
+ *
+ * <p>Reading is a plain buffer access, no data is copied into an intermediate page cache. The
+ * mapped pages are managed by the operating system and are shared with all other processes
+ * mapping or reading the same file.</p>
+ *
+ * <p>The segments are unmapped on {@link #close()}. Positional reads, which are used by the views
+ * of this file, hold a reference to the segments while they copy data, and unmapping is delayed
+ * until the last of them has finished, as accessing an unmapped buffer crashes the JVM.</p>
+ */
+public class RandomAccessReadMemoryMappedFile implements RandomAccessReadPositional
+{
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private MappedByteBuffer[] segments;
+    private final long fileLength;
+
+    // guards the reference count of the positional reads and the unmapping of the segments
+    private final Object segmentLock = new Object();
+    private int segmentReferences = 0;
+    private volatile boolean isClosed = false;
+
+    private long position = 0;
+
+    // the segment holding the current position and its index
+    private MappedByteBuffer currentSegment;
+    private int currentSegmentIndex = -1;
+
+    /**
+     * Create a random access read instance for the file with the given name.
+     *
+     * @param filename the filename of the file to be read.
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadMemoryMappedFile(String filename) throws IOException
+    {
+        this(new File(filename));
+    }
+
+    /**
+     * Create a random access read instance for the given file.
+     *
+     * @param file the file to be read.
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadMemoryMappedFile(File file) throws IOException
+    {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            fileLength = fileChannel.size();
+            int segmentCount = (int) ((fileLength + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            try
+            {
+                for (int i = 0; i < segmentCount; i++)
+                {
+                    long segmentOffset = (long) i << SEGMENT_SHIFT;
+                    long segmentLength = Math.min(SEGMENT_SIZE, fileLength - segmentOffset);
+                    segments[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, segmentOffset,
+                            segmentLength);
+                }
+            }
+            catch (IOException ioe)
+            {
+                unmapSegments();
+                throw ioe;
+            }
+        }
+        // the mapping stays valid after the channel has been closed
+    }
+
+    /**
+     * Ensure that the segment holding the current position is selected and positioned.
+     *
+     * @return the number of bytes remaining within the current segment
+     */
+    private int selectSegment()
+    {
+        int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+        if (segmentIndex != currentSegmentIndex)
+        {
+            currentSegment = segments[segmentIndex];
+            currentSegmentIndex = segmentIndex;
+        }
+        currentSegment.position((int) (position & SEGMENT_MASK));
+        return currentSegment.remaining();
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long newPosition) throws IOException
+    {
+        checkClosed();
+        if (newPosition < 0)
+        {
+            throw new IOException("Invalid position " + newPosition);
+        }
+        position = newPosition;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+        if (segmentIndex != currentSegmentIndex)
+        {
+            currentSegment = segments[segmentIndex];
+            currentSegmentIndex = segmentIndex;
+        }
+        return currentSegment.get((int) (position++ & SEGMENT_MASK)) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        int bytesRead = 0;
+        int remaining = (int) Math.min(length, fileLength - position);
+        while (remaining > 0)
+        {
+            int chunk = Math.min(remaining, selectSegment());
+            currentSegment.get(b, offset + bytesRead, chunk);
+            bytesRead += chunk;
+            remaining -= chunk;
+            position += chunk;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        MappedByteBuffer[] mappedSegments = acquireSegments();
+        try
+        {
+            // use duplicates of the segments so that the shared buffers aren't touched
+            int bytesRead = 0;
+            int remaining = (int) Math.min(length, fileLength - position);
+            while (remaining > 0)
+            {
+                long readPosition = position + bytesRead;
+                ByteBuffer segment =
+                        mappedSegments[(int) (readPosition >>> SEGMENT_SHIFT)].duplicate();
+                segment.position((int) (readPosition & SEGMENT_MASK));
+                int chunk = Math.min(remaining, segment.remaining());
+                segment.get(b, offset + bytesRead, chunk);
+                bytesRead += chunk;
+                remaining -= chunk;
+            }
+            return bytesRead;
+        }
+        finally
+        {
+            releaseSegments();
+        }
+    }
+
+    /**
+     * Adds a reference to the segments which keeps them mapped until
+     * {@link #releaseSegments()} is called, even if this file is closed in the meantime.
+     *
+     * @return the segments
+     * @throws IOException If this file is already closed
+     */
+    private MappedByteBuffer[] acquireSegments() throws IOException
+    {
+        synchronized (segmentLock)
+        {
+            checkClosed();
+            segmentReferences++;
+            return segments;
+        }
+    }
+
+    /**
+     * Removes a reference added by {@link #acquireSegments()} and unmaps the segments if this file
+     * was closed and there are no references left.
+     */
+    private void releaseSegments()
+    {
+        synchronized (segmentLock)
+        {
+            segmentReferences--;
+            if (isClosed && segmentReferences == 0)
+            {
+                unmapSegments();
+            }
+        }
+    }
+
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.min(Math.max(fileLength - position, 0), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return fileLength;
+    }
+
+    /**
+     * Closes this file. The segments are unmapped as soon as all positional reads, which are
+     * running at the moment, have finished.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (segmentLock)
+        {
+            if (!isClosed)
+            {
+                isClosed = true;
+                if (segmentReferences == 0)
+                {
+                    unmapSegments();
+                }
+            }
+        }
+    }
+
+    private void unmapSegments()
+    {
+        if (segments != null)
+        {
+            for (MappedByteBuffer segment : segments)
+            {
+                IOUtils.unmap(segment);
+            }
+            segments = null;
+            currentSegment = null;
+            currentSegmentIndex = -1;
+        }
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        checkClosed();
+        if (fileLength - position < length)
+        {
+            throw new IOException("Premature end of file");
+        }
+        byte[] b = new byte[length];
+        read(b, 0, length);
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return position >= fileLength;
+    }
+
+    /**
+     * Ensure that the RandomAccessReadMemoryMappedFile is not closed
+     *
+     * @throws IOException If RandomAccessReadMemoryMappedFile already closed
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("RandomAccessReadMemoryMappedFile already closed");
+        }
+    }
+}
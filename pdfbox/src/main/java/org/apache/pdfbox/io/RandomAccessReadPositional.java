@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+
+/**
+ * A {@link RandomAccessRead} which supports reads at a given position without using or changing
+ * the current position. Sources which don't implement this interface can still be used with
+ * {@link RandomAccessReadView}, which falls back to seeking the source and restoring its position.
+ */
+public interface RandomAccessReadPositional extends RandomAccessRead
+{
+    /**
+     * Read a buffer of data starting at the given position. In contrast to the other read methods
+     * the current position is neither used nor changed. Implementations support concurrent calls of
+     * this method from several threads as long as the data isn't modified at the same time.
+     *
+     * @param position The position of the first byte to be read.
+     * @param b The buffer to write the data to.
+     * @param offset Offset into the buffer to start writing.
+     * @param length The amount of data to attempt to read.
+     * @return The number of bytes that were actually read or -1 if the given position is at or
+     * beyond the end of the data.
+     * @throws IOException If there was an error while reading the data.
+     */
+    int read(long position, byte[] b, int offset, int length) throws IOException;
+
+    /**
+     * Creates a view of a portion of this source. The view has its own position and reads its data
+     * using {@link #read(long, byte[], int, int)}, i.e. several views of the same source may be
+     * used by different threads at the same time. Closing a view doesn't close the underlying
+     * source.
+     *
+     * @param startPosition start position of the view within this source.
+     * @param streamLength the length of the view.
+     * @return the view of the given portion of this source.
+     * @throws IOException If there was an error while creating the view.
+     */
+    RandomAccessRead createView(long startPosition, long streamLength) throws IOException;
+}
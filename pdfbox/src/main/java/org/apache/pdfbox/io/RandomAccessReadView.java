@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A view of a portion of a {@link RandomAccessRead}. The view holds its own position and a small
+ * read ahead buffer, the data itself is read using the positional read method of the underlying
+ * source. Therefore several views of the same source can be used by different threads at the same
+ * time, but a single view must not be shared between threads.
+ *
+ * <p>If the underlying source doesn't implement {@link RandomAccessReadPositional}, the view seeks
+ * the source and restores its position afterwards while holding the lock of the source. This is
+ * only safe as long as the source itself isn't read by other code at the same time.</p>
+ */
+public class RandomAccessReadView implements RandomAccessReadPositional
+{
+    private static final int BUFFER_SIZE = 4096;
+
+    private final RandomAccessRead randomAccessRead;
+    private final long startPosition;
+    private final long streamLength;
+
+    // position within the view
+    private long currentPosition = 0;
+
+    // read ahead buffer and the position within the view of its first byte
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private long bufferStart = 0;
+    private int bufferLength = 0;
+
+    private boolean isClosed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param randomAccessRead the underlying source
+     * @param startPosition start position of the view within the underlying source
+     * @param streamLength the length of the view
+     */
+    public RandomAccessReadView(RandomAccessRead randomAccessRead, long startPosition,
+            long streamLength)
+    {
+        this.randomAccessRead = randomAccessRead;
+        this.startPosition = startPosition;
+        this.streamLength = streamLength;
+    }
+
+    /**
+     * Fills the read ahead buffer beginning with the current position.
+     *
+     * @return <code>false</code> if there is no data left to be read
+     */
+    private boolean fillBuffer() throws IOException
+    {
+        bufferStart = currentPosition;
+        bufferLength = 0;
+        int toRead = (int) Math.min(BUFFER_SIZE, streamLength - currentPosition);
+        if (toRead <= 0)
+        {
+            return false;
+        }
+        int bytesRead = readSource(startPosition + currentPosition, buffer, 0, toRead);
+        if (bytesRead <= 0)
+        {
+            return false;
+        }
+        bufferLength = bytesRead;
+        return true;
+    }
+
+    /**
+     * Reads from the underlying source at the given position without changing its position.
+     */
+    private int readSource(long position, byte[] b, int offset, int length) throws IOException
+    {
+        if (randomAccessRead instanceof RandomAccessReadPositional)
+        {
+            return ((RandomAccessReadPositional) randomAccessRead).read(position, b, offset,
+                    length);
+        }
+        synchronized (randomAccessRead)
+        {
+            long savedPosition = randomAccessRead.getPosition();
+            try
+            {
+                randomAccessRead.seek(position);
+                int bytesRead = 0;
+                while (bytesRead < length)
+                {
+                    int count = randomAccessRead.read(b, offset + bytesRead, length - bytesRead);
+                    if (count <= 0)
+                    {
+                        break;
+                    }
+                    bytesRead += count;
+                }
+                return bytesRead == 0 && length > 0 ? -1 : bytesRead;
+            }
+            finally
+            {
+                randomAccessRead.seek(savedPosition);
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (currentPosition >= streamLength)
+        {
+            return -1;
+        }
+        long offsetInBuffer = currentPosition - bufferStart;
+        if (offsetInBuffer < 0 || offsetInBuffer >= bufferLength)
+        {
+            if (!fillBuffer())
+            {
+                return -1;
+            }
+            offsetInBuffer = 0;
+        }
+        currentPosition++;
+        return buffer[(int) offsetInBuffer] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (currentPosition >= streamLength)
+        {
+            return -1;
+        }
+        int toRead = (int) Math.min(length, streamLength - currentPosition);
+        long offsetInBuffer = currentPosition - bufferStart;
+        int bytesRead;
+        if (offsetInBuffer >= 0 && offsetInBuffer < bufferLength)
+        {
+            // serve as much as possible from the read ahead buffer
+            bytesRead = Math.min(toRead, bufferLength - (int) offsetInBuffer);
+            System.arraycopy(buffer, (int) offsetInBuffer, b, offset, bytesRead);
+        }
+        else
+        {
+            bytesRead = readSource(startPosition + currentPosition, b, offset, toRead);
+            if (bytesRead <= 0)
+            {
+                return -1;
+            }
+        }
+        currentPosition += bytesRead;
+        return bytesRead;
+    }
+
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= streamLength)
+        {
+            return -1;
+        }
+        int toRead = (int) Math.min(length, streamLength - position);
+        return readSource(startPosition + position, b, offset, toRead);
+    }
+
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(randomAccessRead, this.startPosition + startPosition,
+                Math.max(0, Math.min(streamLength, this.streamLength - startPosition)));
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return currentPosition;
+    }
+
+    @Override
+    public void seek(long newPosition) throws IOException
+    {
+        checkClosed();
+        if (newPosition < 0)
+        {
+            throw new IOException("Invalid position " + newPosition);
+        }
+        currentPosition = Math.min(newPosition, streamLength);
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return streamLength;
+    }
+
+    /**
+     * Closes this view. The underlying source is not closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed || randomAccessRead.isClosed();
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        checkClosed();
+        seek(currentPosition - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        byte[] b = new byte[length];
+        int bytesRead = 0;
+        while (bytesRead < length)
+        {
+            int count = read(b, bytesRead, length - bytesRead);
+            if (count < 0)
+            {
+                throw new EOFException();
+            }
+            bytesRead += count;
+        }
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return currentPosition >= streamLength;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.min(streamLength - currentPosition, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ensure that the view and its underlying source are not closed.
+     *
+     * @throws IOException If the view or the underlying source are already closed
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("RandomAccessReadView already closed");
+        }
+    }
+}
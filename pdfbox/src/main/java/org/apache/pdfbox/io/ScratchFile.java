@@ -17,10 +17,16 @@
 package org.apache.pdfbox.io;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.BitSet;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,7 +39,10 @@ import org.apache.commons.logging.LogFactory;
  * <p>Pages can be stored in main memory or in a temporary file. A mixed mode
  * is supported storing a certain amount of pages in memory and only the
  * additional ones in temporary file (defined by maximum main memory to
- * be used).</p>
+ * be used). Main memory pages are either held on the java heap or in direct
+ * memory blocks outside of the heap, see {@link MemoryUsageSetting#setUseDirectMemory(boolean)}.
+ * The direct memory blocks of a closed scratch file are kept in a small pool shared by all
+ * scratch files, so that they don't have to be allocated again.</p>
  * 
  * <p>Pages can be marked as 'free' in order to re-use them. For in-memory pages
  * this will release the used memory while for pages in temporary file this
@@ -46,7 +55,12 @@ import org.apache.commons.logging.LogFactory;
  * on the maximum memory usage and allows processing large files for which we
  * otherwise would get an {@link OutOfMemoryError} in case of using {@link RandomAccessBuffer}.</p>
  * 
- * <p>This base class for providing pages is thread safe (the buffer implementations are not).</p>
+ * <p>This base class for providing pages is thread safe (the buffer implementations are not).
+ * In order to let buffers used by different threads work without contention the free pages are
+ * held in several stripes, each thread preferably allocating from its own stripe, and the
+ * temporary file is accessed using positional reads and writes without a global lock. As with
+ * any {@link FileChannel}, interrupting a thread while it is accessing the temporary file closes
+ * the file for all buffers.</p>
  */
 public class ScratchFile implements Closeable
 {
@@ -57,20 +71,50 @@ public class ScratchFile implements Closeable
     /** in case of unrestricted main memory usage this is the initial number of pages
      *  {@link #inMemoryPages} is setup for */
     private static final int INIT_UNRESTRICTED_MAINMEM_PAGECOUNT = 100000;
-    private static final int PAGE_SIZE = 4096;
+    /** size of the blocks of direct memory holding several pages */
+    private static final int DIRECT_MEMORY_BLOCK_SIZE = 1 << 20;
+    /** maximum number of direct memory blocks kept for re-use */
+    private static final int MAX_POOLED_DIRECT_MEMORY_BLOCKS = 32;
+    /** direct memory blocks of closed scratch files, shared by all scratch files; only to be
+     *  accessed under synchronization of the pool itself */
+    private static final Deque<ByteBuffer> DIRECT_MEMORY_BLOCK_POOL = new ArrayDeque<>();
+    /** maximum number of stripes the free pages are split into */
+    private static final int MAX_FREE_PAGE_STRIPES = 32;
     
+    private final int pageSize;
     private final Object ioLock = new Object();
     private final File scratchFileDirectory;
     /** scratch file; only to be accessed under synchronization of {@link #ioLock} */
     private File file;
     /** random access to scratch file; only to be accessed under synchronization of {@link #ioLock} */
     private java.io.RandomAccessFile raf;
-    private volatile int pageCount = 0;
-    private final BitSet freePages = new BitSet();
+    /** channel of the scratch file used for positional reads and writes without synchronization */
+    private volatile FileChannel fileChannel;
+    /** number of pages the scratch file was enlarged to; only to be accessed under synchronization
+     *  of {@link #ioLock} */
+    private long scratchFilePageCount = 0;
+    /** highest index of a page handed out so far plus one */
+    private final AtomicInteger pageCount = new AtomicInteger();
+    /** the free pages split into stripes; the stripe of a page is <code>pageIdx % freePageStripes.length</code>
+     *  and its bit index within the stripe is <code>pageIdx / freePageStripes.length</code>; each stripe
+     *  is only to be accessed under synchronization of the stripe itself */
+    private final BitSet[] freePageStripes;
     /** holds pointers to in-memory page content; will be initialized once in case of restricted
      *  main memory, otherwise it is enlarged as needed and first initialized to a size of
      *  {@link #INIT_UNRESTRICTED_MAINMEM_PAGECOUNT} */
     private volatile byte[][] inMemoryPages;
+    /** holds the blocks of direct memory in case direct memory is used instead of {@link #inMemoryPages};
+     *  blocks are allocated on first use and enlarged like {@link #inMemoryPages}; only to be
+     *  accessed under synchronization of {@link #ioLock} */
+    private ByteBuffer[] directMemoryBlocks;
+    /** the pages within {@link #directMemoryBlocks} which were written since they were handed out,
+     *  as the blocks may be re-used from other scratch files; only to be accessed under
+     *  synchronization of {@link #ioLock} */
+    private final BitSet writtenDirectMemoryPages = new BitSet();
+    private final boolean useDirectMemory;
+    private final int pagesPerDirectMemoryBlock;
+    /** number of in-memory pages currently provided by {@link #inMemoryPages} or {@link #directMemoryBlocks} */
+    private int inMemoryPageCapacity;
     private final int inMemoryMaxPageCount;
     private final int maxPageCount;
     private final boolean useScratchFile;
@@ -98,7 +142,7 @@ public class ScratchFile implements Closeable
      * Initializes page handler. If a <code>scratchFileDirectory</code> is supplied,
      * then the scratch file will be created in that directory.
      * 
-     * <p>Depending on the size of allowed memory usage a number of pages (memorySize/{@link #PAGE_SIZE})
+     * <p>Depending on the size of allowed memory usage a number of pages (memorySize/page size)
      * will be stored in-memory and only additional pages will be written to/read from scratch file.</p>
      * 
      * @param memUsageSetting set how memory/temporary files are used for buffering streams etc. 
@@ -107,6 +151,7 @@ public class ScratchFile implements Closeable
      */
     public ScratchFile(MemoryUsageSetting memUsageSetting) throws IOException
     {
+        pageSize = memUsageSetting.getPageSize();
         maxMainMemoryIsRestricted = (!memUsageSetting.useMainMemory()) || memUsageSetting.isMainMemoryRestricted();
         useScratchFile = maxMainMemoryIsRestricted ? memUsageSetting.useTempFile() : false;
         scratchFileDirectory = useScratchFile ? memUsageSetting.getTempDir() : null;
@@ -117,17 +162,33 @@ public class ScratchFile implements Closeable
         }
         
         maxPageCount = memUsageSetting.isStorageRestricted() ?
-                           (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxStorageBytes() / PAGE_SIZE) :
+                           (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxStorageBytes() / pageSize) :
                            Integer.MAX_VALUE;
                 
         inMemoryMaxPageCount = memUsageSetting.useMainMemory() ? 
                                    (memUsageSetting.isMainMemoryRestricted() ?
-                                       (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxMainMemoryBytes() / PAGE_SIZE) :
+                                       (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxMainMemoryBytes() / pageSize) :
                                        Integer.MAX_VALUE) :
                                    0;
-        inMemoryPages = new byte[maxMainMemoryIsRestricted ? inMemoryMaxPageCount : INIT_UNRESTRICTED_MAINMEM_PAGECOUNT][];
+        inMemoryPageCapacity = maxMainMemoryIsRestricted ? inMemoryMaxPageCount : INIT_UNRESTRICTED_MAINMEM_PAGECOUNT;
+        useDirectMemory = memUsageSetting.useDirectMemory() && inMemoryPageCapacity > 0;
+        pagesPerDirectMemoryBlock = Math.max(1, DIRECT_MEMORY_BLOCK_SIZE / pageSize);
+        if (useDirectMemory)
+        {
+            directMemoryBlocks = new ByteBuffer[getDirectMemoryBlockCount(inMemoryPageCapacity)];
+        }
+        else
+        {
+            inMemoryPages = new byte[inMemoryPageCapacity][];
+        }
         
-        freePages.set(0, inMemoryPages.length);
+        int stripes = Math.min(Runtime.getRuntime().availableProcessors(), MAX_FREE_PAGE_STRIPES);
+        freePageStripes = new BitSet[stripes > 1 ? Integer.highestOneBit(stripes - 1) << 1 : 1];
+        for (int i = 0; i < freePageStripes.length; i++)
+        {
+            freePageStripes[i] = new BitSet();
+        }
+        setFreePages(0, inMemoryPageCapacity);
     }
 
     /**
@@ -173,38 +234,104 @@ public class ScratchFile implements Closeable
         }
     }
     
+    /**
+     * Marks the pages with the given index range as free.
+     * 
+     * @param fromIdx index of first page (inclusive)
+     * @param toIdx index of last page (exclusive)
+     */
+    private void setFreePages(int fromIdx, int toIdx)
+    {
+        int stripeCount = freePageStripes.length;
+        for (int stripeIdx = 0; stripeIdx < stripeCount; stripeIdx++)
+        {
+            // first bit index within the stripe of a page index >= the given index
+            int fromBit = (int) (((long) fromIdx - stripeIdx + stripeCount - 1) / stripeCount);
+            int toBit = (int) (((long) toIdx - stripeIdx + stripeCount - 1) / stripeCount);
+            BitSet stripe = freePageStripes[stripeIdx];
+            synchronized (stripe)
+            {
+                stripe.set(fromBit, toBit);
+            }
+        }
+    }
+
+    /**
+     * Takes a free page from the given stripe.
+     * 
+     * @param stripeIdx index of the stripe
+     * 
+     * @return index of the page or -1 if the stripe has no free page
+     */
+    private int takeFreePage(int stripeIdx)
+    {
+        BitSet stripe = freePageStripes[stripeIdx];
+        int bit;
+        synchronized (stripe)
+        {
+            bit = stripe.nextSetBit(0);
+            if (bit < 0)
+            {
+                return -1;
+            }
+            stripe.clear(bit);
+        }
+        int idx = bit * freePageStripes.length + stripeIdx;
+        
+        int count = pageCount.get();
+        while (idx >= count && !pageCount.compareAndSet(count, idx + 1))
+        {
+            count = pageCount.get();
+        }
+        return idx;
+    }
+
     /**
      * Returns a new free page, either from free page pool
      * or by enlarging scratch file (may be created).
      * 
+     * <p>The stripe of the calling thread is tried first, the other ones afterwards.</p>
+     * 
      * @return index of new page
      */
     int getNewPage() throws IOException
     {
-        synchronized (freePages)
+        int stripeMask = freePageStripes.length - 1;
+        int homeStripe = (int) Thread.currentThread().getId() & stripeMask;
+        for (int attempt = 0; attempt < 2; attempt++)
         {
-            int idx = freePages.nextSetBit( 0 );
-            
-            if (idx < 0)
+            for (int i = 0; i <= stripeMask; i++)
             {
-                enlarge();
-                
-                idx = freePages.nextSetBit( 0 );
-                if (idx < 0)
+                int idx = takeFreePage((homeStripe + i) & stripeMask);
+                if (idx >= 0)
                 {
-                    throw new IOException("Maximum allowed scratch file memory exceeded.");
+                    return idx;
                 }
             }
-            
-            freePages.clear(idx);
-            
-            if (idx >= pageCount)
+            if (attempt == 0)
             {
-                pageCount = idx + 1;
+                enlarge();
             }
-            
-            return idx;
         }
+        throw new IOException("Maximum allowed scratch file memory exceeded.");
+    }
+
+    /**
+     * Returns <code>true</code> if any stripe contains a free page.
+     */
+    private boolean hasFreePages()
+    {
+        for (BitSet stripe : freePageStripes)
+        {
+            synchronized (stripe)
+            {
+                if (!stripe.isEmpty())
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -219,15 +346,21 @@ public class ScratchFile implements Closeable
      * <p>If scratch file usage is allowed and scratch file does not exist already
      * it will be created.</p>
      * 
-     * <p>Only to be called under synchronization on {@link #freePages}.</p>
+     * <p>Nothing is done if another thread provided new free pages in the meantime.</p>
      */
     private void enlarge() throws IOException
     {
         synchronized (ioLock)
         {
             checkClosed();
-     
-            if (pageCount >= maxPageCount)
+
+            if (hasFreePages())
+            {
+                return;
+            }
+
+            long totalPageCount = inMemoryPageCapacity + scratchFilePageCount;
+            if (totalPageCount >= maxPageCount)
             {
                 return;
             }
@@ -241,6 +374,7 @@ public class ScratchFile implements Closeable
                     try
                     {
                         raf = new java.io.RandomAccessFile(file, "rw");
+                        fileChannel = raf.getChannel();
                     }
                     catch (IOException e)
                     {
@@ -252,36 +386,38 @@ public class ScratchFile implements Closeable
                     }
                 }
                 
-                long fileLen = raf.length();
-                long expectedFileLen = ((long)pageCount - inMemoryMaxPageCount) * PAGE_SIZE;
-                
-                if (expectedFileLen != fileLen)
-                {
-                    throw new IOException("Expected scratch file size of " + expectedFileLen + " but found " + fileLen);
-                }
-                    
                 // enlarge if we do not overflow
-                if (pageCount + ENLARGE_PAGE_COUNT > pageCount)
+                if (totalPageCount + ENLARGE_PAGE_COUNT <= Integer.MAX_VALUE)
                 {
-                    fileLen += ENLARGE_PAGE_COUNT * PAGE_SIZE;
+                    scratchFilePageCount += ENLARGE_PAGE_COUNT;
         
-                    raf.setLength(fileLen);
+                    raf.setLength(scratchFilePageCount * pageSize);
         
-                    freePages.set(pageCount, pageCount + ENLARGE_PAGE_COUNT);
+                    setFreePages((int) totalPageCount, (int) totalPageCount + ENLARGE_PAGE_COUNT);
                 }
             }
             else if (!maxMainMemoryIsRestricted)
             {
                 // increase number of in-memory pages
-                int oldSize = inMemoryPages.length;
+                int oldSize = inMemoryPageCapacity;
                 int newSize = (int) Math.min( ((long)oldSize) * 2, Integer.MAX_VALUE);  // this handles integer overflow
                 if (newSize > oldSize)
                 {
-                    byte[][] newInMemoryPages = new byte[newSize][];
-                    System.arraycopy(inMemoryPages, 0, newInMemoryPages, 0, oldSize);
-                    inMemoryPages = newInMemoryPages;
+                    if (useDirectMemory)
+                    {
+                        ByteBuffer[] newDirectMemoryBlocks = new ByteBuffer[getDirectMemoryBlockCount(newSize)];
+                        System.arraycopy(directMemoryBlocks, 0, newDirectMemoryBlocks, 0, directMemoryBlocks.length);
+                        directMemoryBlocks = newDirectMemoryBlocks;
+                    }
+                    else
+                    {
+                        byte[][] newInMemoryPages = new byte[newSize][];
+                        System.arraycopy(inMemoryPages, 0, newInMemoryPages, 0, oldSize);
+                        inMemoryPages = newInMemoryPages;
+                    }
+                    inMemoryPageCapacity = newSize;
                     
-                    freePages.set(oldSize, newSize);
+                    setFreePages(oldSize, newSize);
                 }
             }
         }
@@ -294,7 +430,112 @@ public class ScratchFile implements Closeable
      */
     int getPageSize()
     {
-        return PAGE_SIZE;
+        return pageSize;
+    }
+
+    /**
+     * Returns the number of direct memory blocks needed to hold the given number of pages.
+     */
+    private int getDirectMemoryBlockCount(int pages)
+    {
+        return (int) (((long) pages + pagesPerDirectMemoryBlock - 1) / pagesPerDirectMemoryBlock);
+    }
+
+    /**
+     * Reads a page from the direct memory blocks. The page is copied under synchronization, so
+     * that the blocks can't be returned to the pool by {@link #close()} while they are read.
+     * 
+     * @param pageIdx index of the page
+     * 
+     * @return the page data
+     * 
+     * @throws IOException if the page wasn't written before or the scratch file is closed
+     */
+    private byte[] readDirectMemoryPage(int pageIdx) throws IOException
+    {
+        int blockIdx = pageIdx / pagesPerDirectMemoryBlock;
+        // need synchronization since directMemoryBlocks may change
+        synchronized (ioLock)
+        {
+            checkClosed();
+            if (!writtenDirectMemoryPages.get(pageIdx))
+            {
+                throw new IOException("Requested page with index " + pageIdx + " was not written before.");
+            }
+            byte[] page = new byte[pageSize];
+            ByteBuffer pageBuffer = directMemoryBlocks[blockIdx].duplicate();
+            pageBuffer.position((pageIdx % pagesPerDirectMemoryBlock) * pageSize);
+            pageBuffer.get(page);
+            return page;
+        }
+    }
+
+    /**
+     * Writes a page to the direct memory blocks, allocating the block holding it if needed.
+     * 
+     * @param pageIdx index of the page
+     * @param page the page data
+     * 
+     * @throws IOException if the scratch file is closed
+     */
+    private void writeDirectMemoryPage(int pageIdx, byte[] page) throws IOException
+    {
+        int blockIdx = pageIdx / pagesPerDirectMemoryBlock;
+        synchronized (ioLock)
+        {
+            checkClosed();
+            ByteBuffer block = directMemoryBlocks[blockIdx];
+            if (block == null)
+            {
+                block = allocateDirectMemoryBlock();
+                directMemoryBlocks[blockIdx] = block;
+            }
+            ByteBuffer pageBuffer = block.duplicate();
+            pageBuffer.position((pageIdx % pagesPerDirectMemoryBlock) * pageSize);
+            pageBuffer.put(page);
+            writtenDirectMemoryPages.set(pageIdx);
+        }
+    }
+
+    /**
+     * Takes a direct memory block from the pool or allocates a new one.
+     */
+    private ByteBuffer allocateDirectMemoryBlock()
+    {
+        int size = pagesPerDirectMemoryBlock * pageSize;
+        if (size <= DIRECT_MEMORY_BLOCK_SIZE)
+        {
+            synchronized (DIRECT_MEMORY_BLOCK_POOL)
+            {
+                ByteBuffer block = DIRECT_MEMORY_BLOCK_POOL.pollFirst();
+                if (block != null)
+                {
+                    return block;
+                }
+            }
+            // all pooled blocks have the same size whatever the page size is
+            size = DIRECT_MEMORY_BLOCK_SIZE;
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /**
+     * Returns direct memory blocks to the pool as long as it isn't full. The remaining blocks are
+     * released by the garbage collector.
+     */
+    private static void releaseDirectMemoryBlocks(ByteBuffer[] blocks)
+    {
+        synchronized (DIRECT_MEMORY_BLOCK_POOL)
+        {
+            for (ByteBuffer block : blocks)
+            {
+                if (block != null && block.capacity() == DIRECT_MEMORY_BLOCK_SIZE
+                        && DIRECT_MEMORY_BLOCK_POOL.size() < MAX_POOLED_DIRECT_MEMORY_BLOCKS)
+                {
+                    DIRECT_MEMORY_BLOCK_POOL.addFirst(block);
+                }
+            }
+        }
     }
     
     /**
@@ -302,21 +543,27 @@ public class ScratchFile implements Closeable
      * 
      * @param pageIdx index of page to read
      * 
-     * @return byte array of size {@link #PAGE_SIZE} filled with page data read from file 
+     * @return byte array of the page size filled with page data read from memory or file 
      * 
      * @throws IOException
      */
     byte[] readPage(int pageIdx) throws IOException
     {
-        if ((pageIdx < 0) || (pageIdx >= pageCount))
+        int count = pageCount.get();
+        if ((pageIdx < 0) || (pageIdx >= count))
         {
             checkClosed();
-            throw new IOException("Page index out of range: " + pageIdx + ". Max value: " + (pageCount - 1) );
+            throw new IOException("Page index out of range: " + pageIdx + ". Max value: " + (count - 1) );
         }
         
         // check if we have the page in memory
         if (pageIdx < inMemoryMaxPageCount)
         {
+            if (useDirectMemory)
+            {
+                return readDirectMemoryPage(pageIdx);
+            }
+
             byte[] page = inMemoryPages[pageIdx];
             
             // handle case that we are closed
@@ -329,20 +576,25 @@ public class ScratchFile implements Closeable
             return page;
         }
         
-        synchronized (ioLock)
+        FileChannel channel = fileChannel;
+        if (channel == null)
         {
-            if (raf == null)
+            checkClosed();
+            throw new IOException("Missing scratch file to read page with index " + pageIdx + " from.");
+        }
+        
+        byte[] page = new byte[pageSize];
+        ByteBuffer pageBuffer = ByteBuffer.wrap(page);
+        long pagePosition = ((long)pageIdx - inMemoryMaxPageCount) * pageSize;
+        while (pageBuffer.hasRemaining())
+        {
+            if (channel.read(pageBuffer, pagePosition + pageBuffer.position()) < 0)
             {
-                checkClosed();
-                throw new IOException("Missing scratch file to read page with index " + pageIdx + " from.");
+                throw new EOFException("Unexpected end of scratch file reading page with index " + pageIdx);
             }
-            
-            byte[] page = new byte[PAGE_SIZE];
-            raf.seek(((long)pageIdx - inMemoryMaxPageCount) * PAGE_SIZE);
-            raf.readFully(page);
-            
-            return page;
         }
+        
+        return page;
     }
     
     /**
@@ -350,30 +602,35 @@ public class ScratchFile implements Closeable
      * or is written to scratch file.
      * 
      * <p>Provided page byte array must not be re-used for other pages since we
-     * store it as is in case of in-memory handling.</p>
+     * store it as is in case of in-memory handling on the heap.</p>
      * 
      * @param pageIdx index of page to write
-     * @param page page to write (length has to be {@value #PAGE_SIZE})
+     * @param page page to write (length has to be the page size)
      * 
      * @throws IOException in case page index is out of range or page has wrong length
      *                     or writing to file failed
      */
     void writePage(int pageIdx, byte[] page) throws IOException
     {
-        if ((pageIdx<0) || (pageIdx>=pageCount))
+        int count = pageCount.get();
+        if ((pageIdx<0) || (pageIdx>=count))
         {
             checkClosed();
-            throw new IOException("Page index out of range: " + pageIdx + ". Max value: " + (pageCount - 1) );
+            throw new IOException("Page index out of range: " + pageIdx + ". Max value: " + (count - 1) );
         }
         
-        if (page.length != PAGE_SIZE)
+        if (page.length != pageSize)
         {
-            throw new IOException("Wrong page size to write: " + page.length + ". Expected: " + PAGE_SIZE );
+            throw new IOException("Wrong page size to write: " + page.length + ". Expected: " + pageSize );
         }
         
         if (pageIdx < inMemoryMaxPageCount)
         {
-            if (maxMainMemoryIsRestricted)
+            if (useDirectMemory)
+            {
+                writeDirectMemoryPage(pageIdx, page);
+            }
+            else if (maxMainMemoryIsRestricted)
             {
                 inMemoryPages[pageIdx] = page;
             }
@@ -391,11 +648,17 @@ public class ScratchFile implements Closeable
         }
         else
         {
-            synchronized (ioLock)
+            FileChannel channel = fileChannel;
+            if (channel == null)
             {
                 checkClosed();
-                raf.seek(((long)pageIdx - inMemoryMaxPageCount) * PAGE_SIZE);
-                raf.write(page);
+                throw new IOException("Missing scratch file to write page with index " + pageIdx + " to.");
+            }
+            ByteBuffer pageBuffer = ByteBuffer.wrap(page);
+            long pagePosition = ((long)pageIdx - inMemoryMaxPageCount) * pageSize;
+            while (pageBuffer.hasRemaining())
+            {
+                channel.write(pageBuffer, pagePosition + pageBuffer.position());
             }
         }
     }
@@ -459,21 +722,43 @@ public class ScratchFile implements Closeable
      */
     void markPagesAsFree(int[] pageIndexes, int off, int count) {
         
-        synchronized (freePages)
+        int stripeCount = freePageStripes.length;
+        int maxPageIdx = pageCount.get();
+        if (useDirectMemory)
         {
-            for (int aIdx = off; aIdx < count; aIdx++)
+            // the content of a free page must not be read again, like the released heap pages
+            synchronized (ioLock)
             {
-                int pageIdx = pageIndexes[aIdx];
-                if ((pageIdx>=0) && (pageIdx<pageCount) && (!freePages.get(pageIdx)))
+                for (int aIdx = off; aIdx < count; aIdx++)
                 {
-                    freePages.set(pageIdx);
-                    if (pageIdx < inMemoryMaxPageCount)
+                    int pageIdx = pageIndexes[aIdx];
+                    if (pageIdx >= 0 && pageIdx < maxPageIdx)
                     {
-                        inMemoryPages[pageIdx] = null;  // remark: not in ioLock synchronization since behavior won't
-                                                        // change even in case of parallel called 'enlarge' method
+                        writtenDirectMemoryPages.clear(pageIdx);
+                    }
+                }
+            }
+        }
+        for (int aIdx = off; aIdx < count; aIdx++)
+        {
+            int pageIdx = pageIndexes[aIdx];
+            if ((pageIdx>=0) && (pageIdx<maxPageIdx))
+            {
+                BitSet stripe = freePageStripes[pageIdx % stripeCount];
+                int bit = pageIdx / stripeCount;
+                synchronized (stripe)
+                {
+                    if (!stripe.get(bit))
+                    {
+                        if (pageIdx < inMemoryMaxPageCount && !useDirectMemory)
+                        {
+                            inMemoryPages[pageIdx] = null;  // remark: not in ioLock synchronization since behavior won't
+                                                            // change even in case of parallel called 'enlarge' method
+                        }
+                        // direct memory pages stay allocated within their block to be re-used
+                        stripe.set(bit);
                     }
                 }
-                    
             }
         }
     }
@@ -501,6 +786,7 @@ public class ScratchFile implements Closeable
 
             if (raf != null)
             {
+                fileChannel = null;
                 try
                 {
                     raf.close();
@@ -523,10 +809,27 @@ public class ScratchFile implements Closeable
             }
         }
         
-        synchronized (freePages)
+        for (BitSet stripe : freePageStripes)
         {
-            freePages.clear();
-            pageCount = 0;
+            synchronized (stripe)
+            {
+                stripe.clear();
+            }
+        }
+        pageCount.set(0);
+
+        if (useDirectMemory)
+        {
+            // the blocks aren't freed explicitly as a buffer still in use by another thread
+            // would crash the JVM; they are re-used or released by the garbage collector.
+            // They can be pooled since the pages are only copied under synchronization of
+            // ioLock after checking that this scratch file isn't closed.
+            synchronized (ioLock)
+            {
+                releaseDirectMemoryBlocks(directMemoryBlocks);
+                directMemoryBlocks = new ByteBuffer[0];
+                writtenDirectMemoryPages.clear();
+            }
         }
         
         if (ioexc != null)
@@ -27,7 +27,7 @@ import org.apache.pdfbox.cos.COSStream;
  * Implementation of {@link RandomAccess} as sequence of multiple fixed size pages handled
  * by {@link ScratchFile}.
  */
-class ScratchFileBuffer implements RandomAccess
+class ScratchFileBuffer implements RandomAccess, RandomAccessReadPositional
 {
     private final int pageSize;
     /**
@@ -476,6 +476,56 @@ class ScratchFileBuffer implements RandomAccess
         return totalBytesRead;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+
+        if (position < 0)
+        {
+            throw new IOException("Negative read offset: " + position);
+        }
+        if (position >= size)
+        {
+            return -1;
+        }
+
+        int remain = (int) Math.min(len, size - position);
+        int totalBytesRead = 0;
+
+        while (remain > 0)
+        {
+            long readPosition = position + totalBytesRead;
+            int pagePosition = (int) (readPosition / pageSize);
+            int offsetInPage = (int) (readPosition % pageSize);
+
+            // the current page may contain changes which weren't written yet
+            byte[] page = pagePosition == currentPagePositionInPageIndexes ?
+                    currentPage : pageHandler.readPage(pageIndexes[pagePosition]);
+
+            int readBytes = Math.min(remain, pageSize - offsetInPage);
+            System.arraycopy(page, offsetInPage, b, off + totalBytesRead, readBytes);
+
+            totalBytesRead += readBytes;
+            remain -= readBytes;
+        }
+
+        return totalBytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RandomAccessRead createView(long startPosition, long streamLength) throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     /**
      * {@inheritDoc}
      */
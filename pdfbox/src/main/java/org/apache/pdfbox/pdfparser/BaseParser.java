@@ -19,6 +19,7 @@ package org.apache.pdfbox.pdfparser;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
 import org.apache.commons.logging.Log;
@@ -56,6 +57,16 @@ public abstract class BaseParser
 
     private final CharsetDecoder utf8Decoder = Charsets.UTF_8.newDecoder();
 
+    /**
+     * Maximum number of names which are resolved from their bytes, per parser.
+     */
+    private static final int MAX_NAME_TABLE_SIZE = 1024;
+
+    // bytes of the name or number being parsed, reused for all tokens
+    private byte[] tokenBuffer = new byte[64];
+
+    private TokenTable<COSName> nameTable;
+
     /**
      * Log instance.
      */
@@ -706,7 +717,7 @@ public abstract class BaseParser
     protected COSName parseCOSName() throws IOException
     {
         readExpectedChar('/');
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int length = 0;
         int c = seqSource.read();
         while (c != -1)
         {
@@ -723,15 +734,8 @@ public abstract class BaseParser
                 // valid hex digits.
                 if (isHexDigit((char)ch1) && isHexDigit((char)ch2))
                 {
-                    String hex = "" + (char)ch1 + (char)ch2;
-                    try
-                    {
-                        buffer.write(Integer.parseInt(hex, 16));
-                    }
-                    catch (NumberFormatException e)
-                    {
-                        throw new IOException("Error: expected hex digit, actual='" + hex + "'", e);
-                    }
+                    length = appendToken(length,
+                            Character.digit(ch1, 16) << 4 | Character.digit(ch2, 16));
                     c = seqSource.read();
                 }
                 else
@@ -745,7 +749,7 @@ public abstract class BaseParser
                     }
                     seqSource.unread(ch2);
                     c = ch1;
-                    buffer.write(ch);
+                    length = appendToken(length, ch);
                 }
             }
             else if (isEndOfName(ch))
@@ -754,7 +758,7 @@ public abstract class BaseParser
             }
             else
             {
-                buffer.write(ch);
+                length = appendToken(length, ch);
                 c = seqSource.read();
             }
         }
@@ -762,29 +766,95 @@ public abstract class BaseParser
         {
             seqSource.unread(c);
         }
-        
-        byte[] bytes = buffer.toByteArray();
-        String string;
-        if (isValidUTF8(bytes))
+        return toCOSName(length);
+    }
+
+    /**
+     * Returns the name of the given number of bytes of the token buffer. Names which were
+     * already parsed are looked up by their bytes, without decoding them again.
+     */
+    private COSName toCOSName(int length)
+    {
+        if (nameTable == null)
         {
-            string = new String(buffer.toByteArray(), Charsets.UTF_8);
+            nameTable = new TokenTable<>(MAX_NAME_TABLE_SIZE);
         }
-        else
+        COSName name = nameTable.get(tokenBuffer, length);
+        if (name == null)
+        {
+            String string;
+            if (isValidUTF8(tokenBuffer, length))
+            {
+                string = new String(tokenBuffer, 0, length, Charsets.UTF_8);
+            }
+            else
+            {
+                // some malformed PDFs don't use UTF-8 see PDFBOX-3347
+                string = new String(tokenBuffer, 0, length, Charsets.WINDOWS_1252);
+            }
+            name = COSName.getPDFName(string);
+            nameTable.put(tokenBuffer, length, name);
+        }
+        return name;
+    }
+
+    /**
+     * Appends a byte to the token buffer, growing it if needed.
+     *
+     * @param length the current length of the token
+     * @param b the byte to append
+     * @return the new length of the token
+     */
+    final int appendToken(int length, int b)
+    {
+        if (length == tokenBuffer.length)
         {
-            // some malformed PDFs don't use UTF-8 see PDFBOX-3347
-            string = new String(buffer.toByteArray(), Charsets.WINDOWS_1252);
+            tokenBuffer = Arrays.copyOf(tokenBuffer, length * 2);
         }
-        return COSName.getPDFName(string);
+        tokenBuffer[length] = (byte) b;
+        return length + 1;
+    }
+
+    /**
+     * Returns the number of the given number of bytes of the token buffer.
+     *
+     * @param length the length of the token
+     * @return the number
+     * @throws IOException if the token is not a number
+     */
+    final COSNumber toCOSNumber(int length) throws IOException
+    {
+        return COSNumber.get(tokenBuffer, 0, length);
+    }
+
+    /**
+     * Returns the token buffer, which holds the bytes of the token that was read last.
+     *
+     * @return the token buffer, it is only valid until the next token is read
+     */
+    final byte[] getTokenBuffer()
+    {
+        return tokenBuffer;
     }
 
     /**
      * Returns true if a byte sequence is valid UTF-8.
      */
-    private boolean isValidUTF8(byte[] input)
+    private boolean isValidUTF8(byte[] input, int length)
     {
+        int i = 0;
+        while (i < length && input[i] >= 0)
+        {
+            i++;
+        }
+        if (i == length)
+        {
+            // plain ASCII
+            return true;
+        }
         try
         {
-            utf8Decoder.decode(ByteBuffer.wrap(input));
+            utf8Decoder.decode(ByteBuffer.wrap(input, 0, length));
             return true;
         }
         catch (CharacterCodingException e)
@@ -932,7 +1002,7 @@ public abstract class BaseParser
         {
             if( Character.isDigit(c) || c == '-' || c == '+' || c == '.')
             {
-                StringBuilder buf = new StringBuilder();
+                int length = 0;
                 int ic = seqSource.read();
                 c = (char)ic;
                 while( Character.isDigit( c )||
@@ -942,7 +1012,7 @@ public abstract class BaseParser
                         c == 'E' ||
                         c == 'e' )
                 {
-                    buf.append( c );
+                    length = appendToken(length, c);
                     ic = seqSource.read();
                     c = (char)ic;
                 }
@@ -950,7 +1020,7 @@ public abstract class BaseParser
                 {
                     seqSource.unread(ic);
                 }
-                retval = COSNumber.get( buf.toString() );
+                retval = toCOSNumber(length);
             }
             else
             {
@@ -19,15 +19,28 @@ package org.apache.pdfbox.pdfparser;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
 
 /**
- * A SequentialSource backed by an InputStream.
+ * A SequentialSource backed by an InputStream or a byte array.
+ *
+ * <p>The data is read in chunks into a buffer, so that reading, peeking and unreading single bytes
+ * are plain array accesses. A byte array source uses the array itself as its buffer, it is only
+ * copied if bytes are unread which differ from the ones that were read.</p>
  */
 final class InputStreamSource implements SequentialSource
 {
-    private final PushbackInputStream input;
-    private int position;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+
+    // the bytes buffer[offset] to buffer[limit - 1] are the next bytes to be read
+    private byte[] buffer;
+    private int offset;
+    private int limit;
+
+    // true if the buffer is the array given by the caller, which must not be written to
+    private boolean shared;
+    private long position;
 
     /**
      * Constructor.
@@ -36,46 +49,70 @@ final class InputStreamSource implements SequentialSource
      */
     InputStreamSource(InputStream input)
     {
-        this.input = new PushbackInputStream(input, 32767); // maximum length of a PDF string
-        this.position = 0;
+        this.input = input;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bytes The bytes to read, the array is used directly and must not be changed.
+     */
+    InputStreamSource(byte[] bytes)
+    {
+        this.input = null;
+        this.buffer = bytes;
+        this.limit = bytes.length;
+        this.shared = true;
     }
 
     @Override
     public int read() throws IOException
     {
-        int b = input.read();
+        if (offset == limit && !fill())
+        {
+            return -1;
+        }
         position++;
-        return b;
+        return buffer[offset++] & 0xff;
     }
 
     @Override
     public int read(byte[] b) throws IOException
     {
-        int n = input.read(b);
-        if (n > 0)
-        {
-            position += n;
-            return n;
-        }
-        else
-        {
-            return -1;
-        }
+        return read(b, 0, b.length);
     }
 
     @Override
-    public int read(byte[] b, int offset, int length) throws IOException
+    public int read(byte[] b, int off, int length) throws IOException
     {
-        int n = input.read(b, offset, length);
-        if (n > 0)
+        if (length == 0)
         {
-            position += n;
-            return n;
+            return 0;
         }
-        else
+        if (offset == limit)
         {
-            return -1;
+            if (input != null && length >= buffer.length)
+            {
+                // don't copy large reads through the buffer
+                int n = input.read(b, off, length);
+                if (n <= 0)
+                {
+                    return -1;
+                }
+                position += n;
+                return n;
+            }
+            if (!fill())
+            {
+                return -1;
+            }
         }
+        int n = Math.min(length, limit - offset);
+        System.arraycopy(buffer, offset, b, off, n);
+        offset += n;
+        position += n;
+        return n;
     }
 
     @Override
@@ -87,33 +124,70 @@ final class InputStreamSource implements SequentialSource
     @Override
     public int peek() throws IOException
     {
-        int b = input.read();
-        if (b != -1)
+        if (offset == limit && !fill())
         {
-            input.unread(b);
+            return -1;
         }
-        return b;
+        return buffer[offset] & 0xff;
     }
 
     @Override
     public void unread(int b) throws IOException
     {
-        input.unread(b);
-        position--;
+        if (offset > 0 && buffer[offset - 1] == (byte) b)
+        {
+            // the usual case: the byte which was just read is pushed back
+            offset--;
+            position--;
+        }
+        else
+        {
+            unread(new byte[] { (byte) b }, 0, 1);
+        }
     }
 
     @Override
     public void unread(byte[] bytes) throws IOException
     {
-        input.unread(bytes);
-        position -= bytes.length;
+        unread(bytes, 0, bytes.length);
     }
 
     @Override
     public void unread(byte[] bytes, int start, int len) throws IOException
     {
-        input.unread(bytes, start, len);
-        position -= len - start;
+        if (offset < len || shared && !isBufferedBefore(bytes, start, len))
+        {
+            // move the remaining bytes to the end of a new buffer, to make room in front of them
+            int remaining = limit - offset;
+            byte[] newBuffer = new byte[Math.max(BUFFER_SIZE, len + remaining)];
+            System.arraycopy(buffer, offset, newBuffer, newBuffer.length - remaining, remaining);
+            buffer = newBuffer;
+            offset = newBuffer.length - remaining;
+            limit = newBuffer.length;
+            shared = false;
+        }
+        offset -= len;
+        position -= len;
+        if (!shared)
+        {
+            System.arraycopy(bytes, start, buffer, offset, len);
+        }
+    }
+
+    /**
+     * Returns true if the given bytes are the ones right in front of the current offset.
+     */
+    private boolean isBufferedBefore(byte[] bytes, int start, int len)
+    {
+        int bufferStart = offset - len;
+        for (int i = 0; i < len; i++)
+        {
+            if (buffer[bufferStart + i] != bytes[start + i])
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -124,12 +198,11 @@ final class InputStreamSource implements SequentialSource
         int len = length;
         while (len > 0)
         {
-            int n = this.read(bytes, off, len);
+            int n = read(bytes, off, len);
             if (n > 0)
             {
                 off += n;
                 len -= n;
-                position += n;
             }
             else
             {
@@ -148,6 +221,37 @@ final class InputStreamSource implements SequentialSource
     @Override
     public void close() throws IOException
     {
-        input.close();
+        if (input != null)
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads the next chunk of the input stream into the buffer.
+     *
+     * @return true if bytes were read, false at the end of the input.
+     */
+    private boolean fill() throws IOException
+    {
+        if (input == null)
+        {
+            return false;
+        }
+        int n;
+        do
+        {
+            n = input.read(buffer, 0, buffer.length);
+        }
+        while (n == 0);
+        if (n < 0)
+        {
+            offset = 0;
+            limit = 0;
+            return false;
+        }
+        offset = 0;
+        limit = n;
+        return true;
     }
 }
@@ -16,7 +16,6 @@
  */
 package org.apache.pdfbox.pdfparser;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,8 +30,8 @@ import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNull;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.util.Charsets;
 
 /**
  * This will parse a PDF byte stream and extract operands and such.
@@ -50,6 +49,13 @@ public class PDFStreamParser extends BaseParser
     
     private static final int MAX_BIN_CHAR_TEST_LENGTH = 10;
     private final byte[] binCharTestArr = new byte[MAX_BIN_CHAR_TEST_LENGTH];
+
+    /**
+     * Maximum number of operators which are resolved from their bytes, per parser.
+     */
+    private static final int MAX_OPERATOR_TABLE_SIZE = 256;
+
+    private final TokenTable<Operator> operatorTable = new TokenTable<>(MAX_OPERATOR_TABLE_SIZE);
     
     /**
      * Constructor.
@@ -70,7 +76,7 @@ public class PDFStreamParser extends BaseParser
      */
     public PDFStreamParser(byte[] bytes) throws IOException
     {
-        super(new InputStreamSource(new ByteArrayInputStream(bytes)));
+        super(new InputStreamSource(bytes));
     }
 
     /**
@@ -156,46 +162,45 @@ public class PDFStreamParser extends BaseParser
             case 'n':   
             {
                 // null
-                String nullString = readString();
-                if( nullString.equals( "null") )
+                int length = readToken();
+                if (isToken(length, "null"))
                 {
                     retval = COSNull.NULL;
                 }
                 else
                 {
-                    retval = Operator.getOperator(nullString);
+                    retval = toOperator(length);
                 }
                 break;
             }
             case 't':
             case 'f':
             {
-                String next = readString();
-                if( next.equals( "true" ) )
+                int length = readToken();
+                if (isToken(length, "true"))
                 {
                     retval = COSBoolean.TRUE;
-                    break;
                 }
-                else if( next.equals( "false" ) )
+                else if (isToken(length, "false"))
                 {
                     retval = COSBoolean.FALSE;
                 }
                 else
                 {
-                    retval = Operator.getOperator(next);
+                    retval = toOperator(length);
                 }
                 break;
             }
             case 'R':
             {
-                String line = readString();
-                if( line.equals( "R" ) )
+                int length = readToken();
+                if (isToken(length, "R"))
                 {
                     retval = new COSObject( null );
                 }
                 else
                 {
-                    retval = Operator.getOperator(line);
+                    retval = toOperator(length);
                 }
                 break;
             }
@@ -215,8 +220,7 @@ public class PDFStreamParser extends BaseParser
             {
                 /* We will be filling buf with the rest of the number.  Only
                  * allow 1 "." and "-" and "+" at start of number. */
-                StringBuilder buf = new StringBuilder();
-                buf.append( c );
+                int length = appendToken(0, c);
                 seqSource.read();
                 
                 // Ignore double negative (this is consistent with Adobe Reader)
@@ -231,7 +235,7 @@ public class PDFStreamParser extends BaseParser
                     if (c != '-')
                     {
                         // PDFBOX-4064: ignore "-" in the middle of a number
-                        buf.append(c);
+                        length = appendToken(length, c);
                     }
                     seqSource.read();
 
@@ -240,14 +244,13 @@ public class PDFStreamParser extends BaseParser
                         dotNotRead = false;
                     }
                 }
-                retval = COSNumber.get( buf.toString() );
+                retval = toCOSNumber(length);
                 break;
             }
             case 'B':
             {
-                String next = readString();
-                retval = Operator.getOperator(next);
-                if( next.equals( OperatorName.BEGIN_INLINE_IMAGE ) )
+                retval = toOperator(readToken());
+                if (((Operator) retval).getName().equals(OperatorName.BEGIN_INLINE_IMAGE))
                 {
                     Operator beginImageOP = (Operator)retval;
                     COSDictionary imageParams = new COSDictionary();
@@ -321,21 +324,102 @@ public class PDFStreamParser extends BaseParser
             default:
             {
                 //we must be an operator
-                String operator = readOperator();
-                if( operator.trim().length() == 0 )
+                int length = readOperatorToken();
+                if (isBlank(length))
                 {
                     //we have a corrupt stream, stop reading here
                     retval = null;
                 }
                 else
                 {
-                    retval = Operator.getOperator(operator);
+                    retval = toOperator(length);
                 }
             }
         }
         return retval;
     }
 
+    /**
+     * Reads the next token into the token buffer. The token ends like the string read by
+     * {@link #readString()}, but there are no leading spaces to be skipped.
+     *
+     * @return the length of the token
+     * @throws IOException If there is an error reading from the stream.
+     */
+    private int readToken() throws IOException
+    {
+        int length = 0;
+        int c = seqSource.read();
+        while (c != -1 && !isEndOfName(c))
+        {
+            length = appendToken(length, c);
+            c = seqSource.read();
+        }
+        if (c != -1)
+        {
+            seqSource.unread(c);
+        }
+        return length;
+    }
+
+    /**
+     * Returns true if the token buffer holds the given keyword.
+     */
+    private boolean isToken(int length, String keyword)
+    {
+        if (length != keyword.length())
+        {
+            return false;
+        }
+        byte[] token = getTokenBuffer();
+        for (int i = 0; i < length; i++)
+        {
+            if (token[i] != keyword.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the token buffer holds only blanks and control characters.
+     */
+    private boolean isBlank(int length)
+    {
+        byte[] token = getTokenBuffer();
+        for (int i = 0; i < length; i++)
+        {
+            if ((token[i] & 0xff) > ' ')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the operator held by the token buffer. Operators which were already parsed are
+     * looked up by their bytes, without creating a String.
+     */
+    private Operator toOperator(int length)
+    {
+        byte[] token = getTokenBuffer();
+        Operator operator = operatorTable.get(token, length);
+        if (operator == null)
+        {
+            String name = new String(token, 0, length, Charsets.ISO_8859_1);
+            operator = Operator.getOperator(name);
+            // the inline image operators carry their image and can't be shared
+            if (!name.equals(OperatorName.BEGIN_INLINE_IMAGE)
+                    && !name.equals(OperatorName.BEGIN_INLINE_IMAGE_DATA))
+            {
+                operatorTable.put(token, length, operator);
+            }
+        }
+        return operator;
+    }
+
     /**
      * Looks up an amount of bytes if they contain only ASCII characters (no
      * control sequences etc.), and that these ASCII characters begin with a
@@ -417,12 +501,23 @@ public class PDFStreamParser extends BaseParser
      * @throws IOException If there is an error reading from the stream.
      */
     protected String readOperator() throws IOException
+    {
+        int length = readOperatorToken();
+        return new String(getTokenBuffer(), 0, length, Charsets.ISO_8859_1);
+    }
+
+    /**
+     * This will read an operator from the stream into the token buffer.
+     *
+     * @return The length of the operator.
+     *
+     * @throws IOException If there is an error reading from the stream.
+     */
+    private int readOperatorToken() throws IOException
     {
         skipSpaces();
 
-        //average string size is around 2 and the normal string buffer size is
-        //about 16 so lets save some space.
-        StringBuilder buffer = new StringBuilder(4);
+        int length = 0;
         int nextChar = seqSource.peek();
         while(
             nextChar != -1 && // EOF
@@ -435,17 +530,17 @@ public class PDFStreamParser extends BaseParser
             (nextChar < '0' ||
              nextChar > '9' ) )
         {
-            char currentChar = (char) seqSource.read();
+            int currentChar = seqSource.read();
             nextChar = seqSource.peek();
-            buffer.append( currentChar );
+            length = appendToken(length, currentChar);
             // Type3 Glyph description has operators with a number in the name
             if (currentChar == 'd' && (nextChar == '0' || nextChar == '1') ) 
             {
-                buffer.append( (char) seqSource.read() );
+                length = appendToken(length, seqSource.read());
                 nextChar = seqSource.peek();
             }
         }
-        return buffer.toString();
+        return length;
     }
     
     
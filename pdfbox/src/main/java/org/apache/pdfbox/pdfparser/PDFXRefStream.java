@@ -159,10 +159,17 @@ public class PDFXRefStream implements PDFXRef
             value.nextFree = entry.getKey().getNumber();
             streamData.put(value.nextFree, value);
         }
+        else if (entry.getObjectStreamKey() != null)
+        {
+            // an object stored in an object stream, the offset is the index within that stream
+            ObjectStreamReference value = new ObjectStreamReference();
+            value.objectNumberOfObjectStream = entry.getObjectStreamKey().getNumber();
+            value.indexInObjectStream = entry.getOffset();
+            streamData.put(entry.getKey().getNumber(), value);
+        }
         else
         {
-            // we don't care for ObjectStreamReferences for now and only handle
-            // normal references that would be f-Entrys in the xref table.
+            // normal references that would be n-Entrys in the xref table.
             NormalReference value = new NormalReference();
             value.genNumber = entry.getKey().getGeneration();
             value.offset = entry.getOffset();
@@ -198,8 +205,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 wMax[0] = Math.max(wMax[0], ENTRY_OBJSTREAM); // the type field for a objstm reference
-                wMax[1] = Math.max(wMax[1], objStream.offset);
-                wMax[2] = Math.max(wMax[2], objStream.objectNumberOfObjectStream);
+                wMax[1] = Math.max(wMax[1], objStream.objectNumberOfObjectStream);
+                wMax[2] = Math.max(wMax[2], objStream.indexInObjectStream);
             }
             // TODO add here if new standard versions define new types
             else
@@ -306,8 +313,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 writeNumber(os, ENTRY_OBJSTREAM, w[0]);
-                writeNumber(os, objStream.offset, w[1]);
-                writeNumber(os, objStream.objectNumberOfObjectStream, w[2]);
+                writeNumber(os, objStream.objectNumberOfObjectStream, w[1]);
+                writeNumber(os, objStream.indexInObjectStream, w[2]);
             }
             // TODO add here if new standard versions define new types
             else
@@ -324,7 +331,7 @@ public class PDFXRefStream implements PDFXRef
     static class ObjectStreamReference
     {
         long objectNumberOfObjectStream;
-        long offset;
+        long indexInObjectStream;
     }
 
     /**
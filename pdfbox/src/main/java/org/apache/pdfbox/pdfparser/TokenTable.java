@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.pdfparser;
+
+import java.util.Arrays;
+
+/**
+ * A small open addressing hash table which maps byte sequences to the objects parsed from them.
+ * It is used to resolve recurring tokens, e.g. names and operators, without creating an
+ * intermediate String. The table stops growing when it holds the maximum number of entries.
+ *
+ * @param <T> the type of the values
+ */
+final class TokenTable<T>
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxSize;
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize the maximum number of entries
+     */
+    TokenTable(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value of the given bytes.
+     *
+     * @param bytes the array holding the key
+     * @param length the length of the key, starting at index 0
+     * @return the value or null if there is no entry for the bytes
+     */
+    @SuppressWarnings("unchecked")
+    T get(byte[] bytes, int length)
+    {
+        int mask = keys.length - 1;
+        for (int i = hash(bytes, length) & mask; ; i = (i + 1) & mask)
+        {
+            byte[] key = keys[i];
+            if (key == null)
+            {
+                return null;
+            }
+            if (matches(key, bytes, length))
+            {
+                return (T) values[i];
+            }
+        }
+    }
+
+    /**
+     * Adds an entry, unless the table is full. The bytes are copied.
+     *
+     * @param bytes the array holding the key
+     * @param length the length of the key, starting at index 0
+     * @param value the value
+     */
+    void put(byte[] bytes, int length, T value)
+    {
+        if (size >= maxSize)
+        {
+            return;
+        }
+        if (2 * (size + 1) > keys.length)
+        {
+            byte[][] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new Object[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != null)
+                {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+        insert(Arrays.copyOf(bytes, length), value);
+        size++;
+    }
+
+    private void insert(byte[] key, Object value)
+    {
+        int mask = keys.length - 1;
+        int i = hash(key, key.length) & mask;
+        while (keys[i] != null)
+        {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private static int hash(byte[] bytes, int length)
+    {
+        int h = 0;
+        for (int i = 0; i < length; i++)
+        {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] key, byte[] bytes, int length)
+    {
+        if (key.length != length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (key[i] != bytes[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,10 +16,12 @@
  */
 package org.apache.pdfbox.pdfwriter;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.security.MessageDigest;
@@ -32,12 +34,22 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -55,6 +67,7 @@ import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.cos.COSUpdateInfo;
 import org.apache.pdfbox.cos.ICOSVisitor;
+import org.apache.pdfbox.filter.Filter;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessInputStream;
 import org.apache.pdfbox.io.RandomAccessRead;
@@ -180,6 +193,9 @@ public class COSWriter implements ICOSVisitor, Closeable
     //so that null entries will not get added.
     private final Map<COSBase,COSObjectKey> objectKeys = new Hashtable<>();
     private final Map<COSObjectKey,COSBase> keyObject = new Hashtable<>();
+    // the keys of written objects which have been released by releaseWrittenObject, they are
+    // only kept as long as the objects are referenced elsewhere
+    private final Map<COSBase, COSObjectKey> releasedObjectKeys = new WeakHashMap<>();
 
     // the list of x ref entries to be made so far
     private final List<COSWriterXRefEntry> xRefEntries = new ArrayList<>();
@@ -204,6 +220,21 @@ public class COSWriter implements ICOSVisitor, Closeable
     private FDFDocument fdfDocument = null;
     private boolean willEncrypt = false;
 
+    // compression
+    private CompressParameters compressParameters = CompressParameters.NO_COMPRESSION;
+    private boolean compress = false;
+    // the object stream being filled, the xref entries and offsets of its objects
+    private ByteArrayOutputStream objectStreamBuffer;
+    private COSStandardOutputStream objectStreamOutput;
+    private final List<COSWriterXRefEntry> objectStreamEntries = new ArrayList<>();
+    private final List<Long> objectStreamOffsets = new ArrayList<>();
+    // streams without filter are compressed ahead of the writer by a pool of threads
+    private boolean compressStreams = false;
+    private ExecutorService compressionExecutor;
+    private int compressionWindow;
+    private final Deque<COSStream> streamsToCompress = new LinkedList<>();
+    private final Map<COSStream, Future<byte[]>> compressedStreams = new IdentityHashMap<>();
+
     // signing
     private boolean incrementalUpdate = false;
     private boolean reachedSignature = false;
@@ -227,6 +258,25 @@ public class COSWriter implements ICOSVisitor, Closeable
         setStandardOutput(new COSStandardOutputStream(output));
     }
 
+    /**
+     * COSWriter constructor. If compression is enabled, all objects that aren't streams are
+     * packed into object streams and a cross-reference stream is written instead of the
+     * cross-reference table. The compression isn't used for encrypted documents and for FDF
+     * documents.
+     *
+     * @param outputStream The output stream to write the PDF. It will be closed when this object is
+     * closed.
+     * @param compressParameters The compression to be applied.
+     */
+    public COSWriter(OutputStream outputStream, CompressParameters compressParameters)
+    {
+        this(outputStream);
+        if (compressParameters != null)
+        {
+            this.compressParameters = compressParameters;
+        }
+    }
+
     /**
      * COSWriter constructor for incremental updates. There must be a path of objects that have
      * {@link COSUpdateInfo#isNeedToBeUpdated()} set, starting from the document catalog. For
@@ -445,10 +495,198 @@ public class COSWriter implements ICOSVisitor, Closeable
         {
             COSBase nextObject = objectsToWrite.removeFirst();
             objectsToWriteSet.remove(nextObject);
-            doWriteObject( nextObject );
+            scheduleStreamCompression();
+            if (compress && isObjectStreamCandidate(nextObject))
+            {
+                doWriteCompressedObject(nextObject);
+            }
+            else
+            {
+                doWriteObject( nextObject );
+            }
+        }
+        if (compress)
+        {
+            doWriteObjectStream();
+        }
+    }
+
+    /**
+     * Writes the given object and all objects reachable from it which haven't been written yet.
+     * This is used to write the objects of a document piece by piece before the document itself
+     * is written with {@link #write(PDDocument)}.
+     *
+     * @param object the object to be written
+     *
+     * @throws IOException if the output cannot be written
+     */
+    protected void doWriteObjectGraph(COSBase object) throws IOException
+    {
+        addObjectToWrite(object);
+        doWriteObjects();
+    }
+
+    /**
+     * Reserves an object which is written later. References to the object get its object number,
+     * but the object itself isn't written until {@link #doWriteReservedObject(COSBase)} is called.
+     *
+     * @param object the object to be reserved
+     */
+    protected void reserveObject(COSBase object)
+    {
+        writtenObjects.add(object);
+        actualsAdded.add(object);
+    }
+
+    /**
+     * Writes an object reserved with {@link #reserveObject(COSBase)} and all objects reachable
+     * from it which haven't been written yet.
+     *
+     * @param object the reserved object
+     *
+     * @throws IOException if the output cannot be written
+     */
+    protected void doWriteReservedObject(COSBase object) throws IOException
+    {
+        doWriteObject(object);
+        doWriteObjects();
+    }
+
+    /**
+     * Releases an object which has been written, so that the writer doesn't keep it in memory.
+     * As long as the object is referenced elsewhere, it isn't written again and references to it
+     * still get its object number.
+     *
+     * @param object the written object
+     */
+    protected void releaseWrittenObject(COSBase object)
+    {
+        COSBase actual = object;
+        if (actual instanceof COSObject)
+        {
+            actual = ((COSObject) actual).getObject();
+        }
+        COSObjectKey key = objectKeys.remove(object);
+        if (key != null)
+        {
+            releasedObjectKeys.put(object, key);
+        }
+        writtenObjects.remove(object);
+        if (actual != null && actual != object)
+        {
+            key = objectKeys.remove(actual);
+            if (key != null)
+            {
+                releasedObjectKeys.put(actual, key);
+            }
+            writtenObjects.remove(actual);
+        }
+        actualsAdded.remove(actual);
+    }
+
+    /**
+     * Only objects with generation number 0 which aren't streams may be stored in an object
+     * stream.
+     */
+    private boolean isObjectStreamCandidate(COSBase object)
+    {
+        COSBase actual = object;
+        if (actual instanceof COSObject)
+        {
+            actual = ((COSObject) actual).getObject();
+        }
+        return !(actual instanceof COSStream) && getObjectKey(object).getGeneration() == 0;
+    }
+
+    /**
+     * Write an object into the current object stream. The object stream is written to the output
+     * as soon as it holds the configured number of objects.
+     *
+     * @param obj The object to write.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    private void doWriteCompressedObject(COSBase obj) throws IOException
+    {
+        writtenObjects.add(obj);
+        currentObjectKey = getObjectKey(obj);
+        if (objectStreamOutput == null)
+        {
+            objectStreamBuffer = new ByteArrayOutputStream();
+            objectStreamOutput = new COSStandardOutputStream(objectStreamBuffer);
+        }
+        // the offset of a compressed object is its index within the object stream
+        COSWriterXRefEntry entry = new COSWriterXRefEntry(objectStreamEntries.size(), obj,
+                currentObjectKey);
+        addXRefEntry(entry);
+        objectStreamEntries.add(entry);
+        objectStreamOffsets.add(objectStreamOutput.getPos());
+
+        // write the object without "obj" and "endobj" into the object stream
+        COSStandardOutputStream fileOutput = getStandardOutput();
+        setStandardOutput(objectStreamOutput);
+        try
+        {
+            obj.accept(this);
+            getStandardOutput().writeEOL();
+        }
+        finally
+        {
+            setStandardOutput(fileOutput);
+        }
+
+        if (objectStreamEntries.size() >= compressParameters.getObjectStreamSize())
+        {
+            doWriteObjectStream();
         }
     }
 
+    /**
+     * Write the current object stream, if any, to the output.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    private void doWriteObjectStream() throws IOException
+    {
+        if (objectStreamEntries.isEmpty())
+        {
+            return;
+        }
+        // the header consists of the pairs of object number and offset of all objects
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < objectStreamEntries.size(); i++)
+        {
+            header.append(objectStreamEntries.get(i).getKey().getNumber());
+            header.append(' ');
+            header.append(objectStreamOffsets.get(i));
+            header.append(i % 10 == 9 ? '\n' : ' ');
+        }
+        header.append('\n');
+        byte[] headerBytes = header.toString().getBytes(Charsets.ISO_8859_1);
+
+        COSStream objectStream = pdDocument.getDocument().createCOSStream();
+        objectStream.setItem(COSName.TYPE, COSName.OBJ_STM);
+        objectStream.setInt(COSName.N, objectStreamEntries.size());
+        objectStream.setInt(COSName.FIRST, headerBytes.length);
+        try (OutputStream os = objectStream.createOutputStream(COSName.FLATE_DECODE))
+        {
+            os.write(headerBytes);
+            objectStreamBuffer.writeTo(os);
+        }
+        COSObjectKey objectStreamKey = getObjectKey(objectStream);
+        for (COSWriterXRefEntry entry : objectStreamEntries)
+        {
+            entry.setObjectStreamKey(objectStreamKey);
+        }
+        objectStreamEntries.clear();
+        objectStreamOffsets.clear();
+        objectStreamBuffer = null;
+        objectStreamOutput = null;
+
+        doWriteObject(objectStream);
+        objectStream.close();
+    }
+
     private void addObjectToWrite( COSBase object )
     {
         COSBase actual = object;
@@ -459,7 +697,9 @@ public class COSWriter implements ICOSVisitor, Closeable
 
         if( !writtenObjects.contains( object ) &&
             !objectsToWriteSet.contains( object ) &&
-            !actualsAdded.contains( actual ) )
+            !actualsAdded.contains( actual ) &&
+            !releasedObjectKeys.containsKey( object ) &&
+            !(actual != null && releasedObjectKeys.containsKey( actual )) )
         {
             COSBase cosBase=null;
             COSObjectKey cosObjectKey = null;
@@ -483,9 +723,112 @@ public class COSWriter implements ICOSVisitor, Closeable
             {
                 actualsAdded.add( actual );
             }
+            if (compressionExecutor != null && actual instanceof COSStream)
+            {
+                streamsToCompress.add((COSStream) actual);
+            }
         }
     }
 
+    /**
+     * Only streams without any filter are compressed. Metadata streams are left alone so that
+     * they stay readable for tools not knowing PDF.
+     */
+    private static boolean isCompressionCandidate(COSStream stream)
+    {
+        return stream.getFilters() == null && stream.getLength() > 0
+                && !COSName.METADATA.equals(stream.getCOSName(COSName.TYPE));
+    }
+
+    /**
+     * Submits the compression of the next queued streams to the worker threads. At most
+     * {@link #compressionWindow} compressed streams are kept ahead of the writer, which bounds
+     * the memory held by the compressed data not written yet.
+     */
+    private void scheduleStreamCompression()
+    {
+        while (compressionExecutor != null && compressedStreams.size() < compressionWindow
+                && !streamsToCompress.isEmpty())
+        {
+            final COSStream stream = streamsToCompress.removeFirst();
+            if (!writtenObjects.contains(stream) && !compressedStreams.containsKey(stream)
+                    && isCompressionCandidate(stream))
+            {
+                compressedStreams.put(stream, compressionExecutor.submit(new Callable<byte[]>()
+                {
+                    @Override
+                    public byte[] call() throws IOException
+                    {
+                        return flateEncode(stream);
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Returns the Flate-compressed data of a stream without filter, either computed ahead by a
+     * worker thread or in the current thread. The stream itself isn't changed.
+     *
+     * @param stream the stream to be compressed
+     * @return the compressed data, or null if the stream isn't compressed
+     * @throws IOException if the data could not be compressed
+     */
+    private byte[] compressStream(COSStream stream) throws IOException
+    {
+        byte[] encoded;
+        Future<byte[]> future = compressedStreams.remove(stream);
+        if (future != null)
+        {
+            try
+            {
+                encoded = future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing a stream");
+            }
+            catch (ExecutionException e)
+            {
+                if (e.getCause() instanceof IOException)
+                {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+        else if (isCompressionCandidate(stream))
+        {
+            encoded = flateEncode(stream);
+        }
+        else
+        {
+            return null;
+        }
+        return encoded;
+    }
+
+    /**
+     * Flate-compresses the data of a stream without changing the stream. This may be called by
+     * several threads at the same time for different streams.
+     */
+    private static byte[] flateEncode(COSStream stream) throws IOException
+    {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Filter.getCompressionLevel());
+        try (InputStream input = stream.createRawInputStream();
+             DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater))
+        {
+            IOUtils.copy(input, out);
+        }
+        finally
+        {
+            deflater.end();
+        }
+        return encoded.toByteArray();
+    }
+
     /**
      * This will write a COS object.
      *
@@ -532,6 +875,11 @@ public class COSWriter implements ICOSVisitor, Closeable
         {
             headerString = "%FDF-"+ Float.toString(doc.getVersion());
         }
+        else if (compress && doc.getVersion() < 1.5f)
+        {
+            // object streams and cross-reference streams were introduced with PDF 1.5
+            headerString = "%PDF-1.5";
+        }
         else
         {
             headerString = "%PDF-"+ Float.toString(doc.getVersion());
@@ -590,35 +938,7 @@ public class COSWriter implements ICOSVisitor, Closeable
             // the file uses XrefStreams, so we need to update
             // it with an xref stream. We create a new one and fill it
             // with data available here
-
-            // create a new XRefStrema object
-            PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
-
-            // add all entries from the incremental update.
-            List<COSWriterXRefEntry> xRefEntries2 = getXRefEntries();
-            for ( COSWriterXRefEntry cosWriterXRefEntry : xRefEntries2 )
-            {
-                pdfxRefStream.addEntry(cosWriterXRefEntry);
-            }
-
-            COSDictionary trailer = doc.getTrailer();
-            if (incrementalUpdate)
-            {
-                // use previous startXref value as new PREV value
-                trailer.setLong(COSName.PREV, doc.getStartXref());
-            }
-            else
-            {
-                trailer.removeItem(COSName.PREV);
-            }
-            pdfxRefStream.addTrailerInfo(trailer);
-            // the size is the highest object number+1. we add one more
-            // for the xref stream object we are going to write
-            pdfxRefStream.setSize(getNumber() + 2);
-
-            setStartxref(getStandardOutput().getPos());
-            COSStream stream2 = pdfxRefStream.getStream();
-            doWriteObject(stream2);
+            doWriteXRefStream(doc);
         }
 
         if (!doc.isXRefStream() || hybridPrev != -1)
@@ -636,6 +956,39 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
     }
 
+    // writes the cross-reference stream holding all entries written so far
+    private void doWriteXRefStream(COSDocument doc) throws IOException
+    {
+        // create a new XRefStrema object
+        PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
+
+        // add all entries from the incremental update.
+        List<COSWriterXRefEntry> xRefEntries2 = getXRefEntries();
+        for ( COSWriterXRefEntry cosWriterXRefEntry : xRefEntries2 )
+        {
+            pdfxRefStream.addEntry(cosWriterXRefEntry);
+        }
+
+        COSDictionary trailer = doc.getTrailer();
+        if (incrementalUpdate)
+        {
+            // use previous startXref value as new PREV value
+            trailer.setLong(COSName.PREV, doc.getStartXref());
+        }
+        else
+        {
+            trailer.removeItem(COSName.PREV);
+        }
+        pdfxRefStream.addTrailerInfo(trailer);
+        // the size is the highest object number+1. we add one more
+        // for the xref stream object we are going to write
+        pdfxRefStream.setSize(getNumber() + 2);
+
+        setStartxref(getStandardOutput().getPos());
+        COSStream stream2 = pdfxRefStream.getStream();
+        doWriteObject(stream2);
+    }
+
     // writes the "xref" table
     private void doWriteXRefTable() throws IOException
     {
@@ -897,6 +1250,14 @@ public class COSWriter implements ICOSVisitor, Closeable
         {
             key = objectKeys.get(actual);
         }
+        if (key == null && !releasedObjectKeys.isEmpty())
+        {
+            key = releasedObjectKeys.get(obj);
+            if (key == null && actual != null)
+            {
+                key = releasedObjectKeys.get(actual);
+            }
+        }
         if (key == null)
         {
             setNumber(getNumber()+1);
@@ -1115,7 +1476,11 @@ public class COSWriter implements ICOSVisitor, Closeable
             hybridPrev = trailer.getLong(COSName.XREF_STM);
         }
 
-        if(incrementalUpdate || doc.isXRefStream())
+        if (compress)
+        {
+            doWriteXRefStream(doc);
+        }
+        else if(incrementalUpdate || doc.isXRefStream())
         {
             doWriteXRefInc(doc, hybridPrev);
         }
@@ -1196,22 +1561,50 @@ public class COSWriter implements ICOSVisitor, Closeable
     @Override
     public Object visitFromStream(COSStream obj) throws IOException
     {
+        byte[] compressed = compressStreams ? compressStream(obj) : null;
+        // the length of a stream which is still encrypted is the one of the encrypted data
+        obj.applyDecryption();
+
+        // the compressed and the encrypted data are only written, the stream isn't changed
+        COSDictionary dictionary = obj;
+        if (compressed != null)
+        {
+            dictionary = new COSDictionary(obj);
+            dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            dictionary.setLong(COSName.LENGTH, compressed.length);
+        }
+        SecurityHandler securityHandler = null;
         if (willEncrypt)
         {
-            pdDocument.getEncryption().getSecurityHandler()
-                .encryptStream(obj, currentObjectKey.getNumber(), currentObjectKey.getGeneration());
+            securityHandler = pdDocument.getEncryption().getSecurityHandler();
+            if (dictionary == obj)
+            {
+                dictionary = new COSDictionary(obj);
+            }
+            // the /Length of a repaired stream may be wrong, the raw data is encrypted as it is
+            long rawLength = compressed != null ? compressed.length : obj.getRawLength();
+            dictionary.setLong(COSName.LENGTH, securityHandler.getEncryptedStreamLength(rawLength));
         }
 
         InputStream input = null;
         try
         {
             // write the stream content
-            visitFromDictionary(obj);
+            visitFromDictionary(dictionary);
             getStandardOutput().write(STREAM);
             getStandardOutput().writeCRLF();
 
-            input = obj.createRawInputStream();
-            IOUtils.copy(input, getStandardOutput());
+            input = compressed != null ? new ByteArrayInputStream(compressed)
+                    : obj.createRawInputStream();
+            if (securityHandler != null)
+            {
+                securityHandler.encryptStream(input, getStandardOutput(),
+                        currentObjectKey.getNumber(), currentObjectKey.getGeneration());
+            }
+            else
+            {
+                IOUtils.copy(input, getStandardOutput());
+            }
          
             getStandardOutput().writeCRLF();
             getStandardOutput().write(ENDSTREAM);
@@ -1374,7 +1767,39 @@ public class COSWriter implements ICOSVisitor, Closeable
             idArray.add( secondID );
             trailer.setItem(COSName.ID, idArray);
         }
-        cosDoc.accept(this);
+        // the objects of an encrypted document are encrypted one by one, so they can't be
+        // packed into object streams
+        compress = compressParameters.isCompress() && !incrementalUpdate && !willEncrypt;
+        compressStreams = compressParameters.isCompressStreams() && !incrementalUpdate;
+        int threads = compressParameters.getStreamCompressionThreads();
+        if (compressStreams && threads > 1)
+        {
+            compressionExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "PDFBox stream compression");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            compressionWindow = 2 * threads;
+        }
+        try
+        {
+            cosDoc.accept(this);
+        }
+        finally
+        {
+            if (compressionExecutor != null)
+            {
+                compressionExecutor.shutdownNow();
+                compressionExecutor = null;
+                streamsToCompress.clear();
+                compressedStreams.clear();
+            }
+        }
     }
 
     /**
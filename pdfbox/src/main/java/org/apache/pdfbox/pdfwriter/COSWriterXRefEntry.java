@@ -32,6 +32,7 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
     private COSBase object;
     private COSObjectKey key;
     private boolean free = false;
+    private COSObjectKey objectStreamKey;
     private static final COSWriterXRefEntry NULLENTRY;
     
     static 
@@ -117,6 +118,28 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
         free = newFree;
     }
 
+    /**
+     * Returns the key of the object stream holding the object. The offset of such an entry is
+     * the index of the object within the object stream.
+     *
+     * @return the key of the object stream, or null if the object isn't stored in an object
+     * stream.
+     */
+    public COSObjectKey getObjectStreamKey()
+    {
+        return objectStreamKey;
+    }
+
+    /**
+     * This will set the key of the object stream holding the object.
+     *
+     * @param newObjectStreamKey The key of the object stream.
+     */
+    public void setObjectStreamKey(COSObjectKey newObjectStreamKey)
+    {
+        objectStreamKey = newObjectStreamKey;
+    }
+
     /**
      * This will set the object key.
      *
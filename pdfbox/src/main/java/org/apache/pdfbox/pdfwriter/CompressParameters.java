@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+/**
+ * Parameters controlling the compression of a document written by the {@link COSWriter}.
+ *
+ * <p>When compression is enabled, all objects that are not streams are packed into compressed
+ * object streams (/Type /ObjStm) and the cross-reference table is written as a cross-reference
+ * stream (/Type /XRef). The resulting file requires a PDF 1.5 capable reader.</p>
+ *
+ * <p>Independently of that, streams which don't have any filter can be Flate-compressed while
+ * saving. This is done by a pool of worker threads ahead of the writing thread, the output is the
+ * same for any number of threads. Only the written data is compressed, the streams of the document
+ * aren't changed.</p>
+ */
+public final class CompressParameters
+{
+    /**
+     * The default number of objects packed into a single object stream.
+     */
+    public static final int DEFAULT_OBJECT_STREAM_SIZE = 100;
+
+    /**
+     * Compress using object streams holding {@link #DEFAULT_OBJECT_STREAM_SIZE} objects and
+     * compress unfiltered streams in the writing thread.
+     */
+    public static final CompressParameters DEFAULT_COMPRESSION = new CompressParameters();
+
+    /**
+     * Don't use object streams, write a classic cross-reference table.
+     */
+    public static final CompressParameters NO_COMPRESSION = new CompressParameters(0, 0);
+
+    private final int objectStreamSize;
+    private final int streamCompressionThreads;
+
+    /**
+     * Constructor using the default object stream size.
+     */
+    public CompressParameters()
+    {
+        this(DEFAULT_OBJECT_STREAM_SIZE);
+    }
+
+    /**
+     * Constructor. Unfiltered streams are compressed in the writing thread if object streams are
+     * used.
+     *
+     * @param objectStreamSize the maximum number of objects per object stream, 0 disables the
+     * compression.
+     * @throws IllegalArgumentException if the given size is negative
+     */
+    public CompressParameters(int objectStreamSize)
+    {
+        this(objectStreamSize, objectStreamSize > 0 ? 1 : 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectStreamSize the maximum number of objects per object stream, 0 disables the use
+     * of object streams.
+     * @param streamCompressionThreads the number of threads compressing unfiltered streams, 0
+     * disables the stream compression and 1 compresses in the writing thread.
+     * @throws IllegalArgumentException if one of the given values is negative
+     */
+    public CompressParameters(int objectStreamSize, int streamCompressionThreads)
+    {
+        if (objectStreamSize < 0)
+        {
+            throw new IllegalArgumentException("Object stream size can't be negative");
+        }
+        if (streamCompressionThreads < 0)
+        {
+            throw new IllegalArgumentException("Number of threads can't be negative");
+        }
+        this.objectStreamSize = objectStreamSize;
+        this.streamCompressionThreads = streamCompressionThreads;
+    }
+
+    /**
+     * Returns the maximum number of objects packed into a single object stream.
+     *
+     * @return the object stream size, 0 if the compression is disabled
+     */
+    public int getObjectStreamSize()
+    {
+        return objectStreamSize;
+    }
+
+    /**
+     * Returns the number of threads compressing streams without filter.
+     *
+     * @return the number of threads, 0 if such streams aren't compressed
+     */
+    public int getStreamCompressionThreads()
+    {
+        return streamCompressionThreads;
+    }
+
+    /**
+     * Indicates whether streams without filter are Flate-compressed.
+     *
+     * @return true if the stream compression is enabled
+     */
+    public boolean isCompressStreams()
+    {
+        return streamCompressionThreads > 0;
+    }
+
+    /**
+     * Indicates whether object streams and a cross-reference stream are written.
+     *
+     * @return true if the compression is enabled
+     */
+    public boolean isCompress()
+    {
+        return objectStreamSize > 0;
+    }
+}
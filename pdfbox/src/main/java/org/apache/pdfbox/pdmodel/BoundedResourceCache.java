@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+/**
+ * A thread safe resource cache with a size limit per resource type. Each resource gets an
+ * approximate weight in bytes, e.g. the decoded size of an image, and the least recently used
+ * resources are evicted when the total weight of a resource type exceeds its limit. The number of
+ * hits, misses and evictions is counted per resource type.
+ *
+ * <p>Unlike the {@link DefaultResourceCache} the resources are held by strong references, so the
+ * cache has a predictable size, and one instance can be shared by several documents via
+ * {@link PDDocument#setResourceCache(ResourceCache)}, e.g. in a rendering server. Note that a
+ * cached resource keeps its document reachable until it is evicted or the cache is cleared.</p>
+ */
+public class BoundedResourceCache implements ResourceCache
+{
+    /**
+     * The types of resources held by the cache.
+     */
+    public enum ResourceType
+    {
+        FONT(32L << 20),
+        COLOR_SPACE(4L << 20),
+        EXT_G_STATE(1L << 20),
+        SHADING(4L << 20),
+        PATTERN(4L << 20),
+        PROPERTIES(1L << 20),
+        XOBJECT(128L << 20);
+
+        private final long defaultMaximumWeight;
+
+        ResourceType(long defaultMaximumWeight)
+        {
+            this.defaultMaximumWeight = defaultMaximumWeight;
+        }
+
+        /**
+         * Returns the default maximum weight in bytes of the resources of this type.
+         *
+         * @return the default maximum weight
+         */
+        public long getDefaultMaximumWeight()
+        {
+            return defaultMaximumWeight;
+        }
+    }
+
+    // weights of the resources which don't hold any bulk data
+    private static final long SMALL_RESOURCE_WEIGHT = 256;
+    private static final long MEDIUM_RESOURCE_WEIGHT = 1024;
+    private static final long FONT_WEIGHT = 8 * 1024;
+
+    private final Map<ResourceType, Segment> segments = new EnumMap<>(ResourceType.class);
+
+    /**
+     * Creates a cache using the default maximum weight of each resource type.
+     */
+    public BoundedResourceCache()
+    {
+        for (ResourceType type : ResourceType.values())
+        {
+            segments.put(type, new Segment(type.getDefaultMaximumWeight()));
+        }
+    }
+
+    /**
+     * Sets the maximum weight of the resources of the given type. Resources are evicted
+     * immediately if the current weight exceeds the new limit.
+     *
+     * @param type the resource type
+     * @param maximumWeight the maximum weight in bytes, 0 disables caching of this type
+     * @return this cache, for chaining
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public BoundedResourceCache setMaximumWeight(ResourceType type, long maximumWeight)
+    {
+        if (maximumWeight < 0)
+        {
+            throw new IllegalArgumentException("Maximum weight can't be negative");
+        }
+        segments.get(type).setMaximumWeight(maximumWeight);
+        return this;
+    }
+
+    /**
+     * Returns the maximum weight of the resources of the given type.
+     *
+     * @param type the resource type
+     * @return the maximum weight in bytes
+     */
+    public long getMaximumWeight(ResourceType type)
+    {
+        return segments.get(type).getMaximumWeight();
+    }
+
+    /**
+     * Returns the current weight of the cached resources of the given type.
+     *
+     * @param type the resource type
+     * @return the weight in bytes
+     */
+    public long getWeight(ResourceType type)
+    {
+        return segments.get(type).getWeight();
+    }
+
+    /**
+     * Returns the number of cached resources of the given type.
+     *
+     * @param type the resource type
+     * @return the number of resources
+     */
+    public int getSize(ResourceType type)
+    {
+        return segments.get(type).getSize();
+    }
+
+    /**
+     * Returns the number of lookups of the given type which found a cached resource.
+     *
+     * @param type the resource type
+     * @return the number of hits
+     */
+    public long getHitCount(ResourceType type)
+    {
+        return segments.get(type).getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups of the given type which didn't find a cached resource.
+     *
+     * @param type the resource type
+     * @return the number of misses
+     */
+    public long getMissCount(ResourceType type)
+    {
+        return segments.get(type).getMissCount();
+    }
+
+    /**
+     * Returns the number of resources of the given type evicted because of the size limit.
+     *
+     * @param type the resource type
+     * @return the number of evictions
+     */
+    public long getEvictionCount(ResourceType type)
+    {
+        return segments.get(type).getEvictionCount();
+    }
+
+    /**
+     * Removes all resources from the cache. The counters are kept.
+     */
+    public void clear()
+    {
+        for (Segment segment : segments.values())
+        {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Estimates the weight in bytes of a font. This is the size of the embedded font file, if any,
+     * plus a fixed amount for the parsed font data.
+     *
+     * @param font the font
+     * @return the estimated weight in bytes
+     */
+    protected long getWeight(PDFont font)
+    {
+        long weight = FONT_WEIGHT;
+        PDFontDescriptor fontDescriptor = font.getFontDescriptor();
+        if (fontDescriptor != null)
+        {
+            weight += getLength(fontDescriptor.getFontFile());
+            weight += getLength(fontDescriptor.getFontFile2());
+            weight += getLength(fontDescriptor.getFontFile3());
+        }
+        return weight;
+    }
+
+    /**
+     * Estimates the weight in bytes of an XObject. For images this is the size of the decoded
+     * image, for forms the size of the content stream.
+     *
+     * @param xobject the XObject
+     * @return the estimated weight in bytes
+     */
+    protected long getWeight(PDXObject xobject)
+    {
+        long weight = MEDIUM_RESOURCE_WEIGHT + xobject.getCOSObject().getLength();
+        if (xobject instanceof PDImageXObject)
+        {
+            PDImageXObject image = (PDImageXObject) xobject;
+            weight += 4L * Math.max(0, image.getWidth()) * Math.max(0, image.getHeight());
+        }
+        return weight;
+    }
+
+    private static long getLength(PDStream stream)
+    {
+        return stream != null ? stream.getCOSObject().getLength() : 0;
+    }
+
+    @Override
+    public PDFont getFont(COSObject indirect)
+    {
+        return (PDFont) segments.get(ResourceType.FONT).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDFont font)
+    {
+        segments.get(ResourceType.FONT).put(indirect, font, font != null ? getWeight(font) : 0);
+    }
+
+    @Override
+    public PDColorSpace getColorSpace(COSObject indirect)
+    {
+        return (PDColorSpace) segments.get(ResourceType.COLOR_SPACE).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDColorSpace colorSpace)
+    {
+        segments.get(ResourceType.COLOR_SPACE).put(indirect, colorSpace, MEDIUM_RESOURCE_WEIGHT);
+    }
+
+    @Override
+    public PDExtendedGraphicsState getExtGState(COSObject indirect)
+    {
+        return (PDExtendedGraphicsState) segments.get(ResourceType.EXT_G_STATE).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDExtendedGraphicsState extGState)
+    {
+        segments.get(ResourceType.EXT_G_STATE).put(indirect, extGState, SMALL_RESOURCE_WEIGHT);
+    }
+
+    @Override
+    public PDShading getShading(COSObject indirect)
+    {
+        return (PDShading) segments.get(ResourceType.SHADING).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDShading shading)
+    {
+        segments.get(ResourceType.SHADING).put(indirect, shading, MEDIUM_RESOURCE_WEIGHT);
+    }
+
+    @Override
+    public PDAbstractPattern getPattern(COSObject indirect)
+    {
+        return (PDAbstractPattern) segments.get(ResourceType.PATTERN).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDAbstractPattern pattern)
+    {
+        segments.get(ResourceType.PATTERN).put(indirect, pattern, MEDIUM_RESOURCE_WEIGHT);
+    }
+
+    @Override
+    public PDPropertyList getProperties(COSObject indirect)
+    {
+        return (PDPropertyList) segments.get(ResourceType.PROPERTIES).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDPropertyList propertyList)
+    {
+        segments.get(ResourceType.PROPERTIES).put(indirect, propertyList, SMALL_RESOURCE_WEIGHT);
+    }
+
+    @Override
+    public PDXObject getXObject(COSObject indirect)
+    {
+        return (PDXObject) segments.get(ResourceType.XOBJECT).get(indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDXObject xobject)
+    {
+        segments.get(ResourceType.XOBJECT).put(indirect, xobject,
+                xobject != null ? getWeight(xobject) : 0);
+    }
+
+    /**
+     * The cached resources of one type in least recently used order.
+     */
+    private static final class Segment
+    {
+        private final LinkedHashMap<COSObject, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long maximumWeight;
+        private long weight = 0;
+        private long hitCount = 0;
+        private long missCount = 0;
+        private long evictionCount = 0;
+
+        private Segment(long maximumWeight)
+        {
+            this.maximumWeight = maximumWeight;
+        }
+
+        synchronized Object get(COSObject key)
+        {
+            Entry entry = entries.get(key);
+            if (entry == null)
+            {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return entry.resource;
+        }
+
+        synchronized void put(COSObject key, Object resource, long resourceWeight)
+        {
+            Entry old = entries.remove(key);
+            if (old != null)
+            {
+                weight -= old.weight;
+            }
+            // resources larger than the whole segment aren't cached at all
+            if (resource == null || resourceWeight > maximumWeight)
+            {
+                return;
+            }
+            entries.put(key, new Entry(resource, resourceWeight));
+            weight += resourceWeight;
+            evict();
+        }
+
+        private void evict()
+        {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (weight > maximumWeight && iterator.hasNext())
+            {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                evictionCount++;
+            }
+        }
+
+        synchronized void setMaximumWeight(long maximumWeight)
+        {
+            this.maximumWeight = maximumWeight;
+            evict();
+        }
+
+        synchronized long getMaximumWeight()
+        {
+            return maximumWeight;
+        }
+
+        synchronized long getWeight()
+        {
+            return weight;
+        }
+
+        synchronized int getSize()
+        {
+            return entries.size();
+        }
+
+        synchronized long getHitCount()
+        {
+            return hitCount;
+        }
+
+        synchronized long getMissCount()
+        {
+            return missCount;
+        }
+
+        synchronized long getEvictionCount()
+        {
+            return evictionCount;
+        }
+
+        synchronized void clear()
+        {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Object resource;
+        private final long weight;
+
+        private Entry(Object resource, long weight)
+        {
+            this.resource = resource;
+            this.weight = weight;
+        }
+    }
+}
@@ -49,9 +49,11 @@ import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.io.RandomAccessBuffer;
 import org.apache.pdfbox.io.RandomAccessBufferedFileInputStream;
 import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdfparser.PDFParser;
 import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdfwriter.CompressParameters;
 import org.apache.pdfbox.pdmodel.common.COSArrayList;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.common.PDStream;
@@ -895,7 +897,8 @@ public class PDDocument implements Closeable
      * Parses a PDF.
      * 
      * @param file file to be loaded
-     * @param memUsageSetting defines how memory is used for buffering PDF streams 
+     * @param memUsageSetting defines how memory is used for buffering PDF streams and whether
+     * the file is memory mapped, see {@link MemoryUsageSetting#setUseMemoryMappedFile(boolean)}
      * 
      * @return loaded document
      * 
@@ -930,7 +933,8 @@ public class PDDocument implements Closeable
      * 
      * @param file file to be loaded
      * @param password password to be used for decryption
-     * @param memUsageSetting defines how memory is used for buffering PDF streams 
+     * @param memUsageSetting defines how memory is used for buffering PDF streams and whether
+     * the file is memory mapped, see {@link MemoryUsageSetting#setUseMemoryMappedFile(boolean)}
      * 
      * @return loaded document
      * 
@@ -968,7 +972,8 @@ public class PDDocument implements Closeable
      * @param password password to be used for decryption
      * @param keyStore key store to be used for decryption when using public key security 
      * @param alias alias to be used for decryption when using public key security
-     * @param memUsageSetting defines how memory is used for buffering PDF streams 
+     * @param memUsageSetting defines how memory is used for buffering PDF streams and whether
+     * the file is memory mapped, see {@link MemoryUsageSetting#setUseMemoryMappedFile(boolean)}
      * 
      * @return loaded document
      * 
@@ -977,7 +982,9 @@ public class PDDocument implements Closeable
     public static PDDocument load(File file, String password, InputStream keyStore, String alias,
                                   MemoryUsageSetting memUsageSetting) throws IOException
     {
-        RandomAccessBufferedFileInputStream raFile = new RandomAccessBufferedFileInputStream(file);
+        RandomAccessRead raFile = memUsageSetting.useMemoryMappedFile() ?
+                new RandomAccessReadMemoryMappedFile(file) :
+                new RandomAccessBufferedFileInputStream(file);
         try
         {
             ScratchFile scratchFile = new ScratchFile(memUsageSetting);
@@ -1210,6 +1217,19 @@ public class PDDocument implements Closeable
         save(new File(fileName));
     }
 
+    /**
+     * Save the document to a file using the given compression.
+     * 
+     * @param fileName The file to save as.
+     * @param compressParameters The compression to be applied, see {@link CompressParameters}.
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(String fileName, CompressParameters compressParameters) throws IOException
+    {
+        save(new File(fileName), compressParameters);
+    }
+
     /**
      * Save the document to a file.
      * 
@@ -1219,7 +1239,20 @@ public class PDDocument implements Closeable
      */
     public void save(File file) throws IOException
     {
-        save(new BufferedOutputStream(new FileOutputStream(file)));
+        save(file, CompressParameters.NO_COMPRESSION);
+    }
+
+    /**
+     * Save the document to a file using the given compression.
+     * 
+     * @param file The file to save as.
+     * @param compressParameters The compression to be applied, see {@link CompressParameters}.
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(File file, CompressParameters compressParameters) throws IOException
+    {
+        save(new BufferedOutputStream(new FileOutputStream(file)), compressParameters);
     }
 
     /**
@@ -1231,6 +1264,24 @@ public class PDDocument implements Closeable
      * @throws IOException if the output could not be written
      */
     public void save(OutputStream output) throws IOException
+    {
+        save(output, CompressParameters.NO_COMPRESSION);
+    }
+
+    /**
+     * This will save the document to an output stream using the given compression. With
+     * {@link CompressParameters#DEFAULT_COMPRESSION} all objects that aren't streams are packed
+     * into compressed object streams and a cross-reference stream is written, which results in
+     * a considerably smaller PDF 1.5 file. Encrypted documents are always saved uncompressed.
+     *
+     * @param output The stream to write to. It will be closed when done. It is recommended to wrap
+     * it in a {@link java.io.BufferedOutputStream}, unless it is already buffered.
+     * @param compressParameters The compression to be applied, see {@link CompressParameters}.
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(OutputStream output, CompressParameters compressParameters)
+            throws IOException
     {
         if (document.isClosed())
         {
@@ -1243,9 +1294,9 @@ public class PDDocument implements Closeable
             font.subset();
         }
         fontsToSubset.clear();
-        
+
          // save PDF
-        try (COSWriter writer = new COSWriter(output))
+        try (COSWriter writer = new COSWriter(output, compressParameters))
         {
             writer.write(this);
         }
@@ -28,7 +28,9 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -40,6 +42,16 @@ import org.apache.commons.logging.LogFactory;
 public class PDPageTree implements COSObjectable, Iterable<PDPage>
 {
     private static final Log LOG = LogFactory.getLog(PDPageTree.class);
+
+    /**
+     * The maximum number of kids of a page tree node created or balanced by PDFBox.
+     */
+    static final int MAX_KIDS = 64;
+
+    // the attributes a page inherits from its ancestors
+    private static final COSName[] INHERITABLE_ATTRIBUTES = { COSName.RESOURCES,
+            COSName.MEDIA_BOX, COSName.CROP_BOX, COSName.ROTATE };
+
     private final COSDictionary root;
     private final PDDocument document; // optional
 
@@ -264,9 +276,19 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             int count = node.getInt(COSName.COUNT, 0);
             if (pageNum <= encountered + count)
             {
-                // it's a kid of this node
-                for (COSDictionary kid : getKids(node))
+                // it's a kid of this node, only the counts of the kids are needed to find it
+                COSArray kids = node.getCOSArray(COSName.KIDS);
+                int size = kids == null ? 0 : kids.size();
+                for (int i = 0; i < size; i++)
                 {
+                    COSBase base = kids.getObject(i);
+                    if (!(base instanceof COSDictionary))
+                    {
+                        LOG.warn("COSDictionary expected, but got " +
+                                (base == null ? "null" : base.getClass().getSimpleName()));
+                        continue;
+                    }
+                    COSDictionary kid = (COSDictionary) base;
                     // which kid?
                     if (isPageTreeNode(kid))
                     {
@@ -332,6 +354,33 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      */
     public int indexOf(PDPage page)
     {
+        // climb up the tree and add the pages of all preceding siblings of the page and its
+        // ancestors, this only needs the nodes on the path from the page to the root
+        COSDictionary node = page.getCOSObject();
+        int index = 0;
+        while (node != root)
+        {
+            COSBase base = node.getDictionaryObject(COSName.PARENT, COSName.P);
+            if (!(base instanceof COSDictionary))
+            {
+                // not a page of this tree or a broken parent chain
+                break;
+            }
+            COSDictionary parent = (COSDictionary) base;
+            int precedingPages = countPrecedingPages(parent, node);
+            if (precedingPages < 0)
+            {
+                break;
+            }
+            index += precedingPages;
+            node = parent;
+        }
+        if (node == root)
+        {
+            return index;
+        }
+
+        // fall back to searching the whole tree
         SearchContext context = new SearchContext(page);
         if (findPage(context, root))
         {
@@ -340,6 +389,41 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         return -1;
     }
 
+    /**
+     * Returns the number of pages of all kids of the given node preceding the given kid, or -1 if
+     * the kid isn't a kid of the node.
+     */
+    private int countPrecedingPages(COSDictionary node, COSDictionary kid)
+    {
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        if (kids == null)
+        {
+            return -1;
+        }
+        int count = 0;
+        for (int i = 0, size = kids.size(); i < size; i++)
+        {
+            COSBase base = kids.getObject(i);
+            if (base == kid)
+            {
+                return count;
+            }
+            if (base instanceof COSDictionary)
+            {
+                count += getPageCount((COSDictionary) base);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of pages of the given kid, which is either a page or a page tree node.
+     */
+    private int getPageCount(COSDictionary kid)
+    {
+        return isPageTreeNode(kid) ? kid.getInt(COSName.COUNT, 0) : 1;
+    }
+
     private boolean findPage(SearchContext context, COSDictionary node)
     {
         for (COSDictionary kid : getKids(node))
@@ -443,14 +527,28 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      */
     public void add(PDPage page)
     {
+        // append to the last node of the tree, but don't descend into nodes with inheritable
+        // attributes, the new page would inherit them
+        COSDictionary parent = root;
+        COSArray kids = (COSArray)root.getDictionaryObject(COSName.KIDS);
+        while (kids.size() > 0)
+        {
+            COSBase last = kids.getObject(kids.size() - 1);
+            if (!(last instanceof COSDictionary) || !isPageTreeNode((COSDictionary) last)
+                    || hasInheritableAttributes((COSDictionary) last)
+                    || ((COSDictionary) last).getCOSArray(COSName.KIDS) == null)
+            {
+                break;
+            }
+            parent = (COSDictionary) last;
+            kids = parent.getCOSArray(COSName.KIDS);
+        }
+
         // set parent
         COSDictionary node = page.getCOSObject();
-        node.setItem(COSName.PARENT, root);
-
-        // todo: re-balance tree? (or at least group new pages into tree nodes of e.g. 20)
+        node.setItem(COSName.PARENT, parent);
 
         // add to parent's kids
-        COSArray kids = (COSArray)root.getDictionaryObject(COSName.KIDS);
         kids.add(node);
 
         // update ancestor counts
@@ -463,6 +561,174 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             }
         }
         while (node != null);
+
+        balanceAfterInsert(parent);
+    }
+
+    /**
+     * Balances the page tree, so that no node has more than {@value #MAX_KIDS} kids. The kids of
+     * larger nodes are grouped into new intermediate nodes, which don't have any inheritable
+     * attributes. This doesn't change the order of the pages or any inherited attribute. It isn't
+     * done automatically, call it before saving a document with a flat page tree, so that the
+     * pages of huge documents can be accessed quickly.
+     */
+    public void balance()
+    {
+        balance(root, new HashSet<COSDictionary>());
+    }
+
+    private void balance(COSDictionary node, Set<COSDictionary> visited)
+    {
+        // guard against loops in malformed trees
+        if (!visited.add(node))
+        {
+            return;
+        }
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        if (kids == null)
+        {
+            return;
+        }
+        for (int i = 0, size = kids.size(); i < size; i++)
+        {
+            COSBase base = kids.getObject(i);
+            if (base instanceof COSDictionary && isPageTreeNode((COSDictionary) base))
+            {
+                balance((COSDictionary) base, visited);
+            }
+        }
+        if (kids.size() > MAX_KIDS)
+        {
+            groupKids(node);
+        }
+    }
+
+    /**
+     * Splits the given node after a kid has been inserted, if it has too many kids. As in a
+     * B-tree the upper half of the kids is moved to a new sibling, only the root gets new kids
+     * holding its former kids, so the depth of the tree only grows at the root.
+     */
+    private void balanceAfterInsert(COSDictionary node)
+    {
+        while (node != null)
+        {
+            COSArray kids = node.getCOSArray(COSName.KIDS);
+            if (kids == null || kids.size() <= MAX_KIDS)
+            {
+                return;
+            }
+            COSBase parent = node.getDictionaryObject(COSName.PARENT, COSName.P);
+            if (node == root || !(parent instanceof COSDictionary)
+                    || !splitNode(node, (COSDictionary) parent))
+            {
+                groupKids(node);
+                return;
+            }
+            node = (COSDictionary) parent;
+        }
+    }
+
+    /**
+     * Moves the upper half of the kids of a node to a new sibling following the node.
+     *
+     * @return false if the node isn't a kid of the given parent
+     */
+    private boolean splitNode(COSDictionary node, COSDictionary parent)
+    {
+        COSArray parentKids = parent.getCOSArray(COSName.KIDS);
+        int index = parentKids == null ? -1 : parentKids.indexOfObject(node);
+        if (index < 0)
+        {
+            return false;
+        }
+        COSDictionary sibling = createNode(parent);
+        // the pages moved to the sibling have to inherit the same attributes as before
+        for (COSName key : INHERITABLE_ATTRIBUTES)
+        {
+            COSBase value = node.getItem(key);
+            if (value != null)
+            {
+                sibling.setItem(key, value);
+            }
+        }
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        int moved = moveKids(kids, kids.size() / 2, kids.size(), sibling);
+        node.setInt(COSName.COUNT, node.getInt(COSName.COUNT, 0) - moved);
+        parentKids.add(index + 1, sibling);
+        return true;
+    }
+
+    /**
+     * Groups the kids of the given node into new intermediate nodes with at most
+     * {@value #MAX_KIDS} kids each, repeatedly until the node itself doesn't have more kids.
+     */
+    private void groupKids(COSDictionary node)
+    {
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        while (kids.size() > MAX_KIDS)
+        {
+            int groupCount = (kids.size() + MAX_KIDS - 1) / MAX_KIDS;
+            COSArray groups = new COSArray();
+            COSArray remaining = kids;
+            for (int g = 0; g < groupCount; g++)
+            {
+                // distribute the kids evenly
+                int groupSize = remaining.size() / (groupCount - g);
+                COSDictionary group = createNode(node);
+                moveKids(remaining, 0, groupSize, group);
+                groups.add(group);
+            }
+            node.setItem(COSName.KIDS, groups);
+            kids = groups;
+        }
+    }
+
+    /**
+     * Moves a range of kids to the given node, which becomes their parent.
+     *
+     * @return the number of pages moved
+     */
+    private int moveKids(COSArray kids, int from, int to, COSDictionary node)
+    {
+        COSArray newKids = node.getCOSArray(COSName.KIDS);
+        int pages = 0;
+        for (int i = from; i < to; i++)
+        {
+            // keep indirect references as they are
+            COSBase base = kids.get(from);
+            COSBase kid = kids.getObject(from);
+            kids.remove(from);
+            newKids.add(base);
+            if (kid instanceof COSDictionary)
+            {
+                ((COSDictionary) kid).setItem(COSName.PARENT, node);
+                pages += getPageCount((COSDictionary) kid);
+            }
+        }
+        node.setInt(COSName.COUNT, node.getInt(COSName.COUNT, 0) + pages);
+        return pages;
+    }
+
+    private static COSDictionary createNode(COSDictionary parent)
+    {
+        COSDictionary node = new COSDictionary();
+        node.setItem(COSName.TYPE, COSName.PAGES);
+        node.setItem(COSName.KIDS, new COSArray());
+        node.setItem(COSName.COUNT, COSInteger.ZERO);
+        node.setItem(COSName.PARENT, parent);
+        return node;
+    }
+
+    private static boolean hasInheritableAttributes(COSDictionary node)
+    {
+        for (COSName key : INHERITABLE_ATTRIBUTES)
+        {
+            if (node.containsKey(key))
+            {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
@@ -495,6 +761,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             throw new IllegalArgumentException("attempted to insert before orphan page");
         }
         increaseParents(parentDict);
+        balanceAfterInsert(parentDict);
     }
 
     /**
@@ -527,6 +794,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             throw new IllegalArgumentException("attempted to insert before orphan page");
         }
         increaseParents(parentDict);
+        balanceAfterInsert(parentDict);
     }
 
     private void increaseParents(COSDictionary parentDict)
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdfwriter.COSWriterXRefEntry;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Writes a document page by page. Each page is written to the output as soon as it is complete,
+ * together with all its resources which haven't been written yet. Afterwards the data of all
+ * streams written with the page, like its content streams, images and embedded fonts, is released
+ * and the writer only keeps the object numbers of the written objects as long as they are
+ * referenced elsewhere, e.g. by a font used by later pages. Only the offsets of the written
+ * objects and the page tree nodes not written yet stay in memory, so that documents with a huge
+ * number of pages can be generated with little memory.
+ *
+ * <p>The pages must not be added to the page tree of the document. All other parts of the
+ * document, like the document information, the outline or the AcroForm, are written when the
+ * writer is closed, so they may refer to any page written before. Fonts which will be subset are
+ * written when the writer is closed as well, after all pages using them have been written.
+ * Annotations and destinations of a page may only refer to pages which have already been
+ * written. Encryption isn't supported.</p>
+ *
+ * <pre>
+ * try (PDDocument document = new PDDocument();
+ *      StreamingDocumentWriter writer = new StreamingDocumentWriter(document, output))
+ * {
+ *     for (...)
+ *     {
+ *         PDPage page = new PDPage();
+ *         try (PDPageContentStream contents = new PDPageContentStream(document, page))
+ *         {
+ *             ...
+ *         }
+ *         writer.writePage(page);
+ *     }
+ * }
+ * </pre>
+ */
+public class StreamingDocumentWriter implements Closeable
+{
+    private final PDDocument document;
+    private final StreamingCOSWriter writer;
+
+    // the page tree nodes which haven't been written yet, one per level at most, the leaf first
+    private final List<COSDictionary> openNodes = new ArrayList<>();
+
+    // fonts which will be subset and therefore are written when closing
+    private final List<PDFont> reservedFonts = new ArrayList<>();
+
+    private int pageCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor. The header of the document is written immediately.
+     *
+     * @param document the document providing everything but the pages
+     * @param output the stream to write to. It will be closed when the writer is closed. It is
+     * recommended to wrap it in a {@link java.io.BufferedOutputStream}, unless it is already
+     * buffered.
+     * @throws IOException if the output could not be written
+     */
+    public StreamingDocumentWriter(PDDocument document, OutputStream output) throws IOException
+    {
+        this.document = document;
+        writer = new StreamingCOSWriter(output);
+        checkEncryption();
+        writer.writeHeader(document.getDocument());
+    }
+
+    /**
+     * Writes the given page and all its resources which haven't been written yet. The page must
+     * be complete, it can't be changed afterwards.
+     *
+     * @param page the page to be written
+     * @throws IOException if the output could not be written
+     */
+    public void writePage(PDPage page) throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("StreamingDocumentWriter already closed");
+        }
+        checkEncryption();
+        reserveFontsToSubset();
+
+        COSDictionary pageDict = page.getCOSObject();
+        pageDict.setItem(COSName.PARENT, getOpenNode(0));
+        writer.writeObjectGraph(pageDict);
+        writer.releaseWrittenObjects();
+        pageCount++;
+        addKid(0, pageDict, 1);
+    }
+
+    /**
+     * Returns the number of pages written so far.
+     *
+     * @return the number of pages
+     */
+    public int getNumberOfPages()
+    {
+        return pageCount;
+    }
+
+    /**
+     * Finishes the document by writing the page tree, the remaining objects of the document, the
+     * cross-reference table and the trailer, and closes the output. The document itself isn't
+     * closed.
+     *
+     * @throws IOException if the output could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        try
+        {
+            checkEncryption();
+            COSDictionary root = finishPageTree();
+
+            // all pages are written, so the subsets are complete
+            for (PDFont font : reservedFonts)
+            {
+                font.subset();
+                document.getFontsToSubset().remove(font);
+                writer.writeReservedObject(font.getCOSObject());
+            }
+            reservedFonts.clear();
+
+            document.getDocumentCatalog().getCOSObject().setItem(COSName.PAGES, root);
+            writer.write(document);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private void checkEncryption()
+    {
+        if (document.getEncryption() != null)
+        {
+            throw new IllegalStateException(
+                    "Encryption isn't supported by the StreamingDocumentWriter");
+        }
+    }
+
+    /**
+     * Fonts which will be subset can't be written before all pages are known.
+     */
+    private void reserveFontsToSubset()
+    {
+        for (PDFont font : document.getFontsToSubset())
+        {
+            if (!reservedFonts.contains(font))
+            {
+                reservedFonts.add(font);
+                writer.reserve(font.getCOSObject());
+            }
+        }
+    }
+
+    /**
+     * Returns the open node of the given level of the page tree, a new node is reserved if
+     * there isn't any.
+     */
+    private COSDictionary getOpenNode(int level)
+    {
+        while (openNodes.size() <= level)
+        {
+            openNodes.add(null);
+        }
+        COSDictionary node = openNodes.get(level);
+        if (node == null)
+        {
+            node = new COSDictionary();
+            node.setItem(COSName.TYPE, COSName.PAGES);
+            node.setItem(COSName.KIDS, new COSArray());
+            node.setItem(COSName.COUNT, COSInteger.ZERO);
+            writer.reserve(node);
+            openNodes.set(level, node);
+        }
+        return node;
+    }
+
+    /**
+     * Adds a kid to the open node of the given level. The node is written as soon as it is
+     * full.
+     */
+    private void addKid(int level, COSDictionary kid, int count) throws IOException
+    {
+        COSDictionary node = getOpenNode(level);
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        kids.add(kid);
+        node.setInt(COSName.COUNT, node.getInt(COSName.COUNT) + count);
+        if (kids.size() >= PDPageTree.MAX_KIDS)
+        {
+            openNodes.set(level, null);
+            writeNode(level, node);
+        }
+    }
+
+    private void writeNode(int level, COSDictionary node) throws IOException
+    {
+        node.setItem(COSName.PARENT, getOpenNode(level + 1));
+        writer.writeReservedObject(node);
+        // the written node doesn't need to keep its kids in memory any longer
+        node.getCOSArray(COSName.KIDS).clear();
+        writer.releaseWrittenObjects();
+        addKid(level + 1, node, node.getInt(COSName.COUNT));
+    }
+
+    /**
+     * Writes all open nodes of the page tree and returns its root.
+     */
+    private COSDictionary finishPageTree() throws IOException
+    {
+        // writing a node adds it to the level above, which may grow the tree
+        for (int level = 0; level < openNodes.size() - 1; level++)
+        {
+            COSDictionary node = openNodes.get(level);
+            if (node != null)
+            {
+                openNodes.set(level, null);
+                writeNode(level, node);
+            }
+        }
+        COSDictionary root = getOpenNode(openNodes.isEmpty() ? 0 : openNodes.size() - 1);
+        writer.writeReservedObject(root);
+        return root;
+    }
+
+    /**
+     * A COSWriter writing the objects of a document piece by piece.
+     */
+    private static final class StreamingCOSWriter extends COSWriter
+    {
+        private boolean headerWritten = false;
+
+        // the objects written since the last call of releaseWrittenObjects
+        private final List<COSBase> writtenObjects = new ArrayList<>();
+
+        StreamingCOSWriter(OutputStream output)
+        {
+            super(output);
+        }
+
+        void writeHeader(COSDocument doc) throws IOException
+        {
+            doWriteHeader(doc);
+        }
+
+        void writeObjectGraph(COSBase object) throws IOException
+        {
+            doWriteObjectGraph(object);
+        }
+
+        void reserve(COSBase object)
+        {
+            reserveObject(object);
+        }
+
+        void writeReservedObject(COSBase object) throws IOException
+        {
+            doWriteReservedObject(object);
+        }
+
+        /**
+         * Releases the objects written since the last call and the data of the written streams.
+         */
+        void releaseWrittenObjects() throws IOException
+        {
+            for (COSBase object : writtenObjects)
+            {
+                COSBase actual = object instanceof COSObject ? ((COSObject) object).getObject()
+                        : object;
+                if (actual instanceof COSStream)
+                {
+                    ((COSStream) actual).close();
+                }
+                releaseWrittenObject(object);
+            }
+            writtenObjects.clear();
+        }
+
+        @Override
+        public void doWriteObject(COSBase obj) throws IOException
+        {
+            super.doWriteObject(obj);
+            writtenObjects.add(obj);
+        }
+
+        @Override
+        protected void addXRefEntry(COSWriterXRefEntry entry)
+        {
+            // the table only needs the offset and the key, don't keep the object in memory;
+            // object streams, which change the entries later, aren't used by this writer
+            COSWriterXRefEntry copy = new COSWriterXRefEntry(entry.getOffset(), null,
+                    entry.getKey());
+            copy.setFree(entry.isFree());
+            super.addXRefEntry(copy);
+        }
+
+        @Override
+        protected void doWriteHeader(COSDocument doc) throws IOException
+        {
+            // the header has been written before the first page
+            if (!headerWritten)
+            {
+                super.doWriteHeader(doc);
+                headerWritten = true;
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.pdfbox.pdmodel.common.function;
 
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.pdmodel.common.PDRange;
+import org.apache.pdfbox.pdmodel.common.function.type4.CompiledInstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.ExecutionContext;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequenceBuilder;
@@ -38,6 +39,9 @@ public class PDFunctionType4 extends PDFunction
 
     private final InstructionSequence instructions;
 
+    // the compiled instructions, or null if the instructions can only be interpreted
+    private final CompiledInstructionSequence compiledInstructions;
+
     /**
      * Constructor.
      *
@@ -50,6 +54,7 @@ public class PDFunctionType4 extends PDFunction
         byte[] bytes = getPDStream().toByteArray();
         String string =  new String(bytes, "ISO-8859-1");
         this.instructions = InstructionSequenceBuilder.parse(string);
+        this.compiledInstructions = CompiledInstructionSequence.compile(instructions);
     }
     
     /**
@@ -66,6 +71,40 @@ public class PDFunctionType4 extends PDFunction
     */
     @Override
     public float[] eval(float[] input) throws IOException
+    {
+        if (compiledInstructions != null)
+        {
+            float[] clippedInput = new float[input.length];
+            for (int i = 0; i < input.length; i++)
+            {
+                PDRange domain = getDomainForInput(i);
+                clippedInput[i] = clipToRange(input[i], domain.getMin(), domain.getMax());
+            }
+            float[] outputValues;
+            try
+            {
+                outputValues = compiledInstructions.execute(clippedInput,
+                        getNumberOfOutputParameters());
+            }
+            catch (RuntimeException e)
+            {
+                // let the interpreter report the error
+                return interpret(input);
+            }
+            for (int i = 0; i < outputValues.length; i++)
+            {
+                PDRange range = getRangeForOutput(i);
+                outputValues[i] = clipToRange(outputValues[i], range.getMin(), range.getMax());
+            }
+            return outputValues;
+        }
+        return interpret(input);
+    }
+
+    /**
+     * Evaluates the function by interpreting its instructions.
+     */
+    private float[] interpret(float[] input)
     {
         //Setup the input values
         ExecutionContext context = new ExecutionContext(OPERATORS);
@@ -0,0 +1,922 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An instruction sequence compiled to a tree of instructions which work on a primitive operand
+ * stack. Numbers and booleans aren't boxed, so executing the compiled sequence doesn't allocate
+ * any objects apart from the output array. The results are the same as those of
+ * {@link InstructionSequence#execute(ExecutionContext)}: integers and reals are kept apart and
+ * real arithmetic is done with float precision.
+ *
+ * <p>Only sequences whose procedures are used by <code>if</code> and <code>ifelse</code>, or
+ * which end with a procedure, can be compiled. Errors like a stack underflow or a
+ * type mismatch are reported by a RuntimeException, the interpreter should then be used to get
+ * the same error as without compilation.</p>
+ */
+public final class CompiledInstructionSequence
+{
+    // the operand stack of a PostScript calculator function is limited to 100 entries
+    private static final int MAX_STACK_SIZE = 100;
+
+    private static final byte INT = 0;
+    private static final byte REAL = 1;
+    private static final byte BOOL = 2;
+
+    private static final Map<String, Instruction> OPERATORS = new HashMap<>();
+
+    private final Instruction[] instructions;
+
+    // one operand stack is kept for reuse, further ones are created if used concurrently
+    private final AtomicReference<OperandStack> idleStack = new AtomicReference<>();
+
+    private CompiledInstructionSequence(Instruction[] instructions)
+    {
+        this.instructions = instructions;
+    }
+
+    /**
+     * Compiles the given instruction sequence.
+     *
+     * @param sequence the instruction sequence of a type 4 function
+     * @return the compiled sequence, or null if the sequence can't be compiled
+     */
+    public static CompiledInstructionSequence compile(InstructionSequence sequence)
+    {
+        Instruction[] instructions = compile(sequence.getInstructions());
+        return instructions == null ? null : new CompiledInstructionSequence(instructions);
+    }
+
+    private static Instruction[] compile(List<Object> items)
+    {
+        List<Instruction> instructions = new ArrayList<>(items.size());
+        int count = items.size();
+        for (int i = 0; i < count; i++)
+        {
+            Object item = items.get(i);
+            if (item instanceof InstructionSequence)
+            {
+                Instruction[] proc = compile(((InstructionSequence) item).getInstructions());
+                if (proc == null)
+                {
+                    return null;
+                }
+                if (i + 1 < count && "if".equals(items.get(i + 1)))
+                {
+                    instructions.add(new If(proc));
+                    i++;
+                }
+                else if (i + 2 < count && items.get(i + 1) instanceof InstructionSequence
+                        && "ifelse".equals(items.get(i + 2)))
+                {
+                    Instruction[] elseProc =
+                            compile(((InstructionSequence) items.get(i + 1)).getInstructions());
+                    if (elseProc == null)
+                    {
+                        return null;
+                    }
+                    instructions.add(new IfElse(proc, elseProc));
+                    i += 2;
+                }
+                else if (i + 1 == count)
+                {
+                    // a procedure at the end of a sequence is executed, usually the whole function
+                    instructions.add(new Proc(proc));
+                }
+                else
+                {
+                    return null;
+                }
+            }
+            else if (item instanceof String)
+            {
+                Instruction operator = OPERATORS.get(item);
+                if (operator == null)
+                {
+                    // unknown operator, or if/ifelse without procedures
+                    return null;
+                }
+                instructions.add(operator);
+            }
+            else if (item instanceof Integer)
+            {
+                instructions.add(new Push((Integer) item, INT));
+            }
+            else if (item instanceof Float)
+            {
+                instructions.add(new Push((Float) item, REAL));
+            }
+            else if (item instanceof Boolean)
+            {
+                instructions.add(new Push((Boolean) item ? 1 : 0, BOOL));
+            }
+            else
+            {
+                return null;
+            }
+        }
+        return instructions.toArray(new Instruction[instructions.size()]);
+    }
+
+    /**
+     * Executes the compiled sequence with the given input values on the stack.
+     *
+     * @param input the input values, clipped to the domain of the function
+     * @param numberOfOutputValues the number of values to be returned
+     * @return the output values, the values on the top of the stack
+     * @throws RuntimeException if the execution failed
+     */
+    public float[] execute(float[] input, int numberOfOutputValues)
+    {
+        OperandStack stack = acquireStack();
+        for (float value : input)
+        {
+            stack.push(value, REAL);
+        }
+        execute(instructions, stack);
+        if (stack.size < numberOfOutputValues)
+        {
+            throw new IllegalStateException("The type 4 function returned " + stack.size
+                    + " values but " + numberOfOutputValues + " values are expected");
+        }
+        float[] outputValues = new float[numberOfOutputValues];
+        for (int i = numberOfOutputValues - 1; i >= 0; i--)
+        {
+            outputValues[i] = stack.popReal();
+        }
+        idleStack.set(stack);
+        return outputValues;
+    }
+
+    private OperandStack acquireStack()
+    {
+        OperandStack stack = idleStack.getAndSet(null);
+        if (stack == null)
+        {
+            return new OperandStack();
+        }
+        stack.size = 0;
+        return stack;
+    }
+
+    private static void execute(Instruction[] instructions, OperandStack stack)
+    {
+        for (Instruction instruction : instructions)
+        {
+            instruction.execute(stack);
+        }
+    }
+
+    /**
+     * The operand stack, each entry has a value and a type. Integer and boolean values are stored
+     * exactly, real values are rounded to float.
+     */
+    private static final class OperandStack
+    {
+        private final double[] values = new double[MAX_STACK_SIZE];
+        private final byte[] types = new byte[MAX_STACK_SIZE];
+        private final double[] scratchValues = new double[MAX_STACK_SIZE];
+        private final byte[] scratchTypes = new byte[MAX_STACK_SIZE];
+        private int size = 0;
+
+        void push(double value, byte type)
+        {
+            values[size] = value;
+            types[size++] = type;
+        }
+
+        void pushInt(int value)
+        {
+            push(value, INT);
+        }
+
+        void pushReal(float value)
+        {
+            push(value, REAL);
+        }
+
+        void pushBoolean(boolean value)
+        {
+            push(value ? 1 : 0, BOOL);
+        }
+
+        void pushNumber(long value)
+        {
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            {
+                push((float) value, REAL);
+            }
+            else
+            {
+                push(value, INT);
+            }
+        }
+
+        byte topType()
+        {
+            return types[size - 1];
+        }
+
+        byte secondType()
+        {
+            return types[size - 2];
+        }
+
+        double pop()
+        {
+            return values[--size];
+        }
+
+        double popNumber()
+        {
+            if (types[size - 1] == BOOL)
+            {
+                throw new ClassCastException("number expected");
+            }
+            return values[--size];
+        }
+
+        float popReal()
+        {
+            return (float) popNumber();
+        }
+
+        int popInt()
+        {
+            if (types[size - 1] != INT)
+            {
+                throw new ClassCastException("int expected");
+            }
+            return (int) values[--size];
+        }
+
+        boolean popBoolean()
+        {
+            if (types[size - 1] != BOOL)
+            {
+                throw new ClassCastException("bool expected");
+            }
+            return values[--size] != 0;
+        }
+
+        /**
+         * Exchanges the top block of the given size with the block below it.
+         */
+        void exchangeBlocks(int top, int below)
+        {
+            int start = size - top - below;
+            if (start < 0)
+            {
+                throw new IllegalStateException("stack underflow");
+            }
+            System.arraycopy(values, size - top, scratchValues, 0, top);
+            System.arraycopy(types, size - top, scratchTypes, 0, top);
+            System.arraycopy(values, start, values, start + top, below);
+            System.arraycopy(types, start, types, start + top, below);
+            System.arraycopy(scratchValues, 0, values, start, top);
+            System.arraycopy(scratchTypes, 0, types, start, top);
+        }
+    }
+
+    /**
+     * A compiled instruction.
+     */
+    private abstract static class Instruction
+    {
+        abstract void execute(OperandStack stack);
+    }
+
+    private static final class Push extends Instruction
+    {
+        private final double value;
+        private final byte type;
+
+        Push(double value, byte type)
+        {
+            this.value = value;
+            this.type = type;
+        }
+
+        @Override
+        void execute(OperandStack stack)
+        {
+            stack.push(value, type);
+        }
+    }
+
+    private static final class If extends Instruction
+    {
+        private final Instruction[] proc;
+
+        If(Instruction[] proc)
+        {
+            this.proc = proc;
+        }
+
+        @Override
+        void execute(OperandStack stack)
+        {
+            if (stack.popBoolean())
+            {
+                CompiledInstructionSequence.execute(proc, stack);
+            }
+        }
+    }
+
+    private static final class IfElse extends Instruction
+    {
+        private final Instruction[] proc1;
+        private final Instruction[] proc2;
+
+        IfElse(Instruction[] proc1, Instruction[] proc2)
+        {
+            this.proc1 = proc1;
+            this.proc2 = proc2;
+        }
+
+        @Override
+        void execute(OperandStack stack)
+        {
+            CompiledInstructionSequence.execute(stack.popBoolean() ? proc1 : proc2, stack);
+        }
+    }
+
+    private static final class Proc extends Instruction
+    {
+        private final Instruction[] proc;
+
+        Proc(Instruction[] proc)
+        {
+            this.proc = proc;
+        }
+
+        @Override
+        void execute(OperandStack stack)
+        {
+            CompiledInstructionSequence.execute(proc, stack);
+        }
+    }
+
+    /**
+     * An arithmetic operator which keeps integers if both operands are integers.
+     */
+    private abstract static class IntegerOrRealOperator extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            if (stack.topType() == INT && stack.secondType() == INT)
+            {
+                long num2 = (long) stack.pop();
+                long num1 = (long) stack.pop();
+                stack.pushNumber(applyForInteger(num1, num2));
+            }
+            else
+            {
+                double num2 = stack.popNumber();
+                double num1 = stack.popNumber();
+                stack.pushReal(applyForReal(num1, num2));
+            }
+        }
+
+        abstract long applyForInteger(long num1, long num2);
+
+        abstract float applyForReal(double num1, double num2);
+    }
+
+    /**
+     * An operator which returns integers unchanged and rounds reals to an integral value.
+     */
+    private abstract static class RoundingOperator extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            if (stack.topType() != INT)
+            {
+                stack.pushReal(apply(stack.popNumber()));
+            }
+        }
+
+        abstract float apply(double num);
+    }
+
+    /**
+     * An operator with a real operand and a real result.
+     */
+    private abstract static class RealOperator extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            stack.pushReal(apply(stack.popNumber()));
+        }
+
+        abstract float apply(double num);
+    }
+
+    private abstract static class LogicalOperator extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            if (stack.topType() == BOOL && stack.secondType() == BOOL)
+            {
+                boolean bool2 = stack.popBoolean();
+                boolean bool1 = stack.popBoolean();
+                stack.pushBoolean(applyForBoolean(bool1, bool2));
+            }
+            else
+            {
+                int int2 = stack.popInt();
+                int int1 = stack.popInt();
+                stack.pushInt(applyForInteger(int1, int2));
+            }
+        }
+
+        abstract boolean applyForBoolean(boolean bool1, boolean bool2);
+
+        abstract int applyForInteger(int int1, int int2);
+    }
+
+    private abstract static class ComparisonOperator extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            float num2 = stack.popReal();
+            float num1 = stack.popReal();
+            stack.pushBoolean(compare(num1, num2));
+        }
+
+        abstract boolean compare(float num1, float num2);
+    }
+
+    private static class Eq extends Instruction
+    {
+        @Override
+        void execute(OperandStack stack)
+        {
+            byte type2 = stack.topType();
+            byte type1 = stack.secondType();
+            double op2 = stack.pop();
+            double op1 = stack.pop();
+            boolean result;
+            if (type1 != BOOL && type2 != BOOL)
+            {
+                result = Float.compare((float) op1, (float) op2) == 0;
+            }
+            else
+            {
+                result = type1 == type2 && op1 == op2;
+            }
+            stack.pushBoolean(result != isNegated());
+        }
+
+        boolean isNegated()
+        {
+            return false;
+        }
+    }
+
+    static
+    {
+        OPERATORS.put("abs", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                if (stack.topType() == INT)
+                {
+                    stack.pushInt(Math.abs(stack.popInt()));
+                }
+                else
+                {
+                    stack.pushReal(Math.abs(stack.popReal()));
+                }
+            }
+        });
+        OPERATORS.put("add", new IntegerOrRealOperator()
+        {
+            @Override
+            long applyForInteger(long num1, long num2)
+            {
+                return num1 + num2;
+            }
+
+            @Override
+            float applyForReal(double num1, double num2)
+            {
+                return (float) num1 + (float) num2;
+            }
+        });
+        OPERATORS.put("atan", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                float den = stack.popReal();
+                float num = stack.popReal();
+                float atan = (float) Math.atan2(num, den);
+                atan = (float) Math.toDegrees(atan) % 360;
+                if (atan < 0)
+                {
+                    atan = atan + 360;
+                }
+                stack.pushReal(atan);
+            }
+        });
+        OPERATORS.put("ceiling", new RoundingOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.ceil(num);
+            }
+        });
+        OPERATORS.put("cos", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.cos(Math.toRadians((float) num));
+            }
+        });
+        OPERATORS.put("cvi", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                stack.pushInt((int) stack.popNumber());
+            }
+        });
+        OPERATORS.put("cvr", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) num;
+            }
+        });
+        OPERATORS.put("div", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                float num2 = stack.popReal();
+                float num1 = stack.popReal();
+                stack.pushReal(num1 / num2);
+            }
+        });
+        OPERATORS.put("exp", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                double exp = stack.popNumber();
+                double base = stack.popNumber();
+                stack.pushReal((float) Math.pow(base, exp));
+            }
+        });
+        OPERATORS.put("floor", new RoundingOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.floor(num);
+            }
+        });
+        OPERATORS.put("idiv", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int num2 = stack.popInt();
+                int num1 = stack.popInt();
+                stack.pushInt(num1 / num2);
+            }
+        });
+        OPERATORS.put("ln", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.log(num);
+            }
+        });
+        OPERATORS.put("log", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.log10(num);
+            }
+        });
+        OPERATORS.put("mod", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int int2 = stack.popInt();
+                int int1 = stack.popInt();
+                stack.pushInt(int1 % int2);
+            }
+        });
+        OPERATORS.put("mul", new IntegerOrRealOperator()
+        {
+            @Override
+            long applyForInteger(long num1, long num2)
+            {
+                return num1 * num2;
+            }
+
+            @Override
+            float applyForReal(double num1, double num2)
+            {
+                return (float) (num1 * num2);
+            }
+        });
+        OPERATORS.put("neg", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                if (stack.topType() == INT)
+                {
+                    stack.pushNumber(-(long) stack.popInt());
+                }
+                else
+                {
+                    stack.pushReal(-stack.popReal());
+                }
+            }
+        });
+        OPERATORS.put("round", new RoundingOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return Math.round(num);
+            }
+        });
+        OPERATORS.put("sin", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (float) Math.sin(Math.toRadians((float) num));
+            }
+        });
+        OPERATORS.put("sqrt", new RealOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                if (num < 0)
+                {
+                    throw new IllegalArgumentException("argument must be nonnegative");
+                }
+                return (float) Math.sqrt((float) num);
+            }
+        });
+        OPERATORS.put("sub", new IntegerOrRealOperator()
+        {
+            @Override
+            long applyForInteger(long num1, long num2)
+            {
+                return num1 - num2;
+            }
+
+            @Override
+            float applyForReal(double num1, double num2)
+            {
+                return (float) num1 - (float) num2;
+            }
+        });
+        OPERATORS.put("truncate", new RoundingOperator()
+        {
+            @Override
+            float apply(double num)
+            {
+                return (int) (float) num;
+            }
+        });
+
+        OPERATORS.put("and", new LogicalOperator()
+        {
+            @Override
+            boolean applyForBoolean(boolean bool1, boolean bool2)
+            {
+                return bool1 & bool2;
+            }
+
+            @Override
+            int applyForInteger(int int1, int int2)
+            {
+                return int1 & int2;
+            }
+        });
+        OPERATORS.put("bitshift", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int shift = stack.popInt();
+                int int1 = stack.popInt();
+                stack.pushInt(shift < 0 ? int1 >> Math.abs(shift) : int1 << shift);
+            }
+        });
+        OPERATORS.put("eq", new Eq());
+        OPERATORS.put("false", new Push(0, BOOL));
+        OPERATORS.put("ge", new ComparisonOperator()
+        {
+            @Override
+            boolean compare(float num1, float num2)
+            {
+                return num1 >= num2;
+            }
+        });
+        OPERATORS.put("gt", new ComparisonOperator()
+        {
+            @Override
+            boolean compare(float num1, float num2)
+            {
+                return num1 > num2;
+            }
+        });
+        OPERATORS.put("le", new ComparisonOperator()
+        {
+            @Override
+            boolean compare(float num1, float num2)
+            {
+                return num1 <= num2;
+            }
+        });
+        OPERATORS.put("lt", new ComparisonOperator()
+        {
+            @Override
+            boolean compare(float num1, float num2)
+            {
+                return num1 < num2;
+            }
+        });
+        OPERATORS.put("ne", new Eq()
+        {
+            @Override
+            boolean isNegated()
+            {
+                return true;
+            }
+        });
+        OPERATORS.put("not", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                if (stack.topType() == BOOL)
+                {
+                    stack.pushBoolean(!stack.popBoolean());
+                }
+                else
+                {
+                    // like BitwiseOperators.Not
+                    stack.pushInt(-stack.popInt());
+                }
+            }
+        });
+        OPERATORS.put("or", new LogicalOperator()
+        {
+            @Override
+            boolean applyForBoolean(boolean bool1, boolean bool2)
+            {
+                return bool1 | bool2;
+            }
+
+            @Override
+            int applyForInteger(int int1, int int2)
+            {
+                return int1 | int2;
+            }
+        });
+        OPERATORS.put("true", new Push(1, BOOL));
+        OPERATORS.put("xor", new LogicalOperator()
+        {
+            @Override
+            boolean applyForBoolean(boolean bool1, boolean bool2)
+            {
+                return bool1 ^ bool2;
+            }
+
+            @Override
+            int applyForInteger(int int1, int int2)
+            {
+                return int1 ^ int2;
+            }
+        });
+
+        OPERATORS.put("copy", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int n = (int) stack.popNumber();
+                if (n > 0)
+                {
+                    int start = stack.size - n;
+                    if (start < 0)
+                    {
+                        throw new IllegalStateException("stack underflow");
+                    }
+                    System.arraycopy(stack.values, start, stack.values, stack.size, n);
+                    System.arraycopy(stack.types, start, stack.types, stack.size, n);
+                    stack.size += n;
+                }
+            }
+        });
+        OPERATORS.put("dup", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                stack.push(stack.values[stack.size - 1], stack.topType());
+            }
+        });
+        OPERATORS.put("exch", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                stack.exchangeBlocks(1, 1);
+            }
+        });
+        OPERATORS.put("index", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int n = (int) stack.popNumber();
+                if (n < 0)
+                {
+                    throw new IllegalArgumentException("rangecheck: " + n);
+                }
+                int index = stack.size - n - 1;
+                stack.push(stack.values[index], stack.types[index]);
+            }
+        });
+        OPERATORS.put("pop", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                stack.pop();
+            }
+        });
+        OPERATORS.put("roll", new Instruction()
+        {
+            @Override
+            void execute(OperandStack stack)
+            {
+                int j = (int) stack.popNumber();
+                int n = (int) stack.popNumber();
+                if (j == 0)
+                {
+                    return;
+                }
+                if (n < 0)
+                {
+                    throw new IllegalArgumentException("rangecheck: " + n);
+                }
+                // like StackOperators.Roll, the top j elements are moved below the other
+                // n - j elements, or the top n + j elements below the other -j elements
+                if (j > 0)
+                {
+                    stack.exchangeBlocks(j, Math.max(0, n - j));
+                }
+                else
+                {
+                    stack.exchangeBlocks(Math.max(0, n + j), -j);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.pdmodel.encryption;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import javax.crypto.Cipher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * An input stream which decrypts AES encrypted data while it is read. Unlike
+ * {@link javax.crypto.CipherInputStream}, {@link #available()} only returns 0 at the end of the
+ * data, which is what the stream filters expect.
+ *
+ * <p>Broken padding at the end of the data is reported as an {@link IOException}, unless the
+ * stream is told to ignore it. This is done for AES-256, whose padding errors have always been
+ * ignored.</p>
+ */
+final class AESInputStream extends FilterInputStream
+{
+    private static final Log LOG = LogFactory.getLog(AESInputStream.class);
+
+    private final Cipher cipher;
+    private final boolean ignorePaddingErrors;
+    private final byte[] encrypted = new byte[4096];
+    private final byte[] single = new byte[1];
+
+    // the bytes decrypted[offset] to decrypted[limit - 1] are the next bytes to be read
+    private byte[] decrypted;
+    private int offset;
+    private int limit;
+    private boolean finished;
+
+    /**
+     * Constructor.
+     *
+     * @param cipher The cipher, initialized for decryption.
+     * @param in The encrypted data, without the initialization vector.
+     * @param ignorePaddingErrors true if broken padding at the end of the data is ignored, false
+     * if it is reported as an IOException.
+     */
+    AESInputStream(Cipher cipher, InputStream in, boolean ignorePaddingErrors)
+    {
+        super(in);
+        this.cipher = cipher;
+        this.ignorePaddingErrors = ignorePaddingErrors;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        if (offset == limit && !fill())
+        {
+            return -1;
+        }
+        int n = Math.min(len, limit - offset);
+        System.arraycopy(decrypted, offset, b, off, n);
+        offset += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < n && (offset < limit || fill()))
+        {
+            int step = (int) Math.min(n - skipped, limit - offset);
+            offset += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        if (offset == limit && !fill())
+        {
+            return 0;
+        }
+        return limit - offset;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit)
+    {
+        // not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException
+    {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Decrypts the next chunk of the encrypted data.
+     *
+     * @return true if bytes were decrypted, false at the end of the data.
+     */
+    private boolean fill() throws IOException
+    {
+        while (!finished)
+        {
+            int n = in.read(encrypted);
+            if (n == -1)
+            {
+                finished = true;
+                try
+                {
+                    decrypted = cipher.doFinal();
+                }
+                catch (GeneralSecurityException e)
+                {
+                    if (!ignorePaddingErrors)
+                    {
+                        throw new IOException(e);
+                    }
+                    // it should be safe to ignore broken padding at the end of the data
+                    LOG.debug("A GeneralSecurityException occured when decrypting some stream data",
+                            e);
+                    decrypted = null;
+                }
+            }
+            else
+            {
+                decrypted = cipher.update(encrypted, 0, n);
+            }
+            offset = 0;
+            limit = decrypted == null ? 0 : decrypted.length;
+            if (limit > 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
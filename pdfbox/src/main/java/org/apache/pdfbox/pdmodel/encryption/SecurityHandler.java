@@ -23,8 +23,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.GeneralSecurityException;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -33,13 +31,9 @@ import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -51,6 +45,7 @@ import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.cos.StreamDecryptor;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.util.Charsets;
@@ -81,6 +76,19 @@ public abstract class SecurityHandler
     /** The RC4 implementation used for cryptographic functions. */
     private final RC4Cipher rc4 = new RC4Cipher();
 
+    // Cipher.getInstance() is expensive, one AES cipher is kept for reuse, further ones are
+    // created if used concurrently
+    private final AtomicReference<Cipher> idleAESCipher = new AtomicReference<>();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The generator of the AES initialization vectors. */
+    private final SecureRandom random = new SecureRandom();
+
+    // the strings and the stream of an object are encrypted one after the other, so the key of
+    // the last object is kept
+    private volatile ObjectKey lastObjectKey;
+
     /** indicates if the Metadata have to be decrypted of not. */
     private boolean decryptMetadata;
 
@@ -183,7 +191,7 @@ public abstract class SecurityHandler
         }
         else
         {
-            byte[] finalKey = calcFinalKey(objectNumber, genNumber);
+            byte[] finalKey = getObjectKey(objectNumber, genNumber);
 
             if (useAES)
             {
@@ -197,6 +205,26 @@ public abstract class SecurityHandler
         output.flush();
     }
 
+    /**
+     * Returns the key of an object, see {@link #calcFinalKey(long, long)}. The key of the last
+     * object is reused.
+     *
+     * @param objectNumber The data object number.
+     * @param genNumber The data generation number.
+     * @return the key of the object.
+     */
+    private byte[] getObjectKey(long objectNumber, long genNumber)
+    {
+        ObjectKey objectKey = lastObjectKey;
+        if (objectKey == null || !objectKey.isKeyOf(objectNumber, genNumber, encryptionKey, useAES))
+        {
+            objectKey = new ObjectKey(objectNumber, genNumber, encryptionKey, useAES,
+                    calcFinalKey(objectNumber, genNumber));
+            lastObjectKey = objectKey;
+        }
+        return objectKey.key;
+    }
+
     /**
      * Calculate the key to be used for RC4 and AES-128.
      *
@@ -286,34 +314,22 @@ public abstract class SecurityHandler
 
         try
         {
-            Cipher decryptCipher;
+            Cipher cipher = acquireAESCipher(decrypt, finalKey, iv);
             try
             {
-                decryptCipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+                encryptDataAES(cipher, data, output);
             }
-            catch (NoSuchAlgorithmException e)
+            finally
             {
-                // should never happen
-                throw new RuntimeException(e);
+                idleAESCipher.set(cipher);
             }
-
-            SecretKey aesKey = new SecretKeySpec(finalKey, "AES");
-            IvParameterSpec ips = new IvParameterSpec(iv);
-            decryptCipher.init(decrypt ? Cipher.DECRYPT_MODE : Cipher.ENCRYPT_MODE, aesKey, ips);
-            byte[] buffer = new byte[256];
-            int n;
-            while ((n = data.read(buffer)) != -1)
-            {
-                byte[] dst = decryptCipher.update(buffer, 0, n);
-                if (dst != null)
-                {
-                    output.write(dst);
-                }
-            }
-            output.write(decryptCipher.doFinal());
         }
-        catch (InvalidKeyException | InvalidAlgorithmParameterException | NoSuchPaddingException | 
-                IllegalBlockSizeException | BadPaddingException e)
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new RuntimeException(e);
+        }
+        catch (GeneralSecurityException e)
         {
             throw new IOException(e);
         }
@@ -340,30 +356,73 @@ public abstract class SecurityHandler
         Cipher cipher;
         try
         {
-            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            SecretKeySpec keySpec = new SecretKeySpec(encryptionKey, "AES");
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            cipher.init(decrypt ? Cipher.DECRYPT_MODE : Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+            cipher = acquireAESCipher(decrypt, encryptionKey, iv);
         }
         catch (GeneralSecurityException e)
         {
             throw new IOException(e);
         }
 
-        try (CipherInputStream cis = new CipherInputStream(data, cipher))
+        try
         {
-            IOUtils.copy(cis, output);
+            encryptDataAES(cipher, data, output);
         }
-        catch(IOException exception)
+        catch (GeneralSecurityException exception)
         {
-            // starting with java 8 the JVM wraps an IOException around a GeneralSecurityException
             // it should be safe to swallow a GeneralSecurityException
-            if (!(exception.getCause() instanceof GeneralSecurityException))
-            {
-                throw exception;
-            }
             LOG.debug("A GeneralSecurityException occured when decrypting some stream data", exception);
         }
+        finally
+        {
+            idleAESCipher.set(cipher);
+        }
+    }
+
+    /**
+     * Returns an AES cipher initialized with the given key and initialization vector. The idle
+     * cipher of this handler is reused, it has to be given back to {@link #idleAESCipher} after
+     * use.
+     *
+     * @param decrypt true to decrypt data, false to encrypt it.
+     * @param key The AES key.
+     * @param iv The initialization vector.
+     * @return the initialized cipher.
+     * @throws GeneralSecurityException If the cipher could not be initialized.
+     */
+    private Cipher acquireAESCipher(boolean decrypt, byte[] key, byte[] iv)
+            throws GeneralSecurityException
+    {
+        Cipher cipher = idleAESCipher.getAndSet(null);
+        if (cipher == null)
+        {
+            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        }
+        cipher.init(decrypt ? Cipher.DECRYPT_MODE : Cipher.ENCRYPT_MODE,
+                new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        return cipher;
+    }
+
+    /**
+     * Encrypt or decrypt data with an initialized AES cipher, the data is processed in chunks
+     * without allocating new buffers.
+     *
+     * @param cipher The initialized cipher.
+     * @param data The data to encrypt or to decrypt.
+     * @param output The output to write the result to.
+     * @throws IOException If there is an error reading or writing the data.
+     * @throws GeneralSecurityException If the last block could not be encrypted or decrypted.
+     */
+    private static void encryptDataAES(Cipher cipher, InputStream data, OutputStream output)
+            throws IOException, GeneralSecurityException
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] result = new byte[cipher.getOutputSize(BUFFER_SIZE)];
+        int n;
+        while ((n = data.read(buffer)) != -1)
+        {
+            output.write(result, 0, cipher.update(buffer, 0, n, result));
+        }
+        output.write(result, 0, cipher.doFinal(result, 0));
     }
 
     private boolean prepareAESInitializationVector(boolean decrypt, byte[] iv, InputStream data, OutputStream output) throws IOException
@@ -386,8 +445,7 @@ public abstract class SecurityHandler
         else
         {
             // generate random IV and write to stream
-            SecureRandom rnd = new SecureRandom();
-            rnd.nextBytes(iv);
+            random.nextBytes(iv);
             output.write(iv);
         }
         return true;
@@ -486,11 +544,110 @@ public abstract class SecurityHandler
             }
         }
         decryptDictionary(stream, objNum, genNum);
-        byte[] encrypted = IOUtils.toByteArray(stream.createRawInputStream());
-        ByteArrayInputStream encryptedStream = new ByteArrayInputStream(encrypted);
-        try (OutputStream output = stream.createRawOutputStream())
+        // the data is decrypted when it is read
+        stream.setDecryptor(new ObjectStreamDecryptor(objNum, genNum));
+    }
+
+    /**
+     * Returns a stream which decrypts the data of an object while it is read.
+     *
+     * @param objectKey The key of the object, see {@link #calcFinalKey(long, long)}.
+     * @param data The encrypted data.
+     * @param aes256 true if the data is encrypted with AES-256, whose padding errors are ignored.
+     * @return the decrypted data.
+     * @throws IOException If the decryption could not be started.
+     */
+    private InputStream createDecryptingInputStream(byte[] objectKey, InputStream data,
+            boolean aes256) throws IOException
+    {
+        if (!useAES)
+        {
+            return new RC4InputStream(objectKey, data);
+        }
+        byte[] iv = new byte[16];
+        int ivSize = (int) IOUtils.populateBuffer(data, iv);
+        if (ivSize == 0)
+        {
+            data.close();
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (ivSize != iv.length)
+        {
+            data.close();
+            throw new IOException(
+                    "AES initialization vector not fully read: only "
+                            + ivSize + " bytes read instead of " + iv.length);
+        }
+        Cipher cipher;
+        try
+        {
+            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(objectKey, "AES"),
+                    new IvParameterSpec(iv));
+        }
+        catch (GeneralSecurityException e)
+        {
+            data.close();
+            throw new IOException(e);
+        }
+        return new AESInputStream(cipher, data, aes256);
+    }
+
+    /**
+     * Decrypts the data of a stream object while it is read. The key of the object is calculated
+     * once, when the data is read the first time.
+     */
+    private final class ObjectStreamDecryptor implements StreamDecryptor
+    {
+        private final long objNum;
+        private final long genNum;
+        private volatile byte[] objectKey;
+
+        ObjectStreamDecryptor(long objNum, long genNum)
+        {
+            this.objNum = objNum;
+            this.genNum = genNum;
+        }
+
+        @Override
+        public InputStream decrypt(InputStream encrypted) throws IOException
+        {
+            boolean aes256 = useAES && encryptionKey.length == 32;
+            byte[] key = objectKey;
+            if (key == null)
+            {
+                // Algorithm 1 for RC4 and AES-128, 1.A for AES-256
+                key = aes256 ? encryptionKey : getObjectKey(objNum, genNum);
+                objectKey = key;
+            }
+            return createDecryptingInputStream(key, encrypted, aes256);
+        }
+    }
+
+    /**
+     * The key of an object, with the values it was calculated from.
+     */
+    private static final class ObjectKey
+    {
+        private final long objNum;
+        private final long genNum;
+        private final byte[] encryptionKey;
+        private final boolean aes;
+        private final byte[] key;
+
+        ObjectKey(long objNum, long genNum, byte[] encryptionKey, boolean aes, byte[] key)
+        {
+            this.objNum = objNum;
+            this.genNum = genNum;
+            this.encryptionKey = encryptionKey;
+            this.aes = aes;
+            this.key = key;
+        }
+
+        boolean isKeyOf(long objNum, long genNum, byte[] encryptionKey, boolean aes)
         {
-            encryptData(objNum, genNum, encryptedStream, output, true /* decrypt */);
+            return this.objNum == objNum && this.genNum == genNum
+                    && this.encryptionKey == encryptionKey && this.aes == aes;
         }
     }
 
@@ -515,6 +672,41 @@ public abstract class SecurityHandler
         }
     }
 
+    /**
+     * This will encrypt the data of a stream while it is copied to the given output. Unlike
+     * {@link #encryptStream(COSStream, long, int)} the stream itself isn't changed, the length
+     * of the written data is given by {@link #getEncryptedStreamLength(long)}.
+     *
+     * @param data The raw data of the stream.
+     * @param output The output to write the encrypted data to.
+     * @param objNum The object number.
+     * @param genNum The object generation number.
+     *
+     * @throws IOException If there is an error reading or writing the data.
+     */
+    public void encryptStream(InputStream data, OutputStream output, long objNum, int genNum)
+            throws IOException
+    {
+        encryptData(objNum, genNum, data, output, false /* encrypt */);
+    }
+
+    /**
+     * Returns the length of the raw data of a stream once it is encrypted by
+     * {@link #encryptStream(InputStream, OutputStream, long, int)}.
+     *
+     * @param length The length of the raw data.
+     * @return the length of the encrypted data.
+     */
+    public long getEncryptedStreamLength(long length)
+    {
+        if (useAES)
+        {
+            // the initialization vector and the data padded to the next full block
+            return 16 + (length / 16 + 1) * 16;
+        }
+        return length;
+    }
+
     /**
      * This will decrypt a dictionary.
      *
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.fontbox.FontBoxFont;
+import org.apache.fontbox.cff.CFFFont;
+import org.apache.fontbox.cff.CFFParser;
+import org.apache.fontbox.ttf.OTFParser;
+import org.apache.fontbox.ttf.OpenTypeFont;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+
+/**
+ * An in-memory cache for embedded fonts shared by all documents. The parsed FontBox fonts are
+ * keyed by a SHA-256 digest of the decoded font program, so documents embedding the same font
+ * file parse it only once and share its glyph data. PDFBox is free to purge this cache at will.
+ *
+ * <p>The cache is disabled by default, it is enabled by setting an instance with
+ * {@link #set(EmbeddedFontCache)}. Subsets usually differ from document to document, so
+ * mostly fully embedded fonts will be shared. The entries of fonts purged by the garbage
+ * collector are removed when the next font is added.</p>
+ */
+public final class EmbeddedFontCache
+{
+    private static volatile EmbeddedFontCache instance;
+
+    private final ConcurrentMap<Key, FontReference> cache = new ConcurrentHashMap<>();
+    private final ReferenceQueue<FontBoxFont> releasedFonts = new ReferenceQueue<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Returns the cache used by all documents.
+     *
+     * @return the cache, or null if embedded fonts aren't shared
+     */
+    public static EmbeddedFontCache instance()
+    {
+        return instance;
+    }
+
+    /**
+     * Sets the cache used by all documents. Fonts loaded before aren't affected.
+     *
+     * @param cache the cache, or null to disable the sharing of embedded fonts
+     */
+    public static void set(EmbeddedFontCache cache)
+    {
+        instance = cache;
+    }
+
+    /**
+     * Returns the number of embedded fonts found in the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of embedded fonts which had to be parsed.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of fonts in the cache. Fonts which aren't used anymore are counted until
+     * they are purged by the garbage collector.
+     *
+     * @return the number of fonts
+     */
+    public int getSize()
+    {
+        removeReleasedFonts();
+        return cache.size();
+    }
+
+    /**
+     * Removes all fonts from the cache.
+     */
+    public void clear()
+    {
+        cache.clear();
+    }
+
+    /**
+     * Returns the parsed TrueType font of an embedded FontFile2 stream.
+     */
+    TrueTypeFont getTrueTypeFont(PDStream stream) throws IOException
+    {
+        byte[] bytes = IOUtils.toByteArray(stream.createInputStream());
+        Key key = new Key('T', bytes);
+        TrueTypeFont font = (TrueTypeFont) getFont(key);
+        if (font == null)
+        {
+            font = new TTFParser(true).parse(new ByteArrayInputStream(bytes));
+            addFont(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Returns the parsed OpenType or TrueType font of an embedded font stream.
+     */
+    OpenTypeFont getOpenTypeFont(PDStream stream) throws IOException
+    {
+        byte[] bytes = IOUtils.toByteArray(stream.createInputStream());
+        Key key = new Key('O', bytes);
+        OpenTypeFont font = (OpenTypeFont) getFont(key);
+        if (font == null)
+        {
+            font = new OTFParser(true).parse(new ByteArrayInputStream(bytes));
+            addFont(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Returns the first font of the given CFF data of an embedded FontFile3 stream.
+     */
+    CFFFont getCFFFont(final byte[] bytes) throws IOException
+    {
+        Key key = new Key('C', bytes);
+        CFFFont font = (CFFFont) getFont(key);
+        if (font == null)
+        {
+            // the byte source mustn't refer to the document, which may be closed before the font
+            font = new CFFParser().parse(bytes, new CFFParser.ByteSource()
+            {
+                @Override
+                public byte[] getBytes()
+                {
+                    return bytes;
+                }
+            }).get(0);
+            addFont(key, font);
+        }
+        return font;
+    }
+
+    private FontBoxFont getFont(Key key)
+    {
+        FontReference reference = cache.get(key);
+        FontBoxFont font = reference != null ? reference.get() : null;
+        if (font != null)
+        {
+            hitCount.incrementAndGet();
+        }
+        else
+        {
+            missCount.incrementAndGet();
+        }
+        return font;
+    }
+
+    private void addFont(Key key, FontBoxFont font)
+    {
+        removeReleasedFonts();
+        cache.put(key, new FontReference(key, font, releasedFonts));
+    }
+
+    /**
+     * Removes the entries of the fonts which were purged by the garbage collector.
+     */
+    private void removeReleasedFonts()
+    {
+        Reference<? extends FontBoxFont> released;
+        while ((released = releasedFonts.poll()) != null)
+        {
+            cache.remove(((FontReference) released).key, released);
+        }
+    }
+
+    /**
+     * A soft reference to a cached font, which knows its key to remove the entry once the font
+     * has been purged.
+     */
+    private static final class FontReference extends SoftReference<FontBoxFont>
+    {
+        private final Key key;
+
+        FontReference(Key key, FontBoxFont font, ReferenceQueue<FontBoxFont> queue)
+        {
+            super(font, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * The digest of a font program together with the parser used for it.
+     */
+    private static final class Key
+    {
+        private final char parser;
+        private final byte[] digest;
+
+        Key(char parser, byte[] bytes)
+        {
+            this.parser = parser;
+            try
+            {
+                digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                // should never happen, every JRE supports SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return parser == other.parser && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * parser + Arrays.hashCode(digest);
+        }
+    }
+}
@@ -94,10 +94,18 @@ public class PDCIDFontType0 extends PDCIDFont
         }
         else if (bytes != null)
         {
-            CFFParser cffParser = new CFFParser();
+            EmbeddedFontCache fontCache = EmbeddedFontCache.instance();
             try
             {
-                cffFont = cffParser.parse(bytes, new ByteSource()).get(0);
+                if (fontCache != null)
+                {
+                    cffFont = fontCache.getCFFFont(bytes);
+                }
+                else
+                {
+                    CFFParser cffParser = new CFFParser();
+                    cffFont = cffParser.parse(bytes, new ByteSource()).get(0);
+                }
             }
             catch (IOException e)
             {
@@ -107,8 +107,17 @@ public class PDCIDFontType2 extends PDCIDFont
                 try
                 {
                     // embedded OTF or TTF
-                    OTFParser otfParser = new OTFParser(true);
-                    OpenTypeFont otf = otfParser.parse(stream.createInputStream());
+                    OpenTypeFont otf;
+                    EmbeddedFontCache fontCache = EmbeddedFontCache.instance();
+                    if (fontCache != null)
+                    {
+                        otf = fontCache.getOpenTypeFont(stream);
+                    }
+                    else
+                    {
+                        OTFParser otfParser = new OTFParser(true);
+                        otf = otfParser.parse(stream.createInputStream());
+                    }
                     ttfFont = otf;
     
                     if (otf.isPostScript())
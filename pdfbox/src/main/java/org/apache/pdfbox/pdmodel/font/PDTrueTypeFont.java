@@ -104,8 +104,16 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
                 try
                 {
                     // embedded
-                    TTFParser ttfParser = new TTFParser(true);
-                    ttfFont = ttfParser.parse(ff2Stream.createInputStream());
+                    EmbeddedFontCache fontCache = EmbeddedFontCache.instance();
+                    if (fontCache != null)
+                    {
+                        ttfFont = fontCache.getTrueTypeFont(ff2Stream);
+                    }
+                    else
+                    {
+                        TTFParser ttfParser = new TTFParser(true);
+                        ttfFont = ttfParser.parse(ff2Stream.createInputStream());
+                    }
                 }
                 catch (NullPointerException | IOException e)
                 {
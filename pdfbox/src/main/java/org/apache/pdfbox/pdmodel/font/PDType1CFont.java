@@ -98,8 +98,16 @@ public class PDType1CFont extends PDSimpleFont implements PDVectorFont
             if (bytes != null)
             {
                 // note: this could be an OpenType file, fortunately CFFParser can handle that
-                CFFParser cffParser = new CFFParser();
-                cffEmbedded = (CFFType1Font)cffParser.parse(bytes, new ByteSource()).get(0);
+                EmbeddedFontCache fontCache = EmbeddedFontCache.instance();
+                if (fontCache != null)
+                {
+                    cffEmbedded = (CFFType1Font)fontCache.getCFFFont(bytes);
+                }
+                else
+                {
+                    CFFParser cffParser = new CFFParser();
+                    cffEmbedded = (CFFType1Font)cffParser.parse(bytes, new ByteSource()).get(0);
+                }
             }
         }
         catch (IOException e)
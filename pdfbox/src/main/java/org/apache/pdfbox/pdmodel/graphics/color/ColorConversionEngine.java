@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+/**
+ * Converts colors of ICC profile based color spaces, such as ICCBased and DeviceCMYK, to RGB.
+ * The engine used by all color spaces is set with {@link ColorConversionEngines#set}.
+ * Implementations must be thread safe.
+ */
+public interface ColorConversionEngine
+{
+    /**
+     * Returns the RGB equivalent of the given color value.
+     *
+     * @param colorSpace the AWT color space of the color value
+     * @param value a color value within the range of the color space
+     * @return an array of R,G,B values between 0 and 1
+     * @throws IOException if the color conversion fails
+     */
+    float[] toRGB(ColorSpace colorSpace, float[] value) throws IOException;
+
+    /**
+     * Returns the RGB equivalent of the given raster.
+     *
+     * @param raster the source raster, with one band per component of the color space
+     * @param colorSpace the AWT color space of the raster
+     * @return an RGB buffered image
+     */
+    BufferedImage toRGBImage(WritableRaster raster, ColorSpace colorSpace);
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+/**
+ * ColorConversionEngine factory class.
+ */
+public final class ColorConversionEngines
+{
+    private static volatile ColorConversionEngine instance;
+
+    private ColorConversionEngines()
+    {
+    }
+
+    // lazy thread safe singleton
+    private static class DefaultColorConversionEngine
+    {
+        private static final ColorConversionEngine INSTANCE =
+                new ColorConvertOpColorConversionEngine();
+    }
+
+    /**
+     * Returns the ColorConversionEngine used by all color spaces.
+     *
+     * @return the engine, by default a {@link ColorConvertOpColorConversionEngine}
+     */
+    public static ColorConversionEngine instance()
+    {
+        ColorConversionEngine engine = instance;
+        return engine != null ? engine : DefaultColorConversionEngine.INSTANCE;
+    }
+
+    /**
+     * Sets the ColorConversionEngine used by all color spaces.
+     *
+     * @param engine the engine, or null to use the default engine
+     */
+    public static void set(ColorConversionEngine engine)
+    {
+        instance = engine;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * The default color conversion engine. Images are converted exactly with {@link ColorConvertOp},
+ * single color values with the AWT color space.
+ */
+public class ColorConvertOpColorConversionEngine implements ColorConversionEngine
+{
+    @Override
+    public float[] toRGB(ColorSpace colorSpace, float[] value)
+    {
+        return colorSpace.toRGB(value);
+    }
+
+    @Override
+    public BufferedImage toRGBImage(WritableRaster raster, ColorSpace colorSpace)
+    {
+        return toRGBImageWithColorConvertOp(raster, colorSpace);
+    }
+
+    /**
+     * Converts the raster with {@link ColorConvertOp}, this is fast for ICC profiles.
+     *
+     * @param raster the source raster
+     * @param colorSpace the AWT color space of the raster
+     * @return an RGB buffered image
+     */
+    static BufferedImage toRGBImageWithColorConvertOp(WritableRaster raster,
+            ColorSpace colorSpace)
+    {
+        //
+        // WARNING: this method is performance sensitive, modify with care!
+        //
+
+        // ICC Profile color transforms are only fast when performed using ColorConvertOp
+        ColorModel colorModel = new ComponentColorModel(colorSpace,
+            false, false, Transparency.OPAQUE, raster.getDataBuffer().getDataType());
+
+        BufferedImage src = new BufferedImage(colorModel, raster, false, null);
+        BufferedImage dest = new BufferedImage(raster.getWidth(), raster.getHeight(),
+                                               BufferedImage.TYPE_INT_RGB);
+        ColorConvertOp op = new ColorConvertOp(null);
+        op.filter(src, dest);
+        return dest;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+/**
+ * The RGB values of a color conversion sampled at a regular grid. Colors in between the grid
+ * nodes are interpolated linearly from the corners of the simplex surrounding them, which is
+ * tetrahedral interpolation for three components.
+ */
+final class ColorLookupTable
+{
+    private final int numComponents;
+    private final int gridSize;
+    private final float[] grid;
+    private final int[] strides;
+
+    /**
+     * Creates a lookup table.
+     *
+     * @param numComponents the number of color components
+     * @param gridSize the number of nodes per color component, at least 2
+     * @param grid the R, G and B values of the nodes, between 0 and 255 inclusive. The first
+     * component varies slowest. The values are truncated after the interpolation.
+     */
+    ColorLookupTable(int numComponents, int gridSize, float[] grid)
+    {
+        this.numComponents = numComponents;
+        this.gridSize = gridSize;
+        this.grid = grid;
+        strides = new int[numComponents];
+        strides[numComponents - 1] = 3;
+        for (int s = numComponents - 2; s >= 0; s--)
+        {
+            strides[s] = strides[s + 1] * gridSize;
+        }
+    }
+
+    /**
+     * Returns the number of nodes of a lookup table.
+     */
+    static int getNumberOfNodes(int numComponents, int gridSize)
+    {
+        return (int) Math.pow(gridSize, numComponents);
+    }
+
+    int getNumberOfComponents()
+    {
+        return numComponents;
+    }
+
+    int getGridSize()
+    {
+        return gridSize;
+    }
+
+    /**
+     * Converts a row of pixels.
+     *
+     * @param samples the interleaved 8-bit color components of the pixels
+     * @param rgb the RGB values of the pixels, without alpha
+     * @param width the number of pixels
+     */
+    void toRGB(int[] samples, int[] rgb, int width)
+    {
+        float[] fractions = new float[numComponents];
+        int[] order = new int[numComponents];
+        float scale = (gridSize - 1) / 255f;
+        for (int x = 0, i = 0; x < width; x++, i += numComponents)
+        {
+            // locate the grid cell and sort the dimensions by descending fraction
+            int base = 0;
+            for (int s = 0; s < numComponents; s++)
+            {
+                float position = samples[i + s] * scale;
+                int node = Math.min((int) position, gridSize - 2);
+                float fraction = position - node;
+                base += node * strides[s];
+                int k = s;
+                while (k > 0 && fractions[order[k - 1]] < fraction)
+                {
+                    order[k] = order[k - 1];
+                    k--;
+                }
+                order[k] = s;
+                fractions[s] = fraction;
+            }
+
+            // walk from the base corner of the cell to the opposite corner
+            float previous = 1;
+            float r = 0;
+            float g = 0;
+            float b = 0;
+            int index = base;
+            for (int k = 0; k < numComponents; k++)
+            {
+                float fraction = fractions[order[k]];
+                float weight = previous - fraction;
+                r += weight * grid[index];
+                g += weight * grid[index + 1];
+                b += weight * grid[index + 2];
+                index += strides[order[k]];
+                previous = fraction;
+            }
+            r += previous * grid[index];
+            g += previous * grid[index + 1];
+            b += previous * grid[index + 2];
+
+            rgb[x] = ((int) r & 0xFF) << 16 | ((int) g & 0xFF) << 8 | (int) b & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A faster but approximate color conversion engine, which has to be enabled with
+ * {@link ColorConversionEngines#set}. Images with 8-bit samples and up to four components are
+ * converted with a lookup table per color space, which samples the conversion of
+ * {@link ColorConvertOp} at a regular grid once and interpolates the colors in between. The
+ * rows of large images are converted in parallel. Single color values are converted by the AWT
+ * color space, and the results are cached.
+ *
+ * <p>Gray images are converted exactly. For RGB and CMYK images the mean difference to
+ * {@link ColorConvertOp} is below one level, but single colors may differ by up to 20 levels
+ * where the conversion of the profile isn't smooth.</p>
+ */
+public class LookupTableColorConversionEngine extends ColorConvertOpColorConversionEngine
+{
+    private static final Log LOG = LogFactory.getLog(LookupTableColorConversionEngine.class);
+
+    // images with fewer pixels than this are converted by one thread
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private static final int MAX_CACHED_COLORS = 4096;
+
+    private static ExecutorService executor;
+
+    // the conversions of color spaces which are still in use
+    private final Map<ColorSpace, Conversion> conversions = new WeakHashMap<>();
+
+    @Override
+    public float[] toRGB(ColorSpace colorSpace, float[] value)
+    {
+        return getConversion(colorSpace).toRGB(colorSpace, value);
+    }
+
+    @Override
+    public BufferedImage toRGBImage(WritableRaster raster, ColorSpace colorSpace)
+    {
+        int numComponents = colorSpace.getNumComponents();
+        int gridSize = getGridSize(numComponents);
+        if (gridSize == 0 || colorSpace.isCS_sRGB()
+                || raster.getTransferType() != DataBuffer.TYPE_BYTE
+                || raster.getNumBands() != numComponents)
+        {
+            return toRGBImageWithColorConvertOp(raster, colorSpace);
+        }
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        Conversion conversion = getConversion(colorSpace);
+        ColorLookupTable table = conversion.lookupTable;
+        if (table == null)
+        {
+            // building the table must pay off
+            if ((long) width * height < ColorLookupTable.getNumberOfNodes(numComponents, gridSize)
+                    && numComponents > 1)
+            {
+                return toRGBImageWithColorConvertOp(raster, colorSpace);
+            }
+            table = conversion.getLookupTable(colorSpace, gridSize);
+        }
+
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster rgbRaster = rgbImage.getRaster();
+        int threads = Runtime.getRuntime().availableProcessors();
+        if ((long) width * height < PARALLEL_THRESHOLD || threads == 1)
+        {
+            toRGB(table, raster, rgbRaster, 0, height);
+            return rgbImage;
+        }
+
+        // convert bands of rows in parallel
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int rowsPerTask = (height + 2 * threads - 1) / (2 * threads);
+        for (int y = 0; y < height; y += rowsPerTask)
+        {
+            tasks.add(new RowConversion(table, raster, rgbRaster, y,
+                    Math.min(y + rowsPerTask, height)));
+        }
+        try
+        {
+            for (Future<Void> future : getExecutor().invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            LOG.debug("Interrupted while converting an image, using ColorConvertOp", e);
+            return toRGBImageWithColorConvertOp(raster, colorSpace);
+        }
+        catch (ExecutionException e)
+        {
+            LOG.warn("Error converting an image, using ColorConvertOp", e.getCause());
+            return toRGBImageWithColorConvertOp(raster, colorSpace);
+        }
+        return rgbImage;
+    }
+
+    /**
+     * Returns the number of nodes per component of the lookup table, or 0 if images with this
+     * number of components aren't converted with a lookup table. The grid sizes are chosen so
+     * that all nodes are exact 8-bit values.
+     */
+    private static int getGridSize(int numComponents)
+    {
+        switch (numComponents)
+        {
+            case 1:
+            case 2:
+                return 256;
+            case 3:
+                return 52;
+            case 4:
+                return 16;
+            default:
+                return 0;
+        }
+    }
+
+    private synchronized Conversion getConversion(ColorSpace colorSpace)
+    {
+        Conversion conversion = conversions.get(colorSpace);
+        if (conversion == null)
+        {
+            conversion = new Conversion();
+            conversions.put(colorSpace, conversion);
+        }
+        return conversion;
+    }
+
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            // the threads of a fork join pool are daemon threads
+            executor = new ForkJoinPool();
+        }
+        return executor;
+    }
+
+    private static void toRGB(ColorLookupTable table, Raster raster, WritableRaster rgbRaster,
+            int startY, int endY)
+    {
+        int width = raster.getWidth();
+        int[] samples = new int[width * table.getNumberOfComponents()];
+        int[] rgb = new int[width];
+        for (int y = startY; y < endY; y++)
+        {
+            raster.getPixels(0, y, width, 1, samples);
+            table.toRGB(samples, rgb, width);
+            rgbRaster.setDataElements(0, y, width, 1, rgb);
+        }
+    }
+
+    /**
+     * The cached conversions of one color space. It doesn't refer to the color space, so that
+     * the color space can be garbage collected.
+     */
+    private static final class Conversion
+    {
+        private volatile ColorLookupTable lookupTable;
+        private final Map<ColorKey, float[]> colors = new HashMap<>();
+
+        float[] toRGB(ColorSpace colorSpace, float[] value)
+        {
+            ColorKey key = new ColorKey(value);
+            synchronized (colors)
+            {
+                float[] rgb = colors.get(key);
+                if (rgb != null)
+                {
+                    return rgb.clone();
+                }
+            }
+            float[] rgb = colorSpace.toRGB(value);
+            synchronized (colors)
+            {
+                if (colors.size() >= MAX_CACHED_COLORS)
+                {
+                    colors.clear();
+                }
+                colors.put(key, rgb.clone());
+            }
+            return rgb;
+        }
+
+        synchronized ColorLookupTable getLookupTable(ColorSpace colorSpace, int gridSize)
+        {
+            if (lookupTable != null)
+            {
+                return lookupTable;
+            }
+            // convert all nodes at once
+            int numComponents = colorSpace.getNumComponents();
+            int numNodes = ColorLookupTable.getNumberOfNodes(numComponents, gridSize);
+            int step = 255 / (gridSize - 1);
+            WritableRaster nodes = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE,
+                    numNodes, 1, numComponents, null);
+            int[] node = new int[numComponents];
+            int[] samples = new int[numComponents];
+            for (int n = 0; n < numNodes; n++)
+            {
+                for (int s = 0; s < numComponents; s++)
+                {
+                    samples[s] = node[s] * step;
+                }
+                nodes.setPixel(n, 0, samples);
+                // next node, the last component varies fastest
+                for (int s = numComponents - 1; s >= 0 && ++node[s] == gridSize; s--)
+                {
+                    node[s] = 0;
+                }
+            }
+            BufferedImage rgbNodes = toRGBImageWithColorConvertOp(nodes, colorSpace);
+            int[] rgb = rgbNodes.getRGB(0, 0, numNodes, 1, null, 0, numNodes);
+            float[] grid = new float[3 * numNodes];
+            for (int n = 0; n < numNodes; n++)
+            {
+                // the interpolated values are truncated, add 0.5 to round them
+                grid[3 * n] = (rgb[n] >> 16 & 0xFF) + 0.5f;
+                grid[3 * n + 1] = (rgb[n] >> 8 & 0xFF) + 0.5f;
+                grid[3 * n + 2] = (rgb[n] & 0xFF) + 0.5f;
+            }
+            lookupTable = new ColorLookupTable(numComponents, gridSize, grid);
+            return lookupTable;
+        }
+    }
+
+    /**
+     * Converts a band of rows of an image.
+     */
+    private static final class RowConversion implements Callable<Void>
+    {
+        private final ColorLookupTable table;
+        private final Raster raster;
+        private final WritableRaster rgbRaster;
+        private final int startY;
+        private final int endY;
+
+        RowConversion(ColorLookupTable table, Raster raster, WritableRaster rgbRaster,
+                int startY, int endY)
+        {
+            this.table = table;
+            this.raster = raster;
+            this.rgbRaster = rgbRaster;
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        @Override
+        public Void call()
+        {
+            toRGB(table, raster, rgbRaster, startY, endY);
+            return null;
+        }
+    }
+
+    /**
+     * A color value as key of the cache of converted colors.
+     */
+    private static final class ColorKey
+    {
+        private final float[] value;
+
+        ColorKey(float[] value)
+        {
+            this.value = value.clone();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof ColorKey && Arrays.equals(value, ((ColorKey) obj).value);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Arrays.hashCode(value);
+        }
+    }
+}
@@ -24,14 +24,10 @@ import org.apache.pdfbox.pdmodel.MissingResourceException;
 import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 
-import java.awt.Transparency;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorConvertOp;
-import java.awt.image.ComponentColorModel;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.awt.color.ColorSpace;
-import java.awt.image.ColorModel;
 import org.apache.pdfbox.pdmodel.ResourceCache;
 
 /**
@@ -292,27 +288,15 @@ public abstract class PDColorSpace implements COSObjectable
 
     /**
      * Returns the (A)RGB equivalent of the given raster, using the given AWT color space
-     * to perform the conversion.
+     * to perform the conversion. The conversion is done by the
+     * {@link ColorConversionEngines#instance() color conversion engine}.
      * @param raster the source raster
      * @param colorSpace the AWT
      * @return an (A)RGB buffered image
      */
     protected BufferedImage toRGBImageAWT(WritableRaster raster, ColorSpace colorSpace)
     {
-        //
-        // WARNING: this method is performance sensitive, modify with care!
-        //
-
-        // ICC Profile color transforms are only fast when performed using ColorConvertOp
-        ColorModel colorModel = new ComponentColorModel(colorSpace,
-            false, false, Transparency.OPAQUE, raster.getDataBuffer().getDataType());
-
-        BufferedImage src = new BufferedImage(colorModel, raster, false, null);
-        BufferedImage dest = new BufferedImage(raster.getWidth(), raster.getHeight(),
-                                               BufferedImage.TYPE_INT_RGB);
-        ColorConvertOp op = new ColorConvertOp(null);
-        op.filter(src, dest);
-        return dest;
+        return ColorConversionEngines.instance().toRGBImage(raster, colorSpace);
     }
 
     @Override
@@ -134,7 +134,7 @@ public class PDDeviceCMYK extends PDDeviceColorSpace
     public float[] toRGB(float[] value) throws IOException
     {
         init();
-        return awtColorSpace.toRGB(value);
+        return ColorConversionEngines.instance().toRGB(awtColorSpace, value);
     }
 
     @Override
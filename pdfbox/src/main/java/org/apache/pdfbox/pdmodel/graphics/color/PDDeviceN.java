@@ -65,6 +65,10 @@ public class PDDeviceN extends PDSpecialColorSpace
     private PDColorSpace processColorSpace;
     private PDSeparation[] spotColorSpaces;
 
+    // sampled tint transform for images with three or more colorants, see toRGBWithGrid()
+    private static final int MAX_GRID_NODES = 20000;
+    private volatile ColorLookupTable rgbLookupTable;
+
     /**
      * Creates a new DeviceN color space.
      */
@@ -280,6 +284,21 @@ public class PDDeviceN extends PDSpecialColorSpace
     //
     private BufferedImage toRGBWithTintTransform(WritableRaster raster) throws IOException
     {
+        if (raster.getTransferType() == DataBuffer.TYPE_BYTE)
+        {
+            int numComponents = getColorantNames().size();
+            if (numComponents <= 2)
+            {
+                return toRGBWithLookupTable(raster, numComponents);
+            }
+            int gridSize = getGridSize(numComponents);
+            if (gridSize > 0 && (rgbLookupTable != null || (long) raster.getWidth() * raster.getHeight()
+                    >= 16L * ColorLookupTable.getNumberOfNodes(numComponents, gridSize)))
+            {
+                return toRGBWithGrid(raster, numComponents, gridSize);
+            }
+        }
+
         // cache color mappings
         Map<String, int[]> map1 = new HashMap<>();
         String key;
@@ -337,6 +356,126 @@ public class PDDeviceN extends PDSpecialColorSpace
         return rgbImage;
     }
 
+    /**
+     * Converts an image with one or two 8-bit colorants, every possible color is converted once.
+     */
+    private BufferedImage toRGBWithLookupTable(WritableRaster raster, int numComponents)
+            throws IOException
+    {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster rgbRaster = rgbImage.getRaster();
+
+        // 0 is "not yet converted", converted values have the alpha bits set
+        int[] table = new int[1 << 8 * numComponents];
+        int[] samples = new int[width * numComponents];
+        int[] rgbRow = new int[width];
+        float[] src = new float[numComponents];
+        for (int y = 0; y < height; y++)
+        {
+            raster.getPixels(0, y, width, 1, samples);
+            for (int x = 0, i = 0; x < width; x++, i += numComponents)
+            {
+                int key = numComponents == 1 ? samples[i] : samples[i] << 8 | samples[i + 1];
+                int rgb = table[key];
+                if (rgb == 0)
+                {
+                    for (int s = 0; s < numComponents; s++)
+                    {
+                        src[s] = samples[i + s] / 255f;
+                    }
+                    float[] rgbFloat = alternateColorSpace.toRGB(tintTransform.eval(src));
+                    rgb = 0xFF000000 | ((int) (rgbFloat[0] * 255f) & 0xFF) << 16
+                            | ((int) (rgbFloat[1] * 255f) & 0xFF) << 8
+                            | (int) (rgbFloat[2] * 255f) & 0xFF;
+                    table[key] = rgb;
+                }
+                rgbRow[x] = rgb & 0xFFFFFF;
+            }
+            rgbRaster.setDataElements(0, y, width, 1, rgbRow);
+        }
+        return rgbImage;
+    }
+
+    /**
+     * Returns the number of nodes per dimension of the sampled tint transform, or 0 if there are
+     * too many colorants to sample the tint transform.
+     */
+    private static int getGridSize(int numComponents)
+    {
+        int gridSize = Math.min(17, (int) Math.pow(MAX_GRID_NODES, 1.0 / numComponents));
+        if (gridSize < 2)
+        {
+            return Math.pow(2, numComponents) <= 2 * MAX_GRID_NODES ? 2 : 0;
+        }
+        return gridSize;
+    }
+
+    /**
+     * Converts an image with three or more 8-bit colorants. The tint transform and the alternate
+     * color space are sampled at a regular grid once, the colors in between are interpolated.
+     * This is much faster than converting each distinct color of a large image, but it is an
+     * approximation.
+     */
+    private BufferedImage toRGBWithGrid(WritableRaster raster, int numComponents, int gridSize)
+            throws IOException
+    {
+        ColorLookupTable table = getRGBLookupTable(numComponents, gridSize);
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster rgbRaster = rgbImage.getRaster();
+        int[] samples = new int[width * numComponents];
+        int[] rgbRow = new int[width];
+        for (int y = 0; y < height; y++)
+        {
+            raster.getPixels(0, y, width, 1, samples);
+            table.toRGB(samples, rgbRow, width);
+            rgbRaster.setDataElements(0, y, width, 1, rgbRow);
+        }
+        return rgbImage;
+    }
+
+    /**
+     * Returns the tint transform sampled at gridSize nodes per colorant.
+     */
+    private ColorLookupTable getRGBLookupTable(int numComponents, int gridSize)
+            throws IOException
+    {
+        ColorLookupTable table = rgbLookupTable;
+        if (table != null && table.getNumberOfComponents() == numComponents
+                && table.getGridSize() == gridSize)
+        {
+            return table;
+        }
+        int numNodes = ColorLookupTable.getNumberOfNodes(numComponents, gridSize);
+        float[] grid = new float[3 * numNodes];
+        int[] node = new int[numComponents];
+        float[] src = new float[numComponents];
+        for (int n = 0; n < numNodes; n++)
+        {
+            for (int s = 0; s < numComponents; s++)
+            {
+                src[s] = node[s] / (float) (gridSize - 1);
+            }
+            float[] rgbFloat = alternateColorSpace.toRGB(tintTransform.eval(src));
+            for (int c = 0; c < 3; c++)
+            {
+                // clamp, because the interpolation must not overflow into other channels
+                grid[3 * n + c] = Math.max(0, Math.min(rgbFloat[c] * 255f, 255));
+            }
+            // next node, the last colorant varies fastest
+            for (int s = numComponents - 1; s >= 0 && ++node[s] == gridSize; s--)
+            {
+                node[s] = 0;
+            }
+        }
+        table = new ColorLookupTable(numComponents, gridSize, grid);
+        rgbLookupTable = table;
+        return table;
+    }
+
     @Override
     public float[] toRGB(float[] value) throws IOException
     {
@@ -481,6 +620,7 @@ public class PDDeviceN extends PDSpecialColorSpace
     {
         COSArray namesArray = COSArrayList.convertStringListToCOSNameCOSArray(names);
         array.set(COLORANT_NAMES, namesArray);
+        rgbLookupTable = null;
     }
 
     /**
@@ -531,6 +671,7 @@ public class PDDeviceN extends PDSpecialColorSpace
     public void setAlternateColorSpace(PDColorSpace cs)
     {
         alternateColorSpace = cs;
+        rgbLookupTable = null;
         COSBase space = null;
         if (cs != null)
         {
@@ -563,6 +704,7 @@ public class PDDeviceN extends PDSpecialColorSpace
     public void setTintTransform(PDFunction tint)
     {
         tintTransform = tint;
+        rgbLookupTable = null;
         array.set(TINT_TRANSFORM, tint);
     }
 
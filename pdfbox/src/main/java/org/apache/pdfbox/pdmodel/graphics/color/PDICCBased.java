@@ -29,8 +29,14 @@ import java.awt.image.DataBuffer;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,6 +46,7 @@ import org.apache.pdfbox.cos.COSFloat;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.COSArrayList;
@@ -71,6 +78,19 @@ public final class PDICCBased extends PDCIEBasedColorSpace
     private boolean useOnlyAlternateColorSpace = false;
     private static final boolean IS_KCMS;
 
+    // color spaces of recently loaded profiles, shared by all documents, keyed by SHA-256 digest
+    private static final int MAX_CACHED_PROFILES = 16;
+    private static final Map<ByteBuffer, SoftReference<ICC_ColorSpace>> PROFILE_CACHE =
+            new LinkedHashMap<ByteBuffer, SoftReference<ICC_ColorSpace>>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<ByteBuffer, SoftReference<ICC_ColorSpace>> eldest)
+        {
+            return size() > MAX_CACHED_PROFILES;
+        }
+    };
+
     static
     {
         String cmmProperty = System.getProperty("sun.java2d.cmm");
@@ -185,12 +205,25 @@ public final class PDICCBased extends PDCIEBasedColorSpace
         }
         try (InputStream input = this.stream.createInputStream())
         {
+            byte[] data = IOUtils.toByteArray(input);
+            ByteBuffer key = ByteBuffer.wrap(digest(data));
+            ICC_ColorSpace cachedColorSpace = getCachedColorSpace(key);
+            if (cachedColorSpace != null)
+            {
+                // the profile was loaded and checked before
+                isRGB = cachedColorSpace.isCS_sRGB();
+                awtColorSpace = cachedColorSpace;
+                iccProfile = cachedColorSpace.getProfile();
+                initInitialColor();
+                return;
+            }
+
             // if the embedded profile is sRGB then we can use Java's built-in profile, which
             // results in a large performance gain as it's our native color space, see PDFBOX-2587
             ICC_Profile profile;
             synchronized (LOG)
             {
-                profile = ICC_Profile.getInstance(input);
+                profile = ICC_Profile.getInstance(data);
                 if (is_sRGB(profile))
                 {
                     isRGB = true;
@@ -205,12 +238,7 @@ public final class PDICCBased extends PDCIEBasedColorSpace
                 }
 
                 // set initial colour
-                float[] initial = new float[getNumberOfComponents()];
-                for (int c = 0; c < getNumberOfComponents(); c++)
-                {
-                    initial[c] = Math.max(0, getRangeForComponent(c).getMin());
-                }
-                initialColor = new PDColor(initial, this);
+                initInitialColor();
 
                 if (IS_KCMS)
                 {
@@ -227,6 +255,10 @@ public final class PDICCBased extends PDCIEBasedColorSpace
                             Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
                 }
             }
+            synchronized (PROFILE_CACHE)
+            {
+                PROFILE_CACHE.put(key, new SoftReference<>(awtColorSpace));
+            }
         }
         catch (ProfileDataException | CMMException | IllegalArgumentException |
                ArrayIndexOutOfBoundsException | IOException e)
@@ -235,6 +267,38 @@ public final class PDICCBased extends PDCIEBasedColorSpace
         }
     }
 
+    private void initInitialColor()
+    {
+        float[] initial = new float[getNumberOfComponents()];
+        for (int c = 0; c < getNumberOfComponents(); c++)
+        {
+            initial[c] = Math.max(0, getRangeForComponent(c).getMin());
+        }
+        initialColor = new PDColor(initial, this);
+    }
+
+    private static ICC_ColorSpace getCachedColorSpace(ByteBuffer key)
+    {
+        synchronized (PROFILE_CACHE)
+        {
+            SoftReference<ICC_ColorSpace> reference = PROFILE_CACHE.get(key);
+            return reference != null ? reference.get() : null;
+        }
+    }
+
+    private static byte[] digest(byte[] data)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen, every JRE supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void fallbackToAlternateColorSpace(Exception e) throws IOException
     {
         awtColorSpace = null;
@@ -298,8 +362,9 @@ public final class PDICCBased extends PDCIEBasedColorSpace
         if (awtColorSpace != null)
         {
             // PDFBOX-2142: clamp bad values
-            // WARNING: toRGB is very slow when used with LUT-based ICC profiles
-            return awtColorSpace.toRGB(clampColors(awtColorSpace, value));
+            // toRGB is very slow when used with LUT-based ICC profiles, the engine caches it
+            return ColorConversionEngines.instance().toRGB(awtColorSpace,
+                    clampColors(awtColorSpace, value));
         }
         else
         {
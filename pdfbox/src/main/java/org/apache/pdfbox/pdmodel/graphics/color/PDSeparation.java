@@ -61,6 +61,12 @@ public class PDSeparation extends PDSpecialColorSpace
      */
     private Map<Integer, float[]> toRGBMap = null;
 
+    /**
+     * The RGB values of all 256 possible 8-bit samples, used by
+     * {@link #toRGBImage(java.awt.image.WritableRaster)} for rasters with 8-bit samples.
+     */
+    private volatile int[] rgbLookupTable = null;
+
     /**
      * Creates a new Separation color space.
      */
@@ -135,6 +141,11 @@ public class PDSeparation extends PDSpecialColorSpace
     @Override
     public BufferedImage toRGBImage(WritableRaster raster) throws IOException
     {
+        if (raster.getTransferType() == DataBuffer.TYPE_BYTE)
+        {
+            // an 8-bit sample has only 256 values, convert them once and look up the pixels
+            return toRGBImage(raster, getRGBLookupTable());
+        }
         if (alternateColorSpace instanceof PDLab)
         {
             // PDFBOX-3622 - regular converter fails for Lab colorspaces
@@ -175,6 +186,76 @@ public class PDSeparation extends PDSpecialColorSpace
         return alternateColorSpace.toRGBImage(altRaster);
     }
 
+    /**
+     * Converts each 8-bit sample of the raster by looking up its RGB value.
+     */
+    static BufferedImage toRGBImage(Raster raster, int[] rgbLookupTable)
+    {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        WritableRaster rgbRaster = rgbImage.getRaster();
+        int[] samples = new int[width];
+        int[] rgb = new int[width];
+        for (int y = 0; y < height; y++)
+        {
+            raster.getSamples(0, y, width, 1, 0, samples);
+            for (int x = 0; x < width; x++)
+            {
+                rgb[x] = rgbLookupTable[samples[x]];
+            }
+            rgbRaster.setDataElements(0, y, width, 1, rgb);
+        }
+        return rgbImage;
+    }
+
+    /**
+     * Returns the RGB values of all 256 possible 8-bit samples. The results are the same as those
+     * of the conversion of the whole raster.
+     */
+    private int[] getRGBLookupTable() throws IOException
+    {
+        int[] table = rgbLookupTable;
+        if (table != null)
+        {
+            return table;
+        }
+        table = new int[256];
+        float[] samples = new float[1];
+        if (alternateColorSpace instanceof PDLab)
+        {
+            // like toRGBImage2()
+            for (int i = 0; i < 256; i++)
+            {
+                samples[0] = i / 255f;
+                float[] rgb = alternateColorSpace.toRGB(tintTransform.eval(samples));
+                table[i] = (int) (rgb[0] * 255) << 16 | (int) (rgb[1] * 255) << 8
+                        | (int) (rgb[2] * 255);
+            }
+        }
+        else
+        {
+            // like toRGBImage(), convert all samples at once in the alternate color space
+            int numAltComponents = alternateColorSpace.getNumberOfComponents();
+            WritableRaster altRaster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 256, 1,
+                    numAltComponents, new Point(0, 0));
+            int[] alt = new int[numAltComponents];
+            for (int i = 0; i < 256; i++)
+            {
+                samples[0] = i;
+                tintTransform(samples, alt);
+                altRaster.setPixel(i, 0, alt);
+            }
+            BufferedImage rgbImage = alternateColorSpace.toRGBImage(altRaster);
+            for (int i = 0; i < 256; i++)
+            {
+                table[i] = rgbImage.getRGB(i, 0) & 0xFFFFFF;
+            }
+        }
+        rgbLookupTable = table;
+        return table;
+    }
+
     // converter that works without using super implementation of toRGBImage()
     private BufferedImage toRGBImage2(WritableRaster raster) throws IOException
     {
@@ -255,6 +336,8 @@ public class PDSeparation extends PDSpecialColorSpace
     public void setAlternateColorSpace(PDColorSpace colorSpace)
     {
         alternateColorSpace = colorSpace;
+        toRGBMap = null;
+        rgbLookupTable = null;
         COSBase space = null;
         if (colorSpace != null)
         {
@@ -270,6 +353,8 @@ public class PDSeparation extends PDSpecialColorSpace
     public void setTintTransform(PDFunction tint)
     {
         tintTransform = tint;
+        toRGBMap = null;
+        rgbLookupTable = null;
         array.set(TINT_TRANSFORM, tint);
     }
 
@@ -24,7 +24,6 @@ import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.util.Matrix;
@@ -40,14 +39,19 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
 {
     private static final Log LOG = LogFactory.getLog(TriangleBasedShadingContext.class);
 
+    // tolerance for pixels on the border of a triangle
+    private static final double EPSILON = 1e-9;
+
     protected int bitsPerCoordinate;
     protected int bitsPerColorComponent;
     protected int numberOfColorComponents;
     
     private final boolean hasFunction;
 
-    // map of pixels within triangles to their RGB color
-    private Map<Point, Integer> pixelTable;
+    // RGB colors of the pixels within triangles, with the alpha bits set, 0 for pixels without a
+    // triangle. The table covers the intersection of the device bounds and the triangles.
+    private int[] pixelTable;
+    private Rectangle pixelTableBounds;
 
     /**
      * Constructor.
@@ -77,22 +81,54 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
      */
     protected final void createPixelTable(Rectangle deviceBounds) throws IOException
     {
-        pixelTable = calcPixelTable(deviceBounds);
+        List<ShadedTriangle> triangleList = getTriangleList();
+
+        // the pixel table only needs to cover the triangles
+        Rectangle triangleBounds = null;
+        for (ShadedTriangle tri : triangleList)
+        {
+            int[] boundary = tri.getBoundary();
+            Rectangle bounds = new Rectangle(boundary[0], boundary[2],
+                    boundary[1] - boundary[0] + 1, boundary[3] - boundary[2] + 1);
+            if (triangleBounds == null)
+            {
+                triangleBounds = bounds;
+            }
+            else
+            {
+                triangleBounds.add(bounds);
+            }
+        }
+        // like the device bounds, but including their right and lower edge
+        Rectangle bounds = new Rectangle(deviceBounds.x, deviceBounds.y,
+                deviceBounds.width + 1, deviceBounds.height + 1);
+        if (triangleBounds != null)
+        {
+            bounds = bounds.intersection(triangleBounds);
+        }
+        if (triangleBounds == null || bounds.isEmpty())
+        {
+            bounds = new Rectangle();
+        }
+        pixelTableBounds = bounds;
+        pixelTable = new int[bounds.width * bounds.height];
+        calcPixelTable(triangleList);
     }
 
     /**
-     * Calculate every point and its color and store them in a Hash table.
+     * Returns the triangles of the shading in device space.
      *
-     * @return a Hash table which contains all the points' positions and colors of one image
+     * @return the list of triangles
      */
-    abstract Map<Point, Integer> calcPixelTable(Rectangle deviceBounds) throws IOException;
+    abstract List<ShadedTriangle> getTriangleList();
 
     /**
-     * Get the points from the triangles, calculate their color and add point-color mappings.
+     * Rasterize the triangles, calculate the color of every pixel and store it in the pixel table.
+     * Later triangles overwrite the pixels of earlier ones.
      */
-    protected void calcPixelTable(List<ShadedTriangle> triangleList, Map<Point, Integer> map,
-            Rectangle deviceBounds) throws IOException
+    private void calcPixelTable(List<ShadedTriangle> triangleList) throws IOException
     {
+        float[] values = new float[numberOfColorComponents];
         for (ShadedTriangle tri : triangleList)
         {
             int degree = tri.getDeg();
@@ -101,52 +137,209 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
                 Line line = tri.getLine();
                 for (Point p : line.linePoints)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(line.calcColor(p)));
+                    setPixel(p.x, p.y, line.calcColor(p));
                 }
             }
             else
             {
-                int[] boundary = tri.getBoundary();
-                boundary[0] = Math.max(boundary[0], deviceBounds.x);
-                boundary[1] = Math.min(boundary[1], deviceBounds.x + deviceBounds.width);
-                boundary[2] = Math.max(boundary[2], deviceBounds.y);
-                boundary[3] = Math.min(boundary[3], deviceBounds.y + deviceBounds.height);
-                for (int x = boundary[0]; x <= boundary[1]; x++)
+                if (degree == 3)
                 {
-                    for (int y = boundary[2]; y <= boundary[3]; y++)
-                    {
-                        Point p = new IntPoint(x, y);
-                        if (tri.contains(p))
-                        {
-                            map.put(p, evalFunctionAndConvertToRGB(tri.calcColor(p)));
-                        }
-                    }
+                    fillTriangle(tri, values);
+                }
+                else
+                {
+                    fillPoint(tri);
                 }
 
                 // "fatten" triangle by drawing the borders with Bresenham's line algorithm
                 // Inspiration: Raph Levien in http://bugs.ghostscript.com/show_bug.cgi?id=219588
-                Point p0 = new IntPoint((int) Math.round(tri.corner[0].getX()),
-                                     (int) Math.round(tri.corner[0].getY()));
-                Point p1 = new IntPoint((int) Math.round(tri.corner[1].getX()),
-                                     (int) Math.round(tri.corner[1].getY()));
-                Point p2 = new IntPoint((int) Math.round(tri.corner[2].getX()),
-                                     (int) Math.round(tri.corner[2].getY()));
-                Line l1 = new Line(p0, p1, tri.color[0], tri.color[1]);
-                Line l2 = new Line(p1, p2, tri.color[1], tri.color[2]);
-                Line l3 = new Line(p2, p0, tri.color[2], tri.color[0]);
-                for (Point p : l1.linePoints)
+                int x0 = (int) Math.round(tri.corner[0].getX());
+                int y0 = (int) Math.round(tri.corner[0].getY());
+                int x1 = (int) Math.round(tri.corner[1].getX());
+                int y1 = (int) Math.round(tri.corner[1].getY());
+                int x2 = (int) Math.round(tri.corner[2].getX());
+                int y2 = (int) Math.round(tri.corner[2].getY());
+                drawLine(x0, y0, x1, y1, tri.color[0], tri.color[1], values);
+                drawLine(x1, y1, x2, y2, tri.color[1], tri.color[2], values);
+                drawLine(x2, y2, x0, y0, tri.color[2], tri.color[0], values);
+            }
+        }
+    }
+
+    /**
+     * Fill a triangle scanline by scanline. The color components are linear functions of the
+     * device coordinates within the triangle, so they are interpolated incrementally along each
+     * scanline.
+     */
+    private void fillTriangle(ShadedTriangle tri, float[] values) throws IOException
+    {
+        double x0 = tri.corner[0].getX();
+        double y0 = tri.corner[0].getY();
+        double x1 = tri.corner[1].getX();
+        double y1 = tri.corner[1].getY();
+        double x2 = tri.corner[2].getX();
+        double y2 = tri.corner[2].getY();
+        double det = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        if (det == 0)
+        {
+            // collinear corners, only the borders are drawn
+            return;
+        }
+
+        // color = color0 + dx * (x - x0) + dy * (y - y0) for each component; the values are
+        // clamped to the range of the corner colors to avoid overshooting at the borders
+        int n = values.length;
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        float[] min = new float[n];
+        float[] max = new float[n];
+        for (int i = 0; i < n; i++)
+        {
+            double dc1 = tri.color[1][i] - tri.color[0][i];
+            double dc2 = tri.color[2][i] - tri.color[0][i];
+            dx[i] = (dc1 * (y2 - y0) - dc2 * (y1 - y0)) / det;
+            dy[i] = (dc2 * (x1 - x0) - dc1 * (x2 - x0)) / det;
+            min[i] = Math.min(tri.color[0][i], Math.min(tri.color[1][i], tri.color[2][i]));
+            max[i] = Math.max(tri.color[0][i], Math.max(tri.color[1][i], tri.color[2][i]));
+        }
+
+        Rectangle bounds = pixelTableBounds;
+        int minY = Math.max((int) Math.ceil(Math.min(y0, Math.min(y1, y2))), bounds.y);
+        int maxY = Math.min((int) Math.floor(Math.max(y0, Math.max(y1, y2))),
+                bounds.y + bounds.height - 1);
+        double[] color = new double[n];
+        for (int y = minY; y <= maxY; y++)
+        {
+            // the span of the scanline within the triangle, including the borders
+            double[] span = { Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+            intersect(span, y, x0, y0, x1, y1);
+            intersect(span, y, x1, y1, x2, y2);
+            intersect(span, y, x2, y2, x0, y0);
+            int minX = Math.max((int) Math.ceil(span[0] - EPSILON), bounds.x);
+            int maxX = Math.min((int) Math.floor(span[1] + EPSILON),
+                    bounds.x + bounds.width - 1);
+            if (minX > maxX)
+            {
+                continue;
+            }
+            for (int i = 0; i < n; i++)
+            {
+                color[i] = tri.color[0][i] + dx[i] * (minX - x0) + dy[i] * (y - y0);
+            }
+            int index = (y - bounds.y) * bounds.width + minX - bounds.x;
+            for (int x = minX; x <= maxX; x++)
+            {
+                for (int i = 0; i < n; i++)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l1.calcColor(p)));
+                    values[i] = Math.max(min[i], Math.min((float) color[i], max[i]));
+                    color[i] += dx[i];
                 }
-                for (Point p : l2.linePoints)
+                pixelTable[index++] = evalFunctionAndConvertToRGB(values) | 0xFF000000;
+            }
+        }
+    }
+
+    /**
+     * Widens the span to the x coordinate where the scanline y intersects the given edge.
+     */
+    private static void intersect(double[] span, int y, double xa, double ya, double xb, double yb)
+    {
+        if (y < Math.min(ya, yb) || y > Math.max(ya, yb))
+        {
+            return;
+        }
+        if (ya == yb)
+        {
+            span[0] = Math.min(span[0], Math.min(xa, xb));
+            span[1] = Math.max(span[1], Math.max(xa, xb));
+        }
+        else
+        {
+            double x = xa + (y - ya) * (xb - xa) / (yb - ya);
+            span[0] = Math.min(span[0], x);
+            span[1] = Math.max(span[1], x);
+        }
+    }
+
+    /**
+     * Fill a triangle which degenerated to a point.
+     */
+    private void fillPoint(ShadedTriangle tri) throws IOException
+    {
+        int[] boundary = tri.getBoundary();
+        for (int x = boundary[0]; x <= boundary[1]; x++)
+        {
+            for (int y = boundary[2]; y <= boundary[3]; y++)
+            {
+                Point p = new IntPoint(x, y);
+                if (tri.contains(p))
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l2.calcColor(p)));
+                    setPixel(x, y, tri.calcColor(p));
                 }
-                for (Point p : l3.linePoints)
+            }
+        }
+    }
+
+    /**
+     * Draw a line with Bresenham's line algorithm, the colors are interpolated linearly between
+     * the end points, like in {@link Line}.
+     */
+    private void drawLine(int x0, int y0, int x1, int y1, float[] c0, float[] c1, float[] values)
+            throws IOException
+    {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+        int err = dx - dy;
+        int x = x0;
+        int y = y0;
+        while (true)
+        {
+            if (x0 == x1 && y0 == y1)
+            {
+                setPixel(x, y, c0);
+            }
+            else
+            {
+                // interpolate along y for vertical lines, otherwise along x
+                float l = x0 == x1 ? y1 - y0 : x1 - x0;
+                float t = x0 == x1 ? y - y0 : x - x0;
+                for (int i = 0; i < values.length; i++)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l3.calcColor(p)));
+                    values[i] = c0[i] * (l - t) / l + c1[i] * t / l;
                 }
+                setPixel(x, y, values);
             }
+            if (x == x1 && y == y1)
+            {
+                break;
+            }
+            int e2 = 2 * err;
+            if (e2 > -dy)
+            {
+                err -= dy;
+                x += sx;
+            }
+            if (e2 < dx)
+            {
+                err += dx;
+                y += sy;
+            }
+        }
+    }
+
+    /**
+     * Set the color of a pixel, if it is within the pixel table.
+     */
+    private void setPixel(int x, int y, float[] values) throws IOException
+    {
+        Rectangle bounds = pixelTableBounds;
+        int col = x - bounds.x;
+        int row = y - bounds.y;
+        if (col >= 0 && row >= 0 && col < bounds.width && row < bounds.height)
+        {
+            pixelTable[row * bounds.width + col] = evalFunctionAndConvertToRGB(values) | 0xFF000000;
         }
     }
 
@@ -187,18 +380,20 @@ abstract class TriangleBasedShadingContext extends ShadingContext implements Pai
         int[] data = new int[w * h * 4];
         if (!isDataEmpty() || getBackground() != null)
         {
+            Rectangle bounds = pixelTableBounds;
             for (int row = 0; row < h; row++)
             {
+                int tableRow = y + row - bounds.y;
+                boolean rowInTable = tableRow >= 0 && tableRow < bounds.height;
                 for (int col = 0; col < w; col++)
                 {
-                    Point p = new IntPoint(x + col, y + row);
-                    int value;
-                    Integer v = pixelTable.get(p);
-                    if (v != null)
+                    int tableCol = x + col - bounds.x;
+                    int value = 0;
+                    if (rowInTable && tableCol >= 0 && tableCol < bounds.width)
                     {
-                        value = v;
+                        value = pixelTable[tableRow * bounds.width + tableCol];
                     }
-                    else
+                    if (value == 0)
                     {
                         if (getBackground() == null)
                         {
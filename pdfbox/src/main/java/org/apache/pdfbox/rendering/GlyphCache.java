@@ -18,8 +18,8 @@ package org.apache.pdfbox.rendering;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.pdmodel.font.PDFontLike;
@@ -28,7 +28,7 @@ import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.font.PDVectorFont;
 
 /**
- * A simple glyph outline cache.
+ * A thread safe glyph outline cache of one font.
  *
  * @author John Hewson
  */
@@ -37,7 +37,7 @@ final class GlyphCache
     private static final Log LOG = LogFactory.getLog(GlyphCache.class);
     
     private final PDVectorFont font;
-    private final Map<Integer, GeneralPath> cache = new HashMap<>();
+    private final ConcurrentMap<Integer, GeneralPath> cache = new ConcurrentHashMap<>();
 
     GlyphCache(PDVectorFont font)
     {
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDVectorFont;
+
+/**
+ * A thread safe cache of the glyph outlines of the fonts of a document. When set on a
+ * {@link PDFRenderer}, it is shared by all pages rendered by that renderer. Without it, the outline
+ * of each glyph is derived from the font program again on every page.
+ *
+ * <p>The outlines are keyed by the COS object of the font dictionary, because the code to glyph
+ * mapping depends on the font dictionary, not only on the font program. The cache is bound to
+ * the objects of one document. The outlines of the least recently used fonts are evicted when more
+ * fonts than the limit of the cache are used, call {@link #clear()} to release all outlines.</p>
+ */
+public final class GlyphPathCache
+{
+    /**
+     * The default maximum number of fonts whose glyph outlines are cached.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 100;
+
+    private final Map<COSBase, GlyphCache> fonts;
+    private final int maximumSize;
+
+    /**
+     * Creates a cache with the default maximum size.
+     */
+    public GlyphPathCache()
+    {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a cache with the given maximum size.
+     *
+     * @param maximumSize the maximum number of fonts whose glyph outlines are cached
+     */
+    public GlyphPathCache(final int maximumSize)
+    {
+        if (maximumSize < 0)
+        {
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        }
+        this.maximumSize = maximumSize;
+        this.fonts = new LinkedHashMap<COSBase, GlyphCache>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<COSBase, GlyphCache> eldest)
+            {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the glyph outline cache of the given font.
+     */
+    synchronized GlyphCache getGlyphCache(PDFont font)
+    {
+        COSBase key = font.getCOSObject();
+        GlyphCache cache = fonts.get(key);
+        if (cache == null)
+        {
+            cache = new GlyphCache((PDVectorFont) font);
+            fonts.put(key, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Removes all glyph outlines from the cache.
+     */
+    public synchronized void clear()
+    {
+        fonts.clear();
+    }
+
+    /**
+     * Returns the maximum size of the cache.
+     *
+     * @return the maximum number of fonts whose glyph outlines are cached
+     */
+    public int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of fonts whose glyph outlines are cached.
+     *
+     * @return the number of fonts
+     */
+    public synchronized int getSize()
+    {
+        return fonts.size();
+    }
+}
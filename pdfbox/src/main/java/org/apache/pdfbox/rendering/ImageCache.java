@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * A thread safe cache of decoded and color converted images. When set on a {@link PDFRenderer},
+ * an image XObject which is drawn several times, e.g. a logo or background on many pages, or the
+ * same page rendered as thumbnail and at full resolution, is decoded only once.
+ *
+ * <p>Each image is cached at the subsampling levels at which it was drawn, like the levels of a
+ * mipmap. A subsampled level is derived from a cached finer level whose subsampling is a divisor
+ * of it, by picking every n-th pixel as the image reader does, instead of decoding the image
+ * again. Images with soft masks may then differ slightly at the edges.</p>
+ *
+ * <p>The images are keyed by the COS object of the image stream, and the least recently used
+ * images are evicted when their total size in bytes exceeds the limit of the cache. The cache
+ * doesn't notice when an image is modified, call {@link #remove(PDImageXObject)} or
+ * {@link #clear()} in that case.</p>
+ */
+public class ImageCache
+{
+    /**
+     * The default maximum weight, i.e. the number of bytes of the cached images.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 64L << 20;
+
+    private final LinkedHashMap<COSBase, Levels> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maximumWeight;
+    private long weight = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Creates a cache with the default maximum weight.
+     */
+    public ImageCache()
+    {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Creates a cache with the given maximum weight.
+     *
+     * @param maximumWeight the maximum total number of bytes of the cached images
+     */
+    public ImageCache(long maximumWeight)
+    {
+        if (maximumWeight < 0)
+        {
+            throw new IllegalArgumentException("maximumWeight must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns the image of the given image XObject with all masks applied, decoding it if no
+     * suitable level is cached yet. The returned image must not be modified.
+     *
+     * @param image an image XObject, not a stencil mask
+     * @param subsampling the amount of rows and columns to advance for every output pixel
+     * @return the (A)RGB image
+     * @throws IOException if the image could not be read
+     */
+    public BufferedImage getImage(PDImageXObject image, int subsampling) throws IOException
+    {
+        COSBase key = image.getCOSObject();
+        BufferedImage finer = null;
+        int finerSubsampling = 0;
+        synchronized (this)
+        {
+            Levels levels = entries.get(key);
+            if (levels != null)
+            {
+                BufferedImage cached = levels.images.get(subsampling);
+                if (cached != null)
+                {
+                    hitCount++;
+                    return cached;
+                }
+                // the coarsest finer level which can be subsampled
+                for (Map.Entry<Integer, BufferedImage> level :
+                        levels.images.headMap(subsampling, false).descendingMap().entrySet())
+                {
+                    if (subsampling % level.getKey() == 0)
+                    {
+                        finerSubsampling = level.getKey();
+                        finer = level.getValue();
+                        break;
+                    }
+                }
+            }
+            if (finer != null)
+            {
+                hitCount++;
+            }
+            else
+            {
+                missCount++;
+            }
+        }
+        // decode outside of the lock, another thread may decode the same image concurrently
+        BufferedImage bim;
+        if (finer != null)
+        {
+            bim = subsample(finer, subsampling / finerSubsampling);
+        }
+        else
+        {
+            bim = image.getImage(null, subsampling);
+        }
+        put(key, subsampling, bim);
+        return bim;
+    }
+
+    private synchronized void put(COSBase key, int subsampling, BufferedImage image)
+    {
+        long imageWeight = getWeight(image);
+        // images larger than the whole cache aren't cached at all
+        if (imageWeight > maximumWeight)
+        {
+            return;
+        }
+        Levels levels = entries.get(key);
+        if (levels == null)
+        {
+            levels = new Levels();
+            entries.put(key, levels);
+        }
+        BufferedImage old = levels.images.put(subsampling, image);
+        if (old != null)
+        {
+            levels.weight -= getWeight(old);
+            weight -= getWeight(old);
+        }
+        levels.weight += imageWeight;
+        weight += imageWeight;
+        Iterator<Levels> iterator = entries.values().iterator();
+        while (weight > maximumWeight && iterator.hasNext())
+        {
+            Levels eldest = iterator.next();
+            if (eldest != levels)
+            {
+                weight -= eldest.weight;
+                iterator.remove();
+            }
+        }
+        if (weight > maximumWeight)
+        {
+            // only this image is left, drop its other levels
+            levels.images.clear();
+            levels.images.put(subsampling, image);
+            levels.weight = imageWeight;
+            weight = imageWeight;
+        }
+    }
+
+    private static long getWeight(BufferedImage image)
+    {
+        // estimated with an int per pixel, as used by RGB and ARGB images
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Picks every n-th pixel of every n-th row, like the image reader does.
+     */
+    private static BufferedImage subsample(BufferedImage image, int factor)
+    {
+        int width = (image.getWidth() + factor - 1) / factor;
+        int height = (image.getHeight() + factor - 1) / factor;
+        WritableRaster raster = image.getRaster().createCompatibleWritableRaster(width, height);
+        Raster source = image.getRaster();
+        Object pixel = null;
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                pixel = source.getDataElements(x * factor, y * factor, pixel);
+                raster.setDataElements(x, y, pixel);
+            }
+        }
+        return new BufferedImage(image.getColorModel(), raster,
+                image.getColorModel().isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Removes all levels of the given image, e.g. after it has been modified.
+     *
+     * @param image an image XObject
+     */
+    public synchronized void remove(PDImageXObject image)
+    {
+        Levels old = entries.remove(image.getCOSObject());
+        if (old != null)
+        {
+            weight -= old.weight;
+        }
+    }
+
+    /**
+     * Removes all images from the cache. The hit and miss counts are kept.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the maximum weight of the cache.
+     *
+     * @return the maximum total number of bytes of the cached images
+     */
+    public long getMaximumWeight()
+    {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the current weight of the cache.
+     *
+     * @return the total number of bytes of the cached images
+     */
+    public synchronized long getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Returns the number of cached images. Each image may be cached at several levels.
+     *
+     * @return the number of cached images
+     */
+    public synchronized int getSize()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of requests which were served from a cached level of the image.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of requests which required decoding the image.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * The cached levels of one image, keyed by subsampling.
+     */
+    private static final class Levels
+    {
+        private final TreeMap<Integer, BufferedImage> images = new TreeMap<>();
+        private long weight = 0;
+    }
+}
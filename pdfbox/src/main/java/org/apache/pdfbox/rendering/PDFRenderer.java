@@ -17,19 +17,37 @@
 package org.apache.pdfbox.rendering;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.DisplayMode;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.contentstream.DisplayListCache;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDResources;
@@ -72,7 +90,16 @@ public class PDFRenderer
 
     private RenderingHints renderingHints = null;
 
+    private DisplayListCache displayListCache = null;
+
+    private ImageCache imageCache = null;
+
+    private GlyphPathCache glyphPathCache = null;
+
+    private RenderingProfile renderingProfile = RenderingProfile.QUALITY;
+
     private BufferedImage pageImage;
+    private Rectangle pageImageBounds;
 
     private static boolean kcmsLogged = false;
 
@@ -179,6 +206,102 @@ public class PDFRenderer
         this.renderingHints = renderingHints;
     }
 
+    /**
+     * Returns the cache of the display lists of the rendered pages and forms.
+     *
+     * @return the display list cache, or null if the content streams are parsed for each rendering
+     */
+    public DisplayListCache getDisplayListCache()
+    {
+        return displayListCache;
+    }
+
+    /**
+     * Sets a cache of the display lists of the rendered pages and forms. Rendering the same pages
+     * several times, e.g. as thumbnail, preview and at full resolution, or rendering a form which
+     * appears on many pages, then parses their content streams only once. The display lists are
+     * bound to the objects of this document, so the cache must not be shared with the renderers of
+     * other documents.
+     *
+     * @param displayListCache the display list cache, or null to parse the content streams for
+     * each rendering
+     */
+    public void setDisplayListCache(DisplayListCache displayListCache)
+    {
+        this.displayListCache = displayListCache;
+    }
+
+    /**
+     * Returns the cache of the decoded images of the rendered pages.
+     *
+     * @return the image cache, or null if the images are decoded for each rendering
+     */
+    public ImageCache getImageCache()
+    {
+        return imageCache;
+    }
+
+    /**
+     * Sets a cache of the decoded and color converted images of the rendered pages. Images which
+     * are drawn on many pages or in several renderings of a page, also at different resolutions
+     * when subsampling is allowed, are then decoded only once. The images are bound to the objects
+     * of this document, so the cache must not be shared with the renderers of other documents.
+     *
+     * @param imageCache the image cache, or null to decode the images for each rendering
+     */
+    public void setImageCache(ImageCache imageCache)
+    {
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * Returns the cache of the glyph outlines of the rendered pages.
+     *
+     * @return the glyph outline cache, or null if the outlines are derived for each page
+     */
+    public GlyphPathCache getGlyphPathCache()
+    {
+        return glyphPathCache;
+    }
+
+    /**
+     * Sets the cache of the glyph outlines of the rendered pages. By default, no cache is used.
+     * The outlines are bound to the fonts of this document, so the cache must not be shared with
+     * the renderers of other documents.
+     *
+     * @param glyphPathCache the glyph outline cache, or null to derive the outlines for each page
+     */
+    public void setGlyphPathCache(GlyphPathCache glyphPathCache)
+    {
+        this.glyphPathCache = glyphPathCache;
+    }
+
+    /**
+     * Returns the trade-off between the fidelity and the speed of the rendering.
+     *
+     * @return the rendering profile, {@link RenderingProfile#QUALITY} by default
+     */
+    public RenderingProfile getRenderingProfile()
+    {
+        return renderingProfile;
+    }
+
+    /**
+     * Sets the trade-off between the fidelity and the speed of the rendering. Use
+     * {@link RenderingProfile#DRAFT} for thumbnails and previews, see there for what is
+     * approximated.
+     *
+     * @param renderingProfile the rendering profile
+     */
+    public void setRenderingProfile(RenderingProfile renderingProfile)
+    {
+        if (renderingProfile == null)
+        {
+            throw new IllegalArgumentException("renderingProfile must not be null");
+        }
+        this.renderingProfile = renderingProfile;
+    }
+
     /**
      * Returns the given page as an RGB image at 72 DPI
      * @param pageIndex the zero-based index of the page to be converted.
@@ -256,25 +379,117 @@ public class PDFRenderer
     public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType, RenderDestination destination)
             throws IOException
     {
-        PDPage page = document.getPage(pageIndex);
+        return renderImage(pageIndex, scale, imageType, destination, null);
+    }
+
+    /**
+     * Returns a region of the given page as an RGB or ARGB image at the given scale. The region is
+     * given in the pixel coordinates of the image returned by
+     * {@link #renderImage(int, float, ImageType)}, so a page can be rendered in tiles which are
+     * put together to the image of the whole page. Only the size of the region is limited, not the
+     * size of the whole page image, and content outside of the region is skipped as far as
+     * possible.
+     *
+     * @param pageIndex the zero-based index of the page to be converted
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @param imageType the type of image to return
+     * @param region the region of the page image to be rendered
+     * @return the rendered image of the region, clipped to the bounds of the page image
+     * @throws IOException if the PDF cannot be read
+     * @throws IllegalArgumentException if the region doesn't intersect the page image
+     */
+    public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType,
+            Rectangle region) throws IOException
+    {
+        return renderImage(pageIndex, scale, imageType,
+                defaultDestination == null ? RenderDestination.EXPORT : defaultDestination, region);
+    }
 
+    /**
+     * Renders the given page in tiles of the given size and passes them to the consumer, row by
+     * row from the top left. Only one tile is held in memory at a time, so pages can be rendered
+     * at resolutions which would exceed the memory or the maximum size of a single image.
+     * The content stream of the page is processed once per tile.
+     *
+     * @param pageIndex the zero-based index of the page to be converted
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @param imageType the type of image to return
+     * @param tileWidth the width of the tiles, the last tile of a row may be smaller
+     * @param tileHeight the height of the tiles, the tiles of the last row may be smaller
+     * @param consumer receives the rendered tiles
+     * @throws IOException if the PDF cannot be read or the consumer failed
+     * @throws IllegalArgumentException if the tile size isn't positive
+     */
+    public void renderTiles(int pageIndex, float scale, ImageType imageType, int tileWidth,
+            int tileHeight, PageTileConsumer consumer) throws IOException
+    {
+        if (tileWidth <= 0 || tileHeight <= 0)
+        {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        Dimension size = getImageSize(pageIndex, scale);
+        for (int y = 0; y < size.height; y += tileHeight)
+        {
+            for (int x = 0; x < size.width; x += tileWidth)
+            {
+                Rectangle region = new Rectangle(x, y, Math.min(tileWidth, size.width - x),
+                        Math.min(tileHeight, size.height - y));
+                consumer.accept(region, renderImage(pageIndex, scale, imageType, region));
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the image of the given page at the given scale, as returned by
+     * {@link #renderImage(int, float)}. The page's rotation is taken into account.
+     *
+     * @param pageIndex the zero-based index of the page
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @return the size in pixels
+     */
+    public Dimension getImageSize(int pageIndex, float scale)
+    {
+        PDPage page = document.getPage(pageIndex);
         PDRectangle cropbBox = page.getCropBox();
-        float widthPt = cropbBox.getWidth();
-        float heightPt = cropbBox.getHeight();
 
         // PDFBOX-4306 avoid single blank pixel line on the right or on the bottom
-        int widthPx = (int) Math.max(Math.floor(widthPt * scale), 1);
-        int heightPx = (int) Math.max(Math.floor(heightPt * scale), 1);
+        int widthPx = (int) Math.max(Math.floor(cropbBox.getWidth() * scale), 1);
+        int heightPx = (int) Math.max(Math.floor(cropbBox.getHeight() * scale), 1);
+
+        int rotationAngle = page.getRotation();
+        if (rotationAngle == 90 || rotationAngle == 270)
+        {
+            return new Dimension(heightPx, widthPx);
+        }
+        return new Dimension(widthPx, heightPx);
+    }
+
+    private BufferedImage renderImage(int pageIndex, float scale, ImageType imageType,
+            RenderDestination destination, Rectangle region) throws IOException
+    {
+        PDPage page = document.getPage(pageIndex);
+
+        Dimension size = getImageSize(pageIndex, scale);
+        Rectangle bounds = new Rectangle(size);
+        if (region != null)
+        {
+            bounds = bounds.intersection(region);
+            if (bounds.isEmpty())
+            {
+                throw new IllegalArgumentException("The region " + region
+                        + " is outside of the page image " + size);
+            }
+        }
 
         // PDFBOX-4518 the maximum size (w*h) of a buffered image is limited to Integer.MAX_VALUE
-        if ((long) widthPx * (long) heightPx > Integer.MAX_VALUE)
+        if ((long) bounds.width * (long) bounds.height > Integer.MAX_VALUE)
         {
+            PDRectangle cropbBox = page.getCropBox();
             throw new IOException("Maximum size of image exceeded (w * h * scale) = "//
-                    + widthPt + " * " + heightPt + " * " + scale + " > " + Integer.MAX_VALUE);
+                    + cropbBox.getWidth() + " * " + cropbBox.getHeight() + " * " + scale + " > "
+                    + Integer.MAX_VALUE + ", render it in tiles instead");
         }
 
-        int rotationAngle = page.getRotation();
-
         int bimType = imageType.toBufferedImageType();
         if (imageType != ImageType.ARGB && hasBlendMode(page))
         {
@@ -285,18 +500,11 @@ public class PDFRenderer
             bimType = BufferedImage.TYPE_INT_ARGB;
         }
 
-        // swap width and height
-        BufferedImage image;
-        if (rotationAngle == 90 || rotationAngle == 270)
-        {
-            image = new BufferedImage(heightPx, widthPx, bimType);
-        }
-        else
-        {
-            image = new BufferedImage(widthPx, heightPx, bimType);
-        }
+        BufferedImage image = new BufferedImage(bounds.width, bounds.height, bimType);
 
         pageImage = image;
+        // the position of the whole page image relative to the rendered region
+        pageImageBounds = new Rectangle(-bounds.x, -bounds.y, size.width, size.height);
 
         // use a transparent background if the image type supports alpha
         Graphics2D g = image.createGraphics();
@@ -309,14 +517,21 @@ public class PDFRenderer
             g.setBackground(Color.WHITE);
         }
         g.clearRect(0, 0, image.getWidth(), image.getHeight());
-        
+
+        if (region != null)
+        {
+            // the clip tells the PageDrawer which content can be skipped
+            g.translate(-bounds.x, -bounds.y);
+            g.clip(bounds);
+        }
         transform(g, page, scale, scale);
 
         // the end-user may provide a custom PageDrawer
         RenderingHints actualRenderingHints =
                 renderingHints == null ? createDefaultRenderingHints(g) : renderingHints;
         PageDrawerParameters parameters = new PageDrawerParameters(this, page, subsamplingAllowed,
-                                                                   destination, actualRenderingHints);
+                destination, actualRenderingHints, displayListCache, imageCache,
+                glyphPathCache, renderingProfile);
         PageDrawer drawer = createPageDrawer(parameters);
         drawer.drawPage(g, page.getCropBox());       
         
@@ -338,6 +553,215 @@ public class PDFRenderer
         return image;
     }
 
+    /**
+     * Renders a range of pages in parallel with the given number of threads. See
+     * {@link #renderPages(int, int, float, ImageType, Callable, ExecutorService,
+     * PageImageConsumer)} for details.
+     *
+     * @param startPage the zero-based index of the first page to be rendered
+     * @param endPage the zero-based index after the last page to be rendered
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to return
+     * @param documentLoader loads a separate instance of the document for a worker thread
+     * @param threads the number of threads rendering pages
+     * @param consumer receives the rendered pages in page order
+     * @throws IOException if the PDF cannot be read or the consumer failed
+     * @throws IllegalArgumentException if the page range or the number of threads is invalid
+     */
+    public void renderPages(int startPage, int endPage, float dpi, ImageType imageType,
+            Callable<PDDocument> documentLoader, int threads, PageImageConsumer consumer)
+            throws IOException
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "PDFBox rendering");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try
+        {
+            renderPages(startPage, endPage, dpi, imageType, documentLoader, executor, 2 * threads,
+                    consumer);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders a range of pages in parallel using the given executor.
+     *
+     * <p>A PDDocument isn't thread safe, so the pages aren't rendered from the document of this
+     * renderer, which isn't accessed by other threads. Instead each worker thread uses its own
+     * instance of the document, loaded by the given document loader, e.g. by
+     * {@link PDDocument#load(java.io.File)}, and rendered by a renderer created with
+     * {@link #createWorkerRenderer(PDDocument)}. At most as many documents are loaded as pages are
+     * rendered at the same time, they are closed before this method returns. Use the
+     * {@link org.apache.pdfbox.pdmodel.font.EmbeddedFontCache} to share the parsed fonts of the
+     * worker documents.</p>
+     *
+     * <p>The rendered images are passed to the consumer in page order in the calling thread.
+     * Only twice the number of available processors are rendered ahead of the consumer.</p>
+     *
+     * @param startPage the zero-based index of the first page to be rendered
+     * @param endPage the zero-based index after the last page to be rendered
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to return
+     * @param documentLoader loads a separate instance of the document for a worker thread
+     * @param executor the executor running the rendering tasks
+     * @param consumer receives the rendered pages in page order
+     * @throws IOException if the PDF cannot be read or the consumer failed
+     * @throws IllegalArgumentException if the page range is invalid
+     */
+    public void renderPages(int startPage, int endPage, float dpi, ImageType imageType,
+            Callable<PDDocument> documentLoader, ExecutorService executor,
+            PageImageConsumer consumer) throws IOException
+    {
+        renderPages(startPage, endPage, dpi, imageType, documentLoader, executor,
+                2 * Runtime.getRuntime().availableProcessors(), consumer);
+    }
+
+    private void renderPages(int startPage, int endPage, float dpi, ImageType imageType,
+            Callable<PDDocument> documentLoader, ExecutorService executor, int window,
+            PageImageConsumer consumer) throws IOException
+    {
+        if (startPage < 0 || startPage > endPage || endPage > document.getNumberOfPages())
+        {
+            throw new IllegalArgumentException("Invalid page range " + startPage + " - " + endPage);
+        }
+        Queue<PDFRenderer> idleRenderers = new ConcurrentLinkedQueue<>();
+        List<PDDocument> workerDocuments = Collections.synchronizedList(new ArrayList<PDDocument>());
+        Deque<Future<BufferedImage>> pending = new ArrayDeque<>();
+        int nextPage = startPage;
+        try
+        {
+            for (int pageIndex = startPage; pageIndex < endPage; pageIndex++)
+            {
+                while (nextPage < endPage && pending.size() < window)
+                {
+                    pending.add(executor.submit(createRenderTask(nextPage++, dpi, imageType,
+                            documentLoader, idleRenderers, workerDocuments)));
+                }
+                consumer.accept(pageIndex, getRenderedPage(pending.poll()));
+            }
+        }
+        finally
+        {
+            // the running tasks must be finished before their documents are closed
+            for (Future<BufferedImage> future : pending)
+            {
+                try
+                {
+                    future.get();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                catch (ExecutionException e)
+                {
+                    // the rendering is aborted anyway
+                }
+            }
+            for (PDDocument workerDocument : workerDocuments)
+            {
+                IOUtils.closeQuietly(workerDocument);
+            }
+        }
+    }
+
+    private Callable<BufferedImage> createRenderTask(final int pageIndex, final float dpi,
+            final ImageType imageType, final Callable<PDDocument> documentLoader,
+            final Queue<PDFRenderer> idleRenderers, final List<PDDocument> workerDocuments)
+    {
+        return new Callable<BufferedImage>()
+        {
+            @Override
+            public BufferedImage call() throws Exception
+            {
+                PDFRenderer renderer = idleRenderers.poll();
+                if (renderer == null)
+                {
+                    PDDocument workerDocument = documentLoader.call();
+                    if (workerDocument == null)
+                    {
+                        throw new IOException("The document loader didn't return a document");
+                    }
+                    workerDocuments.add(workerDocument);
+                    renderer = createWorkerRenderer(workerDocument);
+                }
+                try
+                {
+                    return renderer.renderImageWithDPI(pageIndex, dpi, imageType);
+                }
+                finally
+                {
+                    idleRenderers.add(renderer);
+                }
+            }
+        };
+    }
+
+    private static BufferedImage getRenderedPage(Future<BufferedImage> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering a page");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates the renderer used by a worker thread of
+     * {@link #renderPages(int, int, float, ImageType, Callable, ExecutorService, PageImageConsumer)
+     * renderPages()}. It gets the settings of this renderer, the annotation filter and the
+     * rendering hints are shared. Override this method if a subclass of PDFRenderer is needed.
+     *
+     * @param workerDocument the document instance of the worker thread
+     * @return the renderer
+     */
+    protected PDFRenderer createWorkerRenderer(PDDocument workerDocument)
+    {
+        PDFRenderer renderer = new PDFRenderer(workerDocument);
+        renderer.setAnnotationsFilter(annotationFilter);
+        renderer.setSubsamplingAllowed(subsamplingAllowed);
+        renderer.setDefaultDestination(defaultDestination);
+        renderer.setRenderingHints(renderingHints);
+        renderer.setRenderingProfile(renderingProfile);
+        if (glyphPathCache != null)
+        {
+            // the outlines are bound to the fonts of a document, each worker needs its own cache
+            renderer.setGlyphPathCache(new GlyphPathCache(glyphPathCache.getMaximumSize()));
+        }
+        return renderer;
+    }
+
     /**
      * Renders a given page to an AWT Graphics2D instance.
      * @param pageIndex the zero-based index of the page to be converted
@@ -403,7 +827,8 @@ public class PDFRenderer
         RenderingHints actualRenderingHints =
                 renderingHints == null ? createDefaultRenderingHints(graphics) : renderingHints;
         PageDrawerParameters parameters = new PageDrawerParameters(this, page, subsamplingAllowed,
-                                                                   destination, actualRenderingHints);
+                destination, actualRenderingHints, displayListCache, imageCache,
+                glyphPathCache, renderingProfile);
         PageDrawer drawer = createPageDrawer(parameters);
         drawer.drawPage(graphics, cropBox);
     }
@@ -474,11 +899,14 @@ public class PDFRenderer
 
     private RenderingHints createDefaultRenderingHints(Graphics2D graphics)
     {
+        boolean draft = renderingProfile == RenderingProfile.DRAFT;
         RenderingHints r = new RenderingHints(null);
-        r.put(RenderingHints.KEY_INTERPOLATION, isBitonal(graphics) ?
+        r.put(RenderingHints.KEY_INTERPOLATION, isBitonal(graphics) || draft ?
                 RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR :
                 RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        r.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        r.put(RenderingHints.KEY_RENDERING, draft ?
+                RenderingHints.VALUE_RENDER_SPEED :
+                RenderingHints.VALUE_RENDER_QUALITY);
         r.put(RenderingHints.KEY_ANTIALIASING, isBitonal(graphics) ?
                                         RenderingHints.VALUE_ANTIALIAS_OFF :
                                         RenderingHints.VALUE_ANTIALIAS_ON);
@@ -531,6 +959,15 @@ public class PDFRenderer
         return pageImage;
     }
 
+    /**
+     * Returns the bounds of the whole page image in the coordinates of the image returned by
+     * {@link #getPageImage()}, which may only be a region of the page.
+     */
+    Rectangle getPageImageBounds()
+    {
+        return pageImageBounds;
+    }
+
     private static void suggestKCMS()
     {
         String cmmProperty = System.getProperty("sun.java2d.cmm");
@@ -77,6 +77,7 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.form.PDTransparencyGroup;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentGroup;
 import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentGroup.RenderState;
 import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentMembershipDictionary;
@@ -84,6 +85,8 @@ import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
 import org.apache.pdfbox.pdmodel.graphics.pattern.PDShadingPattern;
 import org.apache.pdfbox.pdmodel.graphics.pattern.PDTilingPattern;
 import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShadingType1;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShadingType2;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.pdmodel.graphics.state.PDSoftMask;
@@ -116,6 +119,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     private final PDFRenderer renderer;
     
     private final boolean subsamplingAllowed;
+
+    // cache of decoded images, may be null
+    private final ImageCache imageCache;
+
+    // glyph outlines shared by all pages, may be null
+    private final GlyphPathCache glyphPathCache;
+
+    // whether to approximate expensive operations, see RenderingProfile.DRAFT
+    private final boolean draft;
     
     // the graphics device to draw to, xform is the initial transform of the device (i.e. DPI)
     private Graphics2D graphics;
@@ -124,6 +136,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     // the page box to draw (usually the crop box but may be another)
     private PDRectangle pageSize;
 
+    // the clip bounds of the page's graphics device, e.g. a tile, in device space. Content drawn
+    // to the page's graphics outside of it is skipped, null if the whole page is visible
+    private Rectangle2D visibleRegion;
+    private Graphics2D pageGraphics;
+
     // whether image of a transparency group must be flipped
     // needed when in a tiling pattern
     private boolean flipTG = false;
@@ -176,8 +193,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         super(parameters.getPage());
         this.renderer = parameters.getRenderer();
         this.subsamplingAllowed = parameters.isSubsamplingAllowed();
+        this.imageCache = parameters.getImageCache();
+        this.glyphPathCache = parameters.getGlyphPathCache();
+        this.draft = parameters.getRenderingProfile() == RenderingProfile.DRAFT;
         this.destination = parameters.getDestination();
         this.renderingHints = parameters.getRenderingHints();
+        setDisplayListCache(parameters.getDisplayListCache());
     }
 
     /**
@@ -246,6 +267,10 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         graphics = (Graphics2D) g;
         xform = graphics.getTransform();
         this.pageSize = pageSize;
+        Shape deviceClip = graphics.getClip();
+        visibleRegion = deviceClip != null ?
+                xform.createTransformedShape(deviceClip).getBounds2D() : null;
+        pageGraphics = graphics;
 
         setRenderingHints();
 
@@ -263,6 +288,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
 
         graphics = null;
+        pageGraphics = null;
     }
 
     /**
@@ -350,6 +376,14 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                     LOG.error("shadingPattern is null, will be filled with transparency");
                     return new Color(0,0,0,0);
                 }
+                if (draft)
+                {
+                    Color averageColor = getAverageColor(shading);
+                    if (averageColor != null)
+                    {
+                        return averageColor;
+                    }
+                }
                 return shading.toPaint(Matrix.concatenate(getInitialMatrix(),
                                                           shadingPattern.getMatrix()));
 
@@ -357,6 +391,104 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    /**
+     * Returns the average of some colors of a function based, axial or radial shading, sampled
+     * over the domain of its function, or null for the other shading types.
+     */
+    private Color getAverageColor(PDShading shading) throws IOException
+    {
+        int steps = 5;
+        float[][] inputs;
+        if (shading instanceof PDShadingType1)
+        {
+            float[] domain = getDomain(((PDShadingType1) shading).getDomain(), 4);
+            inputs = new float[steps * steps][];
+            for (int i = 0; i < steps; i++)
+            {
+                for (int j = 0; j < steps; j++)
+                {
+                    inputs[i * steps + j] = new float[] {
+                            domain[0] + (domain[1] - domain[0]) * i / (steps - 1),
+                            domain[2] + (domain[3] - domain[2]) * j / (steps - 1) };
+                }
+            }
+        }
+        else if (shading instanceof PDShadingType2)
+        {
+            // also type 3, the radial shading
+            float[] domain = getDomain(((PDShadingType2) shading).getDomain(), 2);
+            inputs = new float[steps][];
+            for (int i = 0; i < steps; i++)
+            {
+                inputs[i] = new float[] { domain[0] + (domain[1] - domain[0]) * i / (steps - 1) };
+            }
+        }
+        else
+        {
+            return null;
+        }
+        PDColorSpace colorSpace = shading.getColorSpace();
+        float[] sum = new float[3];
+        for (float[] input : inputs)
+        {
+            float[] rgb = colorSpace.toRGB(shading.evalFunction(input));
+            for (int c = 0; c < 3; c++)
+            {
+                sum[c] += rgb[c];
+            }
+        }
+        return new Color(clampColor(sum[0] / inputs.length), clampColor(sum[1] / inputs.length),
+                clampColor(sum[2] / inputs.length));
+    }
+
+    // returns the values of the given domain array, or [0 1 ...] if it's missing or invalid
+    private static float[] getDomain(COSArray domainArray, int size)
+    {
+        if (domainArray != null && domainArray.size() >= size)
+        {
+            return domainArray.toFloatArray();
+        }
+        float[] domain = new float[size];
+        for (int i = 1; i < size; i += 2)
+        {
+            domain[i] = 1;
+        }
+        return domain;
+    }
+
+    /**
+     * Checks whether the given bounds in the current user space of the graphics may be visible.
+     * Only content drawn directly to the page's graphics is checked.
+     */
+    private boolean isVisible(Rectangle2D bounds)
+    {
+        if (visibleRegion == null || graphics != pageGraphics)
+        {
+            return true;
+        }
+        Rectangle2D deviceBounds = graphics.getTransform().createTransformedShape(bounds)
+                .getBounds2D();
+        // anti-aliasing may touch the surrounding pixels, and it avoids empty bounds of lines
+        deviceBounds.setRect(deviceBounds.getX() - 1, deviceBounds.getY() - 1,
+                deviceBounds.getWidth() + 2, deviceBounds.getHeight() + 2);
+        return deviceBounds.intersects(visibleRegion);
+    }
+
+    /**
+     * Checks whether the bounding box of the given form may be visible.
+     */
+    private boolean isVisible(PDFormXObject form)
+    {
+        PDRectangle bbox = form.getBBox();
+        if (bbox == null || visibleRegion == null)
+        {
+            return true;
+        }
+        Matrix matrix = getGraphicsState().getCurrentTransformationMatrix().clone();
+        matrix.concatenate(form.getMatrix());
+        return isVisible(bbox.transform(matrix).getBounds2D());
+    }
+
     // sets the clipping path using caching for performance, we track lastClip manually because
     // Graphics2D#getClip() returns a new object instead of the same one passed to setClip
     private void setClip()
@@ -426,11 +558,17 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         at.concatenate(font.getFontMatrix().createAffineTransform());
 
         // create cache if it does not exist
-        PDVectorFont vectorFont = ((PDVectorFont)font);
         GlyphCache cache = glyphCaches.get(font);
         if (cache == null)
         {
-            cache = new GlyphCache(vectorFont);
+            if (glyphPathCache != null)
+            {
+                cache = glyphPathCache.getGlyphCache(font);
+            }
+            else
+            {
+                cache = new GlyphCache((PDVectorFont) font);
+            }
             glyphCaches.put(font, cache);
         }
 
@@ -530,6 +668,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     }
 
     //TODO: move soft mask apply to getPaint()?
+    // returns the soft mask of the graphics state, or null if soft masks are ignored
+    private PDSoftMask getSoftMask()
+    {
+        return draft ? null : getGraphicsState().getSoftMask();
+    }
+
     private Paint applySoftMaskToPaint(Paint parentPaint, PDSoftMask softMask) throws IOException
     {
         if (softMask == null || softMask.getGroup() == null)
@@ -622,7 +766,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     {
         return applySoftMaskToPaint(
                 getPaint(getGraphicsState().getStrokingColor()),
-                getGraphicsState().getSoftMask());
+                getSoftMask());
     }
 
     // returns the non-stroking AWT Paint
@@ -630,7 +774,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     {
         return applySoftMaskToPaint(
                 getPaint(getGraphicsState().getNonStrokingColor()),
-                getGraphicsState().getSoftMask());
+                getSoftMask());
     }
 
     // create a new stroke based on the current CTM and the current stroke
@@ -713,9 +857,23 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     @Override
     public void strokePath() throws IOException
     {
+        BasicStroke stroke = getStroke();
+        if (visibleRegion != null)
+        {
+            // miter joins may exceed the line width
+            Rectangle2D bounds = linePath.getBounds2D();
+            double extent = stroke.getLineWidth() * stroke.getMiterLimit() / 2;
+            bounds.setRect(bounds.getX() - extent, bounds.getY() - extent,
+                    bounds.getWidth() + 2 * extent, bounds.getHeight() + 2 * extent);
+            if (!isVisible(bounds))
+            {
+                linePath.reset();
+                return;
+            }
+        }
         graphics.setComposite(getGraphicsState().getStrokingJavaComposite());
         graphics.setPaint(getStrokingPaint());
-        graphics.setStroke(getStroke());
+        graphics.setStroke(stroke);
         setClip();
         //TODO bbox of shading pattern should be used here? (see fillPath)
         if (isContentRendered())
@@ -728,6 +886,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     @Override
     public void fillPath(int windingRule) throws IOException
     {
+        if (!isVisible(linePath.getBounds2D()))
+        {
+            linePath.reset();
+            return;
+        }
         graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
         graphics.setPaint(getNonStrokingPaint());
         setClip();
@@ -930,6 +1093,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
         AffineTransform at = ctm.createAffineTransform();
 
+        // skip invisible images before decoding them
+        if (!isVisible(at.createTransformedShape(new Rectangle2D.Float(0, 0, 1, 1)).getBounds2D()))
+        {
+            return;
+        }
+
         if (!pdImage.getInterpolate())
         {
             boolean isScaledUp = pdImage.getWidth() < Math.round(at.getScaleX()) ||
@@ -1026,16 +1195,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
         else
         {
-            if (subsamplingAllowed)
+            // without subsampling, every pixel of the image is drawn
+            int subsampling = subsamplingAllowed || draft ? getSubsampling(pdImage, at) : 1;
+            if (imageCache != null && pdImage instanceof PDImageXObject)
             {
-                int subsampling = getSubsampling(pdImage, at);
-                // draw the subsampled image
-                drawBufferedImage(pdImage.getImage(null, subsampling), at);
+                drawBufferedImage(imageCache.getImage((PDImageXObject) pdImage, subsampling), at);
             }
             else
             {
-                // subsampling not allowed, draw the image
-                drawBufferedImage(pdImage.getImage(), at);
+                drawBufferedImage(pdImage.getImage(null, subsampling), at);
             }
         }
 
@@ -1053,8 +1221,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
      *
      * @param pdImage PDImage to be drawn
      * @param at Transform that will be applied to the image when drawing
-     * @return The rounded-down ratio of image pixels to drawn pixels. Returned value will always be
-     * >=1.
+     * @return The rounded-down ratio of image pixels to drawn pixels, at most 8 unless in draft mode.
+     * Returned value will always be >=1.
      */
     private int getSubsampling(PDImage pdImage, AffineTransform at)
     {
@@ -1062,7 +1230,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         double scale = Math.abs(at.getDeterminant() * xform.getDeterminant());
 
         int subsampling = (int) Math.floor(Math.sqrt(pdImage.getWidth() * pdImage.getHeight() / scale));
-        if (subsampling > 8)
+        if (subsampling > 8 && !draft)
         {
             subsampling = 8;
         }
@@ -1084,7 +1252,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
         setClip();
         AffineTransform imageTransform = new AffineTransform(at);
-        PDSoftMask softMask = getGraphicsState().getSoftMask();
+        PDSoftMask softMask = getSoftMask();
         if( softMask != null )
         {
             imageTransform.scale(1, -1);
@@ -1212,13 +1380,6 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             return;
         }
         Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
-        Paint paint = shading.toPaint(ctm);
-        paint = applySoftMaskToPaint(paint, getGraphicsState().getSoftMask());
-
-        graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
-        graphics.setPaint(paint);
-        graphics.setClip(null);
-        lastClip = null;
 
         // get the transformed BBox and intersect with current clipping path
         // need to do it here and not in shading getRaster() because it may have been rotated
@@ -1233,6 +1394,23 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         {
             area = getGraphicsState().getCurrentClippingPath();
         }
+        if (!isVisible(area.getBounds2D()))
+        {
+            return;
+        }
+
+        Paint paint = draft ? getAverageColor(shading) : null;
+        if (paint == null)
+        {
+            paint = shading.toPaint(ctm);
+        }
+        paint = applySoftMaskToPaint(paint, getSoftMask());
+
+        graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
+        graphics.setPaint(paint);
+        graphics.setClip(null);
+        lastClip = null;
+
         if (isContentRendered())
         {
             graphics.fill(area);
@@ -1303,7 +1481,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     @Override
     public void showForm(PDFormXObject form) throws IOException
     {
-        if (isContentRendered())
+        if (isContentRendered() && isVisible(form))
         {
             super.showForm(form);
         }
@@ -1312,10 +1490,16 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     @Override
     public void showTransparencyGroup(PDTransparencyGroup form) throws IOException
     {
-        if (!isContentRendered())
+        if (!isContentRendered() || !isVisible(form))
         {
             return;
         }
+        if (draft)
+        {
+            // draw the content directly, without the offscreen image of the group
+            super.showForm(form);
+            return;
+        }
         TransparencyGroup group
                 = new TransparencyGroup(form, false, getGraphicsState().getCurrentTransformationMatrix(), null);
         BufferedImage image = group.getImage();
@@ -1355,7 +1539,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             graphics.translate(x * xScale, y * yScale);
         }
 
-        PDSoftMask softMask = getGraphicsState().getSoftMask();
+        PDSoftMask softMask = getSoftMask();
         if (softMask != null)
         {
             Paint awtPaint = new TexturePaint(image,
@@ -1477,8 +1661,13 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                     // Use the current page as the parent group.
                     backdropImage = renderer.getPageImage();
                     needsBackdrop = backdropImage != null;
-                    backdropX = minX;
-                    backdropY = (backdropImage != null) ? (backdropImage.getHeight() - maxY) : 0;
+                    if (backdropImage != null)
+                    {
+                        // the page image may only be a region of the page
+                        Rectangle pageImageBounds = renderer.getPageImageBounds();
+                        backdropX = minX + pageImageBounds.x;
+                        backdropY = pageImageBounds.y + pageImageBounds.height - maxY;
+                    }
                 }
                 else
                 {
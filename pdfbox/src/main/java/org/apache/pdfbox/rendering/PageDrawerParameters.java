@@ -19,6 +19,7 @@ package org.apache.pdfbox.rendering;
 
 import java.awt.RenderingHints;
 
+import org.apache.pdfbox.contentstream.DisplayListCache;
 import org.apache.pdfbox.pdmodel.PDPage;
 
 /**
@@ -35,18 +36,28 @@ public final class PageDrawerParameters
     private final boolean subsamplingAllowed;
     private final RenderDestination destination; 
     private final RenderingHints renderingHints;
+    private final DisplayListCache displayListCache;
+    private final ImageCache imageCache;
+    private final GlyphPathCache glyphPathCache;
+    private final RenderingProfile renderingProfile;
 
     /**
      * Package-private constructor.
      */
     PageDrawerParameters(PDFRenderer renderer, PDPage page, boolean subsamplingAllowed,
-                         RenderDestination destination, RenderingHints renderingHints)
+                         RenderDestination destination, RenderingHints renderingHints,
+                         DisplayListCache displayListCache, ImageCache imageCache,
+                         GlyphPathCache glyphPathCache, RenderingProfile renderingProfile)
     {
         this.renderer = renderer;
         this.page = page;
         this.subsamplingAllowed = subsamplingAllowed;
         this.destination = destination;
         this.renderingHints = renderingHints;
+        this.displayListCache = displayListCache;
+        this.imageCache = imageCache;
+        this.glyphPathCache = glyphPathCache;
+        this.renderingProfile = renderingProfile;
     }
 
     /**
@@ -88,4 +99,36 @@ public final class PageDrawerParameters
     {
         return renderingHints;
     }
+
+    /**
+     * @return the display list cache, or null if none is used.
+     */
+    public DisplayListCache getDisplayListCache()
+    {
+        return displayListCache;
+    }
+
+    /**
+     * @return the image cache, or null if none is used.
+     */
+    public ImageCache getImageCache()
+    {
+        return imageCache;
+    }
+
+    /**
+     * @return the glyph outline cache, or null if none is used.
+     */
+    public GlyphPathCache getGlyphPathCache()
+    {
+        return glyphPathCache;
+    }
+
+    /**
+     * @return the rendering profile.
+     */
+    public RenderingProfile getRenderingProfile()
+    {
+        return renderingProfile;
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+/**
+ * The trade-off between the fidelity and the speed of the rendering.
+ */
+public enum RenderingProfile
+{
+    /**
+     * Render as faithfully as possible. This is the default.
+     */
+    QUALITY,
+
+    /**
+     * Render quickly for thumbnails and previews, where the details of the page don't matter.
+     * <ul>
+     * <li>Transparency groups are drawn directly onto the page, without an offscreen image. The
+     * constant alpha is applied to each object of the group instead of the group as a whole, and
+     * the isolated and knockout flags are ignored.</li>
+     * <li>Soft masks are ignored, the masked objects are drawn unmasked.</li>
+     * <li>Axial, radial and function based shadings are filled with the average of a few of
+     * their colors. Mesh shadings are drawn as usual.</li>
+     * <li>Images are always subsampled as much as the resolution of the output allows, even if
+     * subsampling isn't allowed, and they are drawn with speed over quality rendering
+     * hints.</li>
+     * </ul>
+     * Rendering hints set with {@link PDFRenderer#setRenderingHints} take precedence.
+     */
+    DRAFT
+}
@@ -19,26 +19,37 @@ package org.apache.pdfbox.text;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.Bidi;
 import java.text.Normalizer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageTree;
@@ -220,6 +231,63 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      * @throws IOException If the doc is in an invalid state.
      */
     public void writeText(PDDocument doc, Writer outputStream) throws IOException
+    {
+        prepareText(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    /**
+     * This will return the text of a document, the pages are processed in parallel. See
+     * {@link #writeText(PDDocument, Writer, Callable, ExecutorService)} for details.
+     *
+     * @param doc The document to get the text from.
+     * @param documentLoader Loads a separate instance of the document for a worker thread.
+     * @param executor The executor running the page tasks.
+     * @return The text of the PDF document.
+     * @throws IOException if the doc state is invalid or it is encrypted.
+     */
+    public String getText(PDDocument doc, Callable<PDDocument> documentLoader,
+            ExecutorService executor) throws IOException
+    {
+        StringWriter outputStream = new StringWriter();
+        writeText(doc, outputStream, documentLoader, executor);
+        return outputStream.toString();
+    }
+
+    /**
+     * This will take a PDDocument and write the text of that document to the writer, the pages
+     * are processed in parallel using the given executor.
+     *
+     * <p>A PDDocument isn't thread safe, so the given document is only used to find the pages to
+     * be extracted, it isn't accessed by other threads. Instead each worker thread uses its own
+     * instance of the document, loaded by the given document loader, e.g. by
+     * {@link PDDocument#load(java.io.File)}, and its own stripper created with
+     * {@link #createWorkerStripper()}. The documents are closed before this method returns.</p>
+     *
+     * <p>The text of the pages is written in page order by the calling thread, which also calls
+     * {@link #startDocument(PDDocument)} and {@link #endDocument(PDDocument)}. Only twice the
+     * number of available processors are processed ahead of the writer. Unlike the sequential
+     * {@link #writeText(PDDocument, Writer)}, each page starts outside of a paragraph.</p>
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param documentLoader Loads a separate instance of the document for a worker thread.
+     * @param executor The executor running the page tasks.
+     *
+     * @throws IOException If the doc is in an invalid state or a page could not be processed.
+     */
+    public void writeText(PDDocument doc, Writer outputStream, Callable<PDDocument> documentLoader,
+            ExecutorService executor) throws IOException
+    {
+        prepareText(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages(), documentLoader, executor);
+        endDocument(document);
+    }
+
+    private void prepareText(PDDocument doc, Writer outputStream)
     {
         resetEngine();
         document = doc;
@@ -231,9 +299,6 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
-        startDocument(document);
-        processPages(document.getPages());
-        endDocument(document);
     }
 
     /**
@@ -244,6 +309,193 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages(PDPageTree pages) throws IOException
+    {
+        findBookmarkPageNumbers(pages);
+        for (PDPage page : pages)
+        {
+            currentPageNo++;
+            if (page.hasContents())
+            {
+                processPage(page);
+            }
+        }
+    }
+
+    private void processPages(PDPageTree pages, Callable<PDDocument> documentLoader,
+            ExecutorService executor) throws IOException
+    {
+        findBookmarkPageNumbers(pages);
+        List<Integer> pageNumbers = new ArrayList<>();
+        int pageNo = 0;
+        for (PDPage page : pages)
+        {
+            pageNo++;
+            if (page.hasContents() && isPageInRange(pageNo))
+            {
+                pageNumbers.add(pageNo);
+            }
+        }
+
+        Queue<PDFTextStripper> idleStrippers = new ConcurrentLinkedQueue<>();
+        List<PDDocument> workerDocuments = Collections.synchronizedList(new ArrayList<PDDocument>());
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        int next = 0;
+        try
+        {
+            for (Integer number : pageNumbers)
+            {
+                while (next < pageNumbers.size() && pending.size() < window)
+                {
+                    pending.add(executor.submit(createPageTask(pageNumbers.get(next++),
+                            documentLoader, idleStrippers, workerDocuments)));
+                }
+                currentPageNo = number;
+                output.write(getPageText(pending.poll()));
+            }
+            currentPageNo = pageNo;
+        }
+        finally
+        {
+            // the running tasks must be finished before their documents are closed
+            for (Future<String> future : pending)
+            {
+                try
+                {
+                    future.get();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                catch (ExecutionException e)
+                {
+                    // the extraction is aborted anyway
+                }
+            }
+            for (PDDocument workerDocument : workerDocuments)
+            {
+                IOUtils.closeQuietly(workerDocument);
+            }
+        }
+    }
+
+    private Callable<String> createPageTask(final int pageNo,
+            final Callable<PDDocument> documentLoader, final Queue<PDFTextStripper> idleStrippers,
+            final List<PDDocument> workerDocuments)
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call() throws Exception
+            {
+                PDFTextStripper stripper = idleStrippers.poll();
+                if (stripper == null)
+                {
+                    PDDocument workerDocument = documentLoader.call();
+                    if (workerDocument == null)
+                    {
+                        throw new IOException("The document loader didn't return a document");
+                    }
+                    workerDocuments.add(workerDocument);
+                    stripper = createWorkerStripper();
+                    copySettingsTo(stripper);
+                    stripper.document = workerDocument;
+                }
+                try
+                {
+                    return stripper.getPageText(pageNo);
+                }
+                finally
+                {
+                    idleStrippers.add(stripper);
+                }
+            }
+        };
+    }
+
+    private static String getPageText(Future<String> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting the text of a page");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the text of a page of the document of this stripper, used by a worker thread.
+     */
+    private String getPageText(int pageNo) throws IOException
+    {
+        StringWriter pageOutput = new StringWriter();
+        output = pageOutput;
+        currentPageNo = pageNo;
+        inParagraph = false;
+        try
+        {
+            processPage(document.getPage(pageNo - 1));
+        }
+        finally
+        {
+            output = null;
+        }
+        return pageOutput.toString();
+    }
+
+    /**
+     * Creates the stripper used by a worker thread of
+     * {@link #writeText(PDDocument, Writer, Callable, ExecutorService) writeText()}. The settings
+     * of this stripper are copied to it, the page range is checked by this stripper. Override
+     * this method if a subclass of PDFTextStripper is needed.
+     *
+     * @return the stripper
+     * @throws IOException If the stripper could not be created.
+     */
+    protected PDFTextStripper createWorkerStripper() throws IOException
+    {
+        return new PDFTextStripper();
+    }
+
+    private void copySettingsTo(PDFTextStripper stripper)
+    {
+        stripper.lineSeparator = lineSeparator;
+        stripper.wordSeparator = wordSeparator;
+        stripper.paragraphStart = paragraphStart;
+        stripper.paragraphEnd = paragraphEnd;
+        stripper.pageStart = pageStart;
+        stripper.pageEnd = pageEnd;
+        stripper.articleStart = articleStart;
+        stripper.articleEnd = articleEnd;
+        stripper.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        stripper.shouldSeparateByBeads = shouldSeparateByBeads;
+        stripper.sortByPosition = sortByPosition;
+        stripper.addMoreFormatting = addMoreFormatting;
+        stripper.indentThreshold = indentThreshold;
+        stripper.dropThreshold = dropThreshold;
+        stripper.spacingTolerance = spacingTolerance;
+        stripper.averageCharTolerance = averageCharTolerance;
+        stripper.listOfPatterns = listOfPatterns;
+    }
+
+    private void findBookmarkPageNumbers(PDPageTree pages) throws IOException
     {
         PDPage startBookmarkPage = startBookmark == null ? null
                 : startBookmark.findDestinationPage(document);
@@ -279,15 +531,13 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
+    }
 
-        for (PDPage page : pages)
-        {
-            currentPageNo++;
-            if (page.hasContents())
-            {
-                processPage(page);
-            }
-        }
+    private boolean isPageInRange(int pageNo)
+    {
+        return pageNo >= startPage && pageNo <= endPage
+                && (startBookmarkPageNumber == -1 || pageNo >= startBookmarkPageNumber)
+                && (endBookmarkPageNumber == -1 || pageNo <= endBookmarkPageNumber);
     }
 
     /**
@@ -323,9 +573,7 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
     @Override
     public void processPage(PDPage page) throws IOException
     {
-        if (currentPageNo >= startPage && currentPageNo <= endPage
-                && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
-                && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+        if (isPageInRange(currentPageNo))
         {
             startPage(page);
 
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.contentstream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.util.Charsets;
+import org.apache.pdfbox.util.Matrix;
+import org.junit.Test;
+
+/**
+ * Test for {@link DisplayListCache}.
+ */
+public class TestDisplayListCache
+{
+    /**
+     * Creates a document whose pages all draw the same form XObject.
+     */
+    private static PDDocument createDocument(int pageCount) throws IOException
+    {
+        PDDocument doc = new PDDocument();
+        PDFormXObject form = new PDFormXObject(new PDStream(doc));
+        form.setBBox(new PDRectangle(200, 100));
+        try (OutputStream os = form.getStream().createOutputStream(COSName.FLATE_DECODE))
+        {
+            os.write("0.2 0.4 0.8 rg 10 10 180 80 re f 3 w 0 0 m 200 100 l S"
+                    .getBytes(Charsets.US_ASCII));
+        }
+        for (int i = 0; i < pageCount; i++)
+        {
+            PDPage page = new PDPage(PDRectangle.A6);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+            {
+                cs.saveGraphicsState();
+                cs.transform(new Matrix(1, 0, 0, 1, 20 * i, 50));
+                cs.drawForm(form);
+                cs.restoreGraphicsState();
+            }
+        }
+        return doc;
+    }
+
+    private static int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    public void testRendering() throws IOException
+    {
+        try (PDDocument doc = createDocument(3))
+        {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            BufferedImage[] expected = new BufferedImage[3];
+            for (int i = 0; i < 3; i++)
+            {
+                expected[i] = renderer.renderImage(i);
+            }
+
+            DisplayListCache cache = new DisplayListCache();
+            renderer.setDisplayListCache(cache);
+            for (int i = 0; i < 3; i++)
+            {
+                assertArrayEquals(getPixels(expected[i]), getPixels(renderer.renderImage(i)));
+            }
+            // each page and the form are parsed once
+            assertEquals(4, cache.getMissCount());
+            assertEquals(2, cache.getHitCount());
+            assertEquals(4, cache.getSize());
+
+            // the pages are replayed when rendered again
+            assertArrayEquals(getPixels(expected[1]), getPixels(renderer.renderImage(1)));
+            assertEquals(4, cache.getMissCount());
+            assertEquals(4, cache.getHitCount());
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException
+    {
+        try (PDDocument doc = createDocument(2))
+        {
+            PDPage page0 = doc.getPage(0);
+            PDPage page1 = doc.getPage(1);
+            DisplayList displayList = DisplayList.parse(page0);
+            // q cm Do Q
+            assertEquals(4, displayList.size());
+            assertEquals("cm", displayList.getOperator(1).getName());
+            assertEquals(6, displayList.getOperands(1).size());
+            assertEquals(4 + 6 + 1, displayList.getWeight());
+
+            DisplayListCache cache = new DisplayListCache(displayList.getWeight());
+            DisplayList cached = cache.getDisplayList(page0);
+            assertSame(cached, cache.getDisplayList(page0));
+            assertEquals(1, cache.getHitCount());
+
+            // the least recently used display list is evicted
+            cache.getDisplayList(page1);
+            assertEquals(1, cache.getSize());
+            assertEquals(displayList.getWeight(), cache.getWeight());
+            cache.getDisplayList(page0);
+            assertEquals(3, cache.getMissCount());
+
+            cache.remove(page0);
+            assertEquals(0, cache.getSize());
+            assertEquals(0, cache.getWeight());
+        }
+    }
+
+    /**
+     * The operators parsed before an error are kept.
+     */
+    @Test
+    public void testParseError() throws IOException
+    {
+        DisplayList displayList = DisplayList.parse(new PDContentStream()
+        {
+            @Override
+            public InputStream getContents()
+            {
+                // the stream breaks after three operators
+                byte[] data = "q 1 0 0 1 5 5 cm 0 g ".getBytes(Charsets.US_ASCII);
+                return new SequenceInputStream(new ByteArrayInputStream(data),
+                        new InputStream()
+                        {
+                            @Override
+                            public int read() throws IOException
+                            {
+                                throw new IOException("broken stream");
+                            }
+                        });
+            }
+
+            @Override
+            public PDResources getResources()
+            {
+                return null;
+            }
+
+            @Override
+            public PDRectangle getBBox()
+            {
+                return null;
+            }
+
+            @Override
+            public Matrix getMatrix()
+            {
+                return null;
+            }
+        });
+        assertEquals(3, displayList.size());
+    }
+}
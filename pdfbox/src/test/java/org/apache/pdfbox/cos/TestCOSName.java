@@ -51,4 +51,31 @@ public class TestCOSName
             Assert.assertEquals(special, catalogDict.getString(special));
         }
     }
+
+    /**
+     * Document specific names must be the same objects while they are used, and must be released
+     * when they aren't used anymore.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testDocumentSpecificNames() throws InterruptedException
+    {
+        Assert.assertSame(COSName.TYPE, COSName.getPDFName("Type"));
+        COSName name = COSName.getPDFName("TestCOSName-used");
+        Assert.assertSame(name, COSName.getPDFName("TestCOSName-used"));
+
+        int count = COSName.getDocumentNameCount();
+        for (int i = 0; i < 100000; i++)
+        {
+            COSName.getPDFName("TestCOSName-" + i);
+        }
+        for (int i = 0; i < 100 && COSName.getDocumentNameCount() > count + 1000; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(COSName.getDocumentNameCount() <= count + 1000);
+        Assert.assertSame(name, COSName.getPDFName("TestCOSName-used"));
+    }
 }
@@ -85,4 +85,32 @@ public abstract class TestCOSNumber extends TestCOSBase
             fail("Failed to convert a number " + e.getMessage());
         }
     }
+
+    /**
+     * Tests get() with bytes - numbers parsed in place must equal the ones parsed from a String.
+     */
+    public void testGetFromBytes() throws IOException
+    {
+        String[] numbers = { "0", "7", "-1000", "+2000", "1.1", "-100.001", "0.5", "-0.25",
+            ".5", "-.5", "5.", "+1.5", "007.5", "-0.0", "-", ".", "123456789012345678",
+            "1234567890123456789012", "1.234567890123456789", "-2e-006", "-8e+05" };
+        for (String number : numbers)
+        {
+            byte[] bytes = (" " + number + " ").getBytes("ISO-8859-1");
+            COSNumber expected = COSNumber.get(number);
+            COSNumber actual = COSNumber.get(bytes, 1, number.length());
+            assertEquals(number, expected.getClass(), actual.getClass());
+            assertEquals(number, expected, actual);
+            assertEquals(number, expected.toString(), actual.toString());
+        }
+        try
+        {
+            COSNumber.get("+".getBytes("ISO-8859-1"), 0, 1);
+            fail("Failed to throw an IOException");
+        }
+        catch (IOException e)
+        {
+            // PASS
+        }
+    }
 }
@@ -18,7 +18,9 @@ package org.apache.pdfbox.cos;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 
@@ -150,6 +152,94 @@ public class TestCOSStream extends TestCase
         validateEncoded(stream, testStringEncoded);
     }
 
+    /**
+     * Tests that the data of a stream is decrypted while it is read, and that the decrypted data
+     * replaces the encrypted data when the decryption is applied.
+     *
+     * @throws IOException
+     */
+    public void testDecryptor() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream".getBytes("ASCII");
+        byte[] testStringEncoded = encodeData(testString, COSName.FLATE_DECODE);
+        byte[] encrypted = testStringEncoded.clone();
+        invert(encrypted, 0, encrypted.length);
+        COSStream stream = new COSStream();
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        try (OutputStream output = stream.createRawOutputStream())
+        {
+            output.write(encrypted);
+        }
+        stream.setDecryptor(new StreamDecryptor()
+        {
+            @Override
+            public InputStream decrypt(InputStream input)
+            {
+                return new FilterInputStream(input)
+                {
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException
+                    {
+                        int n = super.read(b, off, len);
+                        invert(b, off, n);
+                        return n;
+                    }
+                };
+            }
+        });
+        assertTrue(Arrays.equals(testStringEncoded, IOUtils.toByteArray(stream.createRawInputStream())));
+        assertTrue(Arrays.equals(testString, IOUtils.toByteArray(stream.createInputStream())));
+
+        stream.applyDecryption();
+        assertEquals(testStringEncoded.length, stream.getInt(COSName.LENGTH));
+        validateEncoded(stream, testStringEncoded);
+    }
+
+    /**
+     * Tests that the length of an encrypted stream is the one of the encrypted data until the
+     * decryption is applied, without decrypting the data.
+     *
+     * @throws IOException
+     */
+    public void testDecryptedLength() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream".getBytes("ASCII");
+        COSStream stream = new COSStream();
+        try (OutputStream output = stream.createRawOutputStream())
+        {
+            // the "decryption" drops the 16 bytes in front of the data, like an AES IV
+            output.write(new byte[16]);
+            output.write(testString);
+        }
+        final int[] decryptions = new int[1];
+        stream.setDecryptor(new StreamDecryptor()
+        {
+            @Override
+            public InputStream decrypt(InputStream input) throws IOException
+            {
+                decryptions[0]++;
+                assertEquals(16, input.skip(16));
+                return input;
+            }
+        });
+        assertEquals(16 + testString.length, stream.getLength());
+        assertEquals(0, decryptions[0]);
+
+        stream.applyDecryption();
+        assertEquals(1, decryptions[0]);
+        assertEquals(testString.length, stream.getLength());
+        assertTrue(Arrays.equals(testString, IOUtils.toByteArray(stream.createRawInputStream())));
+        assertEquals(1, decryptions[0]);
+    }
+
+    private static void invert(byte[] bytes, int offset, int length)
+    {
+        for (int i = offset; i < offset + length; i++)
+        {
+            bytes[i] = (byte) ~bytes[i];
+        }
+    }
+
     private byte[] encodeData(byte[] original, COSName filter) throws IOException
     {
         Filter encodingFilter = FilterFactory.INSTANCE.getFilter(filter);
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.encryption;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Benchmark of saving a document with AES-128 and AES-256 encryption, the document is given or a
+ * generated document with text pages is used. Only the time to save the document is measured.
+ *
+ * <p>Usage: EncryptionBenchmark [iterations] [pdf file]</p>
+ */
+public class EncryptionBenchmark
+{
+    private EncryptionBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        byte[] pdf = args.length > 1 ? Files.readAllBytes(new File(args[1]).toPath())
+                : generateDocument();
+        System.out.println(pdf.length + " bytes, " + iterations + " iterations");
+
+        for (int keyLength : new int[] { 128, 256 })
+        {
+            // warm up, then measure
+            save(pdf, keyLength, iterations);
+            long time = save(pdf, keyLength, iterations);
+            System.out.printf("AES-%d: %8.2f ms per document, %8.1f MB/s%n", keyLength,
+                    time / 1000000.0 / iterations, (double) pdf.length * iterations * 1000 / time);
+        }
+    }
+
+    private static byte[] generateDocument() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 200; i++)
+            {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                {
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 10);
+                    contents.newLineAtOffset(50, 750);
+                    for (int line = 0; line < 60; line++)
+                    {
+                        contents.showText("Statement " + i + ", line " + line
+                                + ": the quick brown fox jumps over the lazy dog");
+                        contents.newLineAtOffset(0, -12);
+                    }
+                    contents.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static long save(byte[] pdf, int keyLength, int iterations) throws IOException
+    {
+        OutputStream out = new NullOutputStream();
+        long time = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            try (PDDocument document = PDDocument.load(pdf))
+            {
+                StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "user",
+                        new AccessPermission());
+                policy.setEncryptionKeyLength(keyLength);
+                policy.setPreferAES(true);
+                document.protect(policy);
+                long start = System.nanoTime();
+                document.save(out);
+                time += System.nanoTime() - start;
+            }
+        }
+        IOUtils.closeQuietly(out);
+        return time;
+    }
+
+    private static final class NullOutputStream extends OutputStream
+    {
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-threaded benchmark of a single {@link ScratchFile} shared by several threads, each
+ * writing and reading its own buffers. The throughput should grow with the number of threads up
+ * to the number of cores.
+ *
+ * <p>Usage: ScratchFileBenchmark [heap|direct|mixed|file] [MB per thread]</p>
+ */
+public class ScratchFileBenchmark
+{
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private ScratchFileBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        String mode = args.length > 0 ? args[0] : "heap";
+        int megaBytesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Mode: " + mode + ", " + megaBytesPerThread + " MB per thread, "
+                + cores + " cores");
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            // warm up, then measure
+            run(mode, threads, megaBytesPerThread);
+            long time = run(mode, threads, megaBytesPerThread);
+            double megaBytes = 2.0 * threads * megaBytesPerThread;
+            System.out.printf("%3d threads: %6d ms, %8.1f MB/s%n", threads, time,
+                    megaBytes * 1000 / Math.max(1, time));
+        }
+    }
+
+    private static MemoryUsageSetting createSetting(String mode)
+    {
+        if ("direct".equals(mode))
+        {
+            return MemoryUsageSetting.setupMainMemoryOnly().setUseDirectMemory(true);
+        }
+        if ("mixed".equals(mode))
+        {
+            return MemoryUsageSetting.setupMixed(64 * 1024 * 1024);
+        }
+        if ("file".equals(mode))
+        {
+            return MemoryUsageSetting.setupTempFileOnly();
+        }
+        return MemoryUsageSetting.setupMainMemoryOnly();
+    }
+
+    private static long run(String mode, int threads, final int megaBytesPerThread)
+            throws Exception
+    {
+        final ScratchFile scratchFile = new ScratchFile(createSetting(mode));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            long start = System.nanoTime();
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                results.add(executor.submit(new Callable<Long>()
+                {
+                    @Override
+                    public Long call() throws IOException
+                    {
+                        return writeAndRead(scratchFile, megaBytesPerThread);
+                    }
+                }));
+            }
+            long checksum = 0;
+            for (Future<Long> result : results)
+            {
+                checksum += result.get();
+            }
+            long time = (System.nanoTime() - start) / 1000000;
+            if (checksum == 42)
+            {
+                // prevent dead code elimination
+                System.out.println();
+            }
+            return time;
+        }
+        finally
+        {
+            executor.shutdown();
+            scratchFile.close();
+        }
+    }
+
+    private static long writeAndRead(ScratchFile scratchFile, int megaBytes) throws IOException
+    {
+        byte[] data = new byte[BUFFER_SIZE];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        long checksum = 0;
+        // many small buffers, similar to the streams of a document
+        int buffers = megaBytes * 1024 * 1024 / BUFFER_SIZE;
+        for (int b = 0; b < buffers; b++)
+        {
+            RandomAccess buffer = scratchFile.createBuffer();
+            buffer.write(data);
+            buffer.seek(0);
+            while (buffer.read(data) > 0)
+            {
+                checksum += data[b % data.length];
+            }
+            buffer.close();
+        }
+        return checksum;
+    }
+}
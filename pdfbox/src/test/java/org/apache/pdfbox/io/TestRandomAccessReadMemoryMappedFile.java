@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * This is a unit test for {@link RandomAccessReadMemoryMappedFile}.
+ */
+public class TestRandomAccessReadMemoryMappedFile extends TestCase
+{
+    private File createFile(byte[] content) throws IOException
+    {
+        File file = File.createTempFile("pdfbox-mmap", ".bin");
+        file.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(file))
+        {
+            fos.write(content);
+        }
+        return file;
+    }
+
+    /**
+     * Test reading, seeking and peeking.
+     *
+     * @throws IOException
+     */
+    public void testReadAndSeek() throws IOException
+    {
+        byte[] content = new byte[10000];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        File file = createFile(content);
+        RandomAccessReadMemoryMappedFile read = new RandomAccessReadMemoryMappedFile(file);
+        assertEquals(content.length, read.length());
+        assertEquals(0, read.read());
+        assertEquals(1, read.peek());
+        assertEquals(1, read.getPosition());
+
+        read.seek(5000);
+        byte[] buffer = new byte[100];
+        assertEquals(100, read.read(buffer));
+        for (int i = 0; i < buffer.length; i++)
+        {
+            assertEquals(content[5000 + i], buffer[i]);
+        }
+        read.rewind(10);
+        assertEquals(content[5090] & 0xff, read.read());
+
+        read.seek(content.length - 10);
+        assertEquals(10, read.read(buffer, 0, buffer.length));
+        assertTrue(read.isEOF());
+        assertEquals(-1, read.read());
+        assertEquals(-1, read.read(buffer));
+
+        read.close();
+        assertTrue(read.isClosed());
+        try
+        {
+            read.read();
+            fail("IOException expected");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+        file.delete();
+    }
+
+    /**
+     * Test closing the file while views of it are read by other threads. The reads must either
+     * return the right data or fail with an IOException, but must never access unmapped memory.
+     *
+     * @throws Exception
+     */
+    public void testCloseWhileViewsAreRead() throws Exception
+    {
+        final byte[] content = new byte[1 << 20];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 251);
+        }
+        File file = createFile(content);
+        final RandomAccessReadMemoryMappedFile read = new RandomAccessReadMemoryMappedFile(file);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++)
+            {
+                results.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call() throws IOException
+                    {
+                        RandomAccessRead view = read.createView(0, content.length);
+                        byte[] buffer = new byte[1000];
+                        while (true)
+                        {
+                            view.seek(0);
+                            for (int i = 0; i < content.length; i += buffer.length)
+                            {
+                                int count = view.read(buffer);
+                                for (int j = 0; j < count; j++)
+                                {
+                                    if (buffer[j] != content[i + j])
+                                    {
+                                        return false;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(100);
+            read.close();
+            assertTrue(read.isClosed());
+            for (Future<Boolean> result : results)
+            {
+                try
+                {
+                    result.get();
+                    fail("IOException expected");
+                }
+                catch (ExecutionException ex)
+                {
+                    assertTrue(ex.getCause() instanceof IOException);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            file.delete();
+        }
+    }
+
+    /**
+     * Test loading a document with a memory mapped file.
+     *
+     * @throws IOException
+     */
+    public void testLoadDocument() throws IOException
+    {
+        File file = File.createTempFile("pdfbox-mmap", ".pdf");
+        file.deleteOnExit();
+        try (PDDocument doc = new PDDocument())
+        {
+            doc.addPage(new PDPage());
+            doc.addPage(new PDPage());
+            doc.save(file);
+        }
+        try (PDDocument doc = PDDocument.load(file,
+                MemoryUsageSetting.setupMainMemoryOnly().setUseMemoryMappedFile(true)))
+        {
+            assertEquals(2, doc.getNumberOfPages());
+        }
+        file.delete();
+    }
+}
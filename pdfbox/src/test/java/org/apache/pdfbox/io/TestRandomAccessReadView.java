@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * This is a unit test for {@link RandomAccessReadView} and the positional read methods of the
+ * {@link RandomAccessReadPositional} implementations.
+ */
+public class TestRandomAccessReadView extends TestCase
+{
+    private static final int LENGTH = 100000;
+
+    private static byte[] createContent()
+    {
+        byte[] content = new byte[LENGTH];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+
+    private static File createFile(byte[] content) throws IOException
+    {
+        File file = File.createTempFile("pdfbox-view", ".bin");
+        file.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(file))
+        {
+            fos.write(content);
+        }
+        return file;
+    }
+
+    /**
+     * Test the positional read of all implementations.
+     *
+     * @throws IOException
+     */
+    public void testPositionalRead() throws IOException
+    {
+        byte[] content = createContent();
+        File file = createFile(content);
+        ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(8192));
+        RandomAccessReadPositional[] sources = {
+            new RandomAccessBuffer(content),
+            new RandomAccessBuffer(new ByteArrayInputStream(content)),
+            new RandomAccessBufferedFileInputStream(file),
+            new RandomAccessReadMemoryMappedFile(file),
+            new RandomAccessFile(file, "r"),
+            (RandomAccessReadPositional) scratchFile.createBuffer(new ByteArrayInputStream(content))
+        };
+        for (RandomAccessReadPositional source : sources)
+        {
+            source.seek(10);
+            byte[] b = new byte[5000];
+            assertEquals(5000, source.read(LENGTH / 2, b, 0, 5000));
+            for (int i = 0; i < b.length; i++)
+            {
+                assertEquals(content[LENGTH / 2 + i], b[i]);
+            }
+            // the current position must not have been changed
+            assertEquals(10, source.getPosition());
+            assertEquals(content[10] & 0xff, source.read());
+
+            assertEquals(100, source.read(LENGTH - 100, b, 0, 5000));
+            assertEquals(-1, source.read(LENGTH, b, 0, 5000));
+            source.close();
+
+            try
+            {
+                source.read(0, b, 0, 10);
+                fail("IOException expected after close of " + source.getClass().getSimpleName());
+            }
+            catch (IOException e)
+            {
+                // expected
+            }
+            try
+            {
+                source.createView(0, 10);
+                fail("IOException expected after close of " + source.getClass().getSimpleName());
+            }
+            catch (IOException e)
+            {
+                // expected
+            }
+        }
+        scratchFile.close();
+        file.delete();
+    }
+
+    /**
+     * Test reading from a view.
+     *
+     * @throws IOException
+     */
+    public void testView() throws IOException
+    {
+        byte[] content = createContent();
+        RandomAccessReadPositional source = new RandomAccessBuffer(content);
+        RandomAccessRead view = source.createView(1000, 10000);
+        assertEquals(10000, view.length());
+        assertEquals(content[1000] & 0xff, view.read());
+        assertEquals(content[1001] & 0xff, view.peek());
+        view.seek(9990);
+        byte[] b = new byte[100];
+        assertEquals(10, view.read(b));
+        assertEquals(content[10990], b[0]);
+        assertTrue(view.isEOF());
+        assertEquals(-1, view.read());
+        view.rewind(5);
+        assertEquals(content[10995] & 0xff, view.read());
+
+        view.close();
+        assertTrue(view.isClosed());
+        assertFalse(source.isClosed());
+        source.close();
+    }
+
+    /**
+     * Test a view of a source without positional reads, which has to seek the source and restore
+     * its position.
+     *
+     * @throws IOException
+     */
+    public void testViewOfSequentialSource() throws IOException
+    {
+        byte[] content = createContent();
+        RandomAccessRead source = new SequentialSource(new RandomAccessBuffer(content));
+        source.seek(10);
+        RandomAccessRead view = new RandomAccessReadView(source, 1000, 10000);
+        byte[] b = new byte[100];
+        assertEquals(100, view.read(b));
+        assertEquals(content[1000], b[0]);
+        assertEquals(content[1099], b[99]);
+        view.seek(9990);
+        assertEquals(10, view.read(b));
+        assertEquals(content[10990], b[0]);
+        assertEquals(-1, view.read());
+        // the position of the source must not have been changed
+        assertEquals(10, source.getPosition());
+        view.close();
+        source.close();
+    }
+
+    /**
+     * Test several views of the same source being read concurrently.
+     *
+     * @throws Exception
+     */
+    public void testConcurrentViews() throws Exception
+    {
+        final byte[] content = createContent();
+        File file = createFile(content);
+        final RandomAccessReadPositional source = new RandomAccessBufferedFileInputStream(file);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                final int start = t * 1000;
+                results.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call() throws IOException
+                    {
+                        RandomAccessRead view = source.createView(start, LENGTH - start);
+                        for (int i = start; i < LENGTH; i++)
+                        {
+                            if (view.read() != (content[i] & 0xff))
+                            {
+                                return false;
+                            }
+                        }
+                        return view.read() == -1;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+            {
+                assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            source.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * A source which only supports sequential reads.
+     */
+    private static final class SequentialSource implements RandomAccessRead
+    {
+        private final RandomAccessRead source;
+
+        SequentialSource(RandomAccessRead source)
+        {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return source.read();
+        }
+
+        @Override
+        public int read(byte[] b) throws IOException
+        {
+            return source.read(b);
+        }
+
+        @Override
+        public int read(byte[] b, int offset, int length) throws IOException
+        {
+            return source.read(b, offset, length);
+        }
+
+        @Override
+        public long getPosition() throws IOException
+        {
+            return source.getPosition();
+        }
+
+        @Override
+        public void seek(long position) throws IOException
+        {
+            source.seek(position);
+        }
+
+        @Override
+        public long length() throws IOException
+        {
+            return source.length();
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return source.isClosed();
+        }
+
+        @Override
+        public int peek() throws IOException
+        {
+            return source.peek();
+        }
+
+        @Override
+        public void rewind(int bytes) throws IOException
+        {
+            source.rewind(bytes);
+        }
+
+        @Override
+        public byte[] readFully(int length) throws IOException
+        {
+            return source.readFully(length);
+        }
+
+        @Override
+        public boolean isEOF() throws IOException
+        {
+            return source.isEOF();
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return source.available();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            source.close();
+        }
+    }
+}
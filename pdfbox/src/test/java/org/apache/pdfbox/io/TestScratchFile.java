@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * This is a unit test for {@link ScratchFile}.
+ */
+public class TestScratchFile extends TestCase
+{
+    private static byte[] createContent(int length, int seed)
+    {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            content[i] = (byte) (i * 31 + seed);
+        }
+        return content;
+    }
+
+    private void checkScratchFile(MemoryUsageSetting setting) throws IOException
+    {
+        ScratchFile scratchFile = new ScratchFile(setting);
+        RandomAccess[] buffers = new RandomAccess[5];
+        byte[][] contents = new byte[buffers.length][];
+        for (int i = 0; i < buffers.length; i++)
+        {
+            contents[i] = createContent(10000 + i * 3000, i);
+            buffers[i] = scratchFile.createBuffer();
+            // write in odd chunks to cross page boundaries
+            for (int off = 0; off < contents[i].length; off += 777)
+            {
+                buffers[i].write(contents[i], off, Math.min(777, contents[i].length - off));
+            }
+        }
+        // release a buffer so that its pages are re-used
+        buffers[1].close();
+        buffers[1] = scratchFile.createBuffer();
+        buffers[1].write(contents[1]);
+
+        for (int i = 0; i < buffers.length; i++)
+        {
+            buffers[i].seek(0);
+            assertTrue(Arrays.equals(contents[i], buffers[i].readFully(contents[i].length)));
+            buffers[i].seek(4321);
+            assertEquals(contents[i][4321] & 0xff, buffers[i].read());
+        }
+        scratchFile.close();
+    }
+
+    /**
+     * Test the default heap based setting.
+     *
+     * @throws IOException
+     */
+    public void testHeapMemory() throws IOException
+    {
+        checkScratchFile(MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    /**
+     * Test storing pages in direct memory with a custom page size.
+     *
+     * @throws IOException
+     */
+    public void testDirectMemory() throws IOException
+    {
+        checkScratchFile(MemoryUsageSetting.setupMainMemoryOnly()
+                .setUseDirectMemory(true).setPageSize(1024));
+    }
+
+    /**
+     * Test re-using the pooled direct memory blocks of closed scratch files, also with a page
+     * size which doesn't fill the blocks completely.
+     *
+     * @throws IOException
+     */
+    public void testDirectMemoryReuse() throws IOException
+    {
+        checkScratchFile(MemoryUsageSetting.setupMainMemoryOnly()
+                .setUseDirectMemory(true).setPageSize(1024));
+        checkScratchFile(MemoryUsageSetting.setupMainMemoryOnly()
+                .setUseDirectMemory(true).setPageSize(3000));
+
+        ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupMainMemoryOnly()
+                .setUseDirectMemory(true));
+        RandomAccess buffer = scratchFile.createBuffer();
+        buffer.write(createContent(10000, 7));
+        scratchFile.close();
+        try
+        {
+            buffer.write(createContent(10000, 7));
+            fail("IOException expected");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Test that the pages of a re-used direct memory block which weren't written by the new
+     * scratch file can't be read, and that closing makes the pages unreadable.
+     *
+     * @throws IOException
+     */
+    public void testDirectMemoryUnwrittenPage() throws IOException
+    {
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMainMemoryOnly()
+                .setUseDirectMemory(true);
+        ScratchFile first = new ScratchFile(setting);
+        int pageIdx = first.getNewPage();
+        byte[] page = new byte[first.getPageSize()];
+        Arrays.fill(page, (byte) 42);
+        first.writePage(pageIdx, page);
+        assertTrue(Arrays.equals(page, first.readPage(pageIdx)));
+        first.close();
+        try
+        {
+            first.readPage(pageIdx);
+            fail("IOException expected");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+
+        // the block of the first scratch file may be re-used
+        ScratchFile second = new ScratchFile(setting);
+        pageIdx = second.getNewPage();
+        second.writePage(second.getNewPage(), new byte[second.getPageSize()]);
+        try
+        {
+            second.readPage(pageIdx);
+            fail("IOException expected");
+        }
+        catch (IOException ex)
+        {
+            assertTrue(ex.getMessage().contains("not written before"));
+        }
+        second.writePage(pageIdx, page);
+        assertTrue(Arrays.equals(page, second.readPage(pageIdx)));
+        second.markPagesAsFree(new int[] { pageIdx }, 0, 1);
+        try
+        {
+            second.readPage(pageIdx);
+            fail("IOException expected");
+        }
+        catch (IOException ex)
+        {
+            // expected
+        }
+        second.close();
+    }
+
+    /**
+     * Test storing pages in direct memory and a temporary file.
+     *
+     * @throws IOException
+     */
+    public void testDirectMemoryMixed() throws IOException
+    {
+        checkScratchFile(MemoryUsageSetting.setupMixed(20000)
+                .setUseDirectMemory(true).setPageSize(512));
+    }
+
+    /**
+     * Test storing pages in a temporary file only with a custom page size.
+     *
+     * @throws IOException
+     */
+    public void testTempFileOnly() throws IOException
+    {
+        checkScratchFile(MemoryUsageSetting.setupTempFileOnly().setPageSize(8192));
+    }
+
+    /**
+     * Test several threads using buffers of the same scratch file at the same time.
+     *
+     * @throws Exception
+     */
+    public void testConcurrentBuffers() throws Exception
+    {
+        final ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(64 * 1024));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                final int seed = t;
+                results.add(executor.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call() throws IOException
+                    {
+                        for (int i = 0; i < 20; i++)
+                        {
+                            byte[] content = createContent(5000 + seed * 1000 + i * 100, seed + i);
+                            RandomAccess buffer = scratchFile.createBuffer();
+                            buffer.write(content);
+                            buffer.seek(0);
+                            boolean equal = Arrays.equals(content, buffer.readFully(content.length));
+                            buffer.close();
+                            if (!equal)
+                            {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+            {
+                assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            scratchFile.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.pdfparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.util.Charsets;
+
+/**
+ * Benchmark of the tokenizer of {@link PDFStreamParser} over the content streams of a document,
+ * or over a generated content stream with text and path operators if no file is given.
+ *
+ * <p>Usage: PDFStreamParserBenchmark [iterations] [pdf file]</p>
+ */
+public class PDFStreamParserBenchmark
+{
+    private PDFStreamParserBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        List<byte[]> contents = args.length > 1 ? loadContents(new File(args[1]))
+                : generateContents();
+        long bytes = 0;
+        for (byte[] content : contents)
+        {
+            bytes += content.length;
+        }
+        System.out.println(contents.size() + " content streams, " + bytes + " bytes, "
+                + iterations + " iterations");
+
+        // warm up, then measure
+        long tokens = parse(contents, iterations);
+        long start = System.nanoTime();
+        tokens = parse(contents, iterations);
+        long time = System.nanoTime() - start;
+        System.out.printf("byte array: %6.1f ns per token, %8.1f MB/s%n", (double) time / tokens,
+                bytes * iterations * 1000.0 / time);
+
+        parseStreams(contents, iterations);
+        start = System.nanoTime();
+        parseStreams(contents, iterations);
+        time = System.nanoTime() - start;
+        System.out.printf("stream:     %6.1f ns per token, %8.1f MB/s%n", (double) time / tokens,
+                bytes * iterations * 1000.0 / time);
+    }
+
+    private static List<byte[]> loadContents(File file) throws IOException
+    {
+        List<byte[]> contents = new ArrayList<>();
+        try (PDDocument document = PDDocument.load(file))
+        {
+            for (PDPage page : document.getPages())
+            {
+                try (InputStream is = page.getContents())
+                {
+                    contents.add(IOUtils.toByteArray(is));
+                }
+            }
+        }
+        return contents;
+    }
+
+    private static List<byte[]> generateContents()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+        {
+            sb.append("q 0.5 0 0 0.5 ").append(i % 600).append(' ').append(i % 800)
+                    .append(" cm /GS1 gs 0.2 0.4 0.6 rg\n");
+            sb.append("BT /F1 12 Tf ").append(i % 500).append(".25 700 Td [(Hello) -250 (World)] TJ ET\n");
+            sb.append("10 10 m 20.5 10 l 20.5 30.75 l h f Q\n");
+        }
+        List<byte[]> contents = new ArrayList<>();
+        contents.add(sb.toString().getBytes(Charsets.US_ASCII));
+        return contents;
+    }
+
+    private static long parse(List<byte[]> contents, int iterations) throws IOException
+    {
+        long tokens = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            for (byte[] content : contents)
+            {
+                PDFStreamParser parser = new PDFStreamParser(content);
+                while (parser.parseNextToken() != null)
+                {
+                    tokens++;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static long parseStreams(List<byte[]> contents, int iterations) throws IOException
+    {
+        long tokens = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            for (byte[] content : contents)
+            {
+                try (InputStream is = new ByteArrayInputStream(content))
+                {
+                    PDFStreamParser parser = new PDFStreamParser(is);
+                    while (parser.parseNextToken() != null)
+                    {
+                        tokens++;
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+}
@@ -20,6 +20,12 @@ import java.util.List;
 import junit.framework.TestCase;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
 
 import static org.junit.Assert.assertArrayEquals;
 
@@ -87,6 +93,36 @@ public class PDFStreamParserTest extends TestCase
         testInlineImage2ops("ID\n12EI5EI          Q   ", "12EI5", "Q");
     }
 
+    /**
+     * Tests the tokens of a content stream, which are resolved from their bytes.
+     *
+     * @throws IOException
+     */
+    public void testTokens() throws IOException
+    {
+        List<Object> tokens = parseTokenString(
+                "/F1 12 Tf 0.5 -.25 Td /F1 12 Tf /A#42 /#C3#A4 true false null d0 BT ET R");
+
+        assertEquals(18, tokens.size());
+        assertSame(COSName.getPDFName("F1"), tokens.get(0));
+        assertEquals(COSInteger.get(12), tokens.get(1));
+        assertSame(Operator.getOperator("Tf"), tokens.get(2));
+        assertEquals(new COSFloat(0.5f), tokens.get(3));
+        assertEquals(new COSFloat(-0.25f), tokens.get(4));
+        assertSame(Operator.getOperator("Td"), tokens.get(5));
+        assertSame(tokens.get(0), tokens.get(6));
+        assertSame(tokens.get(2), tokens.get(8));
+        assertSame(COSName.getPDFName("AB"), tokens.get(9));
+        assertSame(COSName.getPDFName("\u00e4"), tokens.get(10));
+        assertSame(COSBoolean.TRUE, tokens.get(11));
+        assertSame(COSBoolean.FALSE, tokens.get(12));
+        assertSame(COSNull.NULL, tokens.get(13));
+        assertEquals("d0", ((Operator) tokens.get(14)).getName());
+        assertEquals(OperatorName.BEGIN_TEXT, ((Operator) tokens.get(15)).getName());
+        assertEquals(OperatorName.END_TEXT, ((Operator) tokens.get(16)).getName());
+        assertTrue(tokens.get(17) instanceof COSObject);
+    }
+
     // checks whether there are two operators, one inline image and the named operator
     private void testInlineImage2ops(String s, String imageDataString, String opName) throws IOException
     {
@@ -19,10 +19,33 @@ package org.apache.pdfbox.pdfwriter;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.util.Charsets;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class COSWriterTest
 {
     /**
@@ -64,4 +87,213 @@ public class COSWriterTest
             }));
         }
     }
+
+    /**
+     * Check that a document saved with object streams and a cross-reference stream can be read
+     * again and is smaller than the uncompressed one.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressedSave() throws IOException
+    {
+        byte[] uncompressed;
+        byte[] compressed;
+        try (PDDocument doc = new PDDocument())
+        {
+            PDDocumentOutline outline = new PDDocumentOutline();
+            doc.getDocumentCatalog().setDocumentOutline(outline);
+            for (int i = 0; i < 50; i++)
+            {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+                {
+                    cs.beginText();
+                    cs.setFont(PDType1Font.HELVETICA, 12);
+                    cs.newLineAtOffset(100, 700);
+                    cs.showText("Page " + (i + 1));
+                    cs.endText();
+                }
+                PDOutlineItem item = new PDOutlineItem();
+                item.setTitle("Chapter " + (i + 1));
+                item.setDestination(page);
+                outline.addLast(item);
+            }
+            doc.getDocumentInformation().setTitle("Compression test");
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            doc.save(baos);
+            uncompressed = baos.toByteArray();
+            baos = new ByteArrayOutputStream();
+            doc.save(baos, new CompressParameters(20));
+            compressed = baos.toByteArray();
+        }
+        assertTrue(compressed.length < uncompressed.length);
+        assertTrue(new String(compressed, 0, 8, Charsets.ISO_8859_1).startsWith("%PDF-1.5"));
+
+        try (PDDocument doc = PDDocument.load(compressed))
+        {
+            assertEquals(50, doc.getNumberOfPages());
+            assertEquals("Compression test", doc.getDocumentInformation().getTitle());
+            assertEquals("Chapter 50",
+                    doc.getDocumentCatalog().getDocumentOutline().getLastChild().getTitle());
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(42);
+            stripper.setEndPage(42);
+            assertEquals("Page 42", stripper.getText(doc).trim());
+            assertTrue(doc.getDocument().isXRefStream());
+            int objectStreams = 0;
+            for (COSObject object : doc.getDocument().getObjects())
+            {
+                COSBase base = object.getObject();
+                if (base instanceof COSStream
+                        && COSName.OBJ_STM.equals(((COSStream) base).getCOSName(COSName.TYPE)))
+                {
+                    objectStreams++;
+                }
+            }
+            assertTrue(objectStreams > 1);
+        }
+    }
+
+    private static byte[] saveUncompressedContent(CompressParameters compressParameters)
+            throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            doc.setDocumentId(4711L);
+            for (int i = 0; i < 30; i++)
+            {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page,
+                        AppendMode.OVERWRITE, false))
+                {
+                    cs.beginText();
+                    cs.setFont(PDType1Font.HELVETICA, 10);
+                    cs.setLeading(12);
+                    cs.newLineAtOffset(50, 750);
+                    for (int line = 0; line < 50; line++)
+                    {
+                        cs.showText("Page " + (i + 1) + " line " + line);
+                        cs.newLine();
+                    }
+                    cs.endText();
+                }
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            doc.save(baos, compressParameters);
+            return baos.toByteArray();
+        }
+    }
+
+    /**
+     * Check that saving with stream compression doesn't change the streams of the document.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamCompressionKeepsSource() throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page,
+                    AppendMode.OVERWRITE, false))
+            {
+                cs.addRect(10, 10, 100, 100);
+                cs.fill();
+            }
+            COSStream contents = (COSStream) page.getCOSObject()
+                    .getDictionaryObject(COSName.CONTENTS);
+            long length = contents.getLength();
+
+            doc.save(new ByteArrayOutputStream(), new CompressParameters(0, 1));
+
+            assertNull(contents.getFilters());
+            assertEquals(length, contents.getLength());
+            try (InputStream is = contents.createRawInputStream())
+            {
+                String text = new String(IOUtils.toByteArray(is), Charsets.US_ASCII);
+                assertTrue(text.contains("re"));
+            }
+        }
+    }
+
+    /**
+     * Check that the length of an encrypted stream is the one of the written data, even if the
+     * /Length of the stream is wrong.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testEncryptedStreamLength() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page,
+                    AppendMode.OVERWRITE, false))
+            {
+                cs.addRect(10, 10, 100, 100);
+                cs.fill();
+            }
+            COSStream contents = (COSStream) page.getCOSObject()
+                    .getDictionaryObject(COSName.CONTENTS);
+            // like a repaired stream whose /Length doesn't match the data
+            contents.setInt(COSName.LENGTH, 3);
+            StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "",
+                    new AccessPermission());
+            policy.setEncryptionKeyLength(128);
+            policy.setPreferAES(true);
+            doc.protect(policy);
+            doc.save(baos, CompressParameters.NO_COMPRESSION);
+        }
+        // the page content is the only stream of the document
+        String pdf = new String(baos.toByteArray(), Charsets.ISO_8859_1);
+        Matcher matcher = Pattern.compile("/Length (\\d+)").matcher(pdf);
+        assertTrue(matcher.find());
+        int start = pdf.indexOf("stream\r\n") + "stream\r\n".length();
+        int end = pdf.indexOf("\r\nendstream");
+        assertEquals(end - start, Integer.parseInt(matcher.group(1)));
+
+        try (PDDocument doc = PDDocument.load(baos.toByteArray());
+             InputStream is = doc.getPage(0).getContents())
+        {
+            String text = new String(IOUtils.toByteArray(is), Charsets.US_ASCII);
+            assertTrue(text.contains("re"));
+        }
+    }
+
+    /**
+     * Check that unfiltered streams are compressed and that the output doesn't depend on the
+     * number of compression threads.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreamCompression() throws IOException
+    {
+        byte[] uncompressed = saveUncompressedContent(CompressParameters.NO_COMPRESSION);
+        byte[] singleThreaded = saveUncompressedContent(new CompressParameters(0, 1));
+        byte[] multiThreaded = saveUncompressedContent(new CompressParameters(0, 4));
+        assertTrue(singleThreaded.length < uncompressed.length / 2);
+        assertArrayEquals(singleThreaded, multiThreaded);
+
+        try (PDDocument doc = PDDocument.load(multiThreaded))
+        {
+            assertEquals(30, doc.getNumberOfPages());
+            COSStream contents = (COSStream) doc.getPage(29).getCOSObject()
+                    .getDictionaryObject(COSName.CONTENTS);
+            assertEquals(COSName.FLATE_DECODE, contents.getFilters());
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(30);
+            stripper.setEndPage(30);
+            assertTrue(stripper.getText(doc).contains("Page 30 line 49"));
+        }
+    }
 }
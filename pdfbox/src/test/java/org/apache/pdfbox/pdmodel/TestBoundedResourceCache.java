@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.BoundedResourceCache.ResourceType;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.junit.Test;
+
+/**
+ * Test for {@link BoundedResourceCache}.
+ */
+public class TestBoundedResourceCache
+{
+    // the weight of an ExtGState as estimated by the cache
+    private static final long WEIGHT = 256;
+
+    private static List<COSObject> createKeys(int count)
+    {
+        List<COSObject> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            keys.add(new COSObject(new COSDictionary()));
+        }
+        return keys;
+    }
+
+    @Test
+    public void testEviction()
+    {
+        BoundedResourceCache cache = new BoundedResourceCache()
+                .setMaximumWeight(ResourceType.EXT_G_STATE, 3 * WEIGHT);
+        List<COSObject> keys = createKeys(4);
+        List<PDExtendedGraphicsState> states = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            states.add(new PDExtendedGraphicsState());
+            cache.put(keys.get(i), states.get(i));
+        }
+        assertEquals(3, cache.getSize(ResourceType.EXT_G_STATE));
+        assertEquals(3 * WEIGHT, cache.getWeight(ResourceType.EXT_G_STATE));
+
+        // the first state becomes the most recently used one
+        assertSame(states.get(0), cache.getExtGState(keys.get(0)));
+        cache.put(keys.get(3), new PDExtendedGraphicsState());
+
+        assertEquals(3, cache.getSize(ResourceType.EXT_G_STATE));
+        assertEquals(1, cache.getEvictionCount(ResourceType.EXT_G_STATE));
+        assertSame(states.get(0), cache.getExtGState(keys.get(0)));
+        assertNull(cache.getExtGState(keys.get(1)));
+        assertSame(states.get(2), cache.getExtGState(keys.get(2)));
+        assertEquals(3, cache.getHitCount(ResourceType.EXT_G_STATE));
+        assertEquals(1, cache.getMissCount(ResourceType.EXT_G_STATE));
+
+        // replacing a resource doesn't change the weight
+        cache.put(keys.get(2), new PDExtendedGraphicsState());
+        assertEquals(3 * WEIGHT, cache.getWeight(ResourceType.EXT_G_STATE));
+
+        // lowering the limit evicts immediately
+        cache.setMaximumWeight(ResourceType.EXT_G_STATE, WEIGHT);
+        assertEquals(1, cache.getSize(ResourceType.EXT_G_STATE));
+        assertEquals(3, cache.getEvictionCount(ResourceType.EXT_G_STATE));
+
+        // other resource types are not affected
+        assertEquals(0, cache.getSize(ResourceType.FONT));
+        assertEquals(0, cache.getMissCount(ResourceType.FONT));
+
+        cache.clear();
+        assertEquals(0, cache.getSize(ResourceType.EXT_G_STATE));
+        assertEquals(0, cache.getWeight(ResourceType.EXT_G_STATE));
+    }
+
+    @Test
+    public void testTooHeavy()
+    {
+        BoundedResourceCache cache = new BoundedResourceCache()
+                .setMaximumWeight(ResourceType.EXT_G_STATE, WEIGHT - 1);
+        COSObject key = createKeys(1).get(0);
+        cache.put(key, new PDExtendedGraphicsState());
+        assertNull(cache.getExtGState(key));
+        assertEquals(0, cache.getWeight(ResourceType.EXT_G_STATE));
+        assertEquals(0, cache.getEvictionCount(ResourceType.EXT_G_STATE));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException
+    {
+        final BoundedResourceCache cache = new BoundedResourceCache()
+                .setMaximumWeight(ResourceType.EXT_G_STATE, 50 * WEIGHT);
+        final List<COSObject> keys = createKeys(200);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++)
+        {
+            final int offset = t;
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for (int i = 0; i < 10000; i++)
+                        {
+                            COSObject key = keys.get((i * 7 + offset) % keys.size());
+                            if (cache.getExtGState(key) == null)
+                            {
+                                cache.put(key, new PDExtendedGraphicsState());
+                            }
+                        }
+                    }
+                    catch (Throwable th)
+                    {
+                        failure.set(th);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals(40000, cache.getHitCount(ResourceType.EXT_G_STATE)
+                + cache.getMissCount(ResourceType.EXT_G_STATE));
+        assertTrue(cache.getWeight(ResourceType.EXT_G_STATE) <= 50 * WEIGHT);
+        assertEquals(cache.getSize(ResourceType.EXT_G_STATE) * WEIGHT,
+                cache.getWeight(ResourceType.EXT_G_STATE));
+    }
+}
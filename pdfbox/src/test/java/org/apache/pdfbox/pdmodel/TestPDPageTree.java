@@ -17,8 +17,18 @@
 package org.apache.pdfbox.pdmodel;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
@@ -83,4 +93,147 @@ public class TestPDPageTree
         doc = PDDocument.load(TestPDPageTree.class.getResourceAsStream("with_outline.pdf"));
         assertEquals(-1, doc.getPages().indexOf(new PDPage()));
     }
+
+    /**
+     * Returns the depth of the tree and checks the counts and the number of kids of all nodes.
+     */
+    private static int checkNode(COSDictionary node)
+    {
+        COSArray kids = node.getCOSArray(COSName.KIDS);
+        assertTrue(kids.size() <= PDPageTree.MAX_KIDS);
+        int count = 0;
+        int depth = 0;
+        for (int i = 0; i < kids.size(); i++)
+        {
+            COSDictionary kid = (COSDictionary) kids.getObject(i);
+            assertSame(node, kid.getDictionaryObject(COSName.PARENT));
+            if (COSName.PAGES.equals(kid.getCOSName(COSName.TYPE)))
+            {
+                depth = Math.max(depth, checkNode(kid));
+                count += kid.getInt(COSName.COUNT);
+            }
+            else
+            {
+                count++;
+            }
+        }
+        assertEquals(count, node.getInt(COSName.COUNT));
+        return depth + 1;
+    }
+
+    @Test
+    public void balancedAdd() throws IOException
+    {
+        doc = new PDDocument();
+        List<PDPage> pages = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+        {
+            PDPage page = new PDPage();
+            pages.add(page);
+            doc.addPage(page);
+        }
+        // insert in the middle of a full node
+        PDPage inserted = new PDPage();
+        doc.getPages().insertAfter(inserted, pages.get(4999));
+        pages.add(5000, inserted);
+
+        PDPageTree tree = doc.getPages();
+        assertEquals(10001, tree.getCount());
+        assertTrue(checkNode(tree.getCOSObject()) <= 4);
+        for (int i = 0; i < pages.size(); i++)
+        {
+            assertSame(pages.get(i).getCOSObject(), tree.get(i).getCOSObject());
+            assertEquals(i, tree.indexOf(pages.get(i)));
+        }
+        int i = 0;
+        for (PDPage page : tree)
+        {
+            assertSame(pages.get(i++).getCOSObject(), page.getCOSObject());
+        }
+    }
+
+    @Test
+    public void balanceFlatTree() throws IOException
+    {
+        doc = new PDDocument();
+        COSDictionary root = doc.getPages().getCOSObject();
+        root.setInt(COSName.ROTATE, 90);
+        // a node with its own inheritable attribute
+        COSDictionary node = new COSDictionary();
+        node.setItem(COSName.TYPE, COSName.PAGES);
+        node.setItem(COSName.KIDS, new COSArray());
+        node.setInt(COSName.COUNT, 0);
+        node.setInt(COSName.ROTATE, 180);
+        node.setItem(COSName.PARENT, root);
+
+        // build a flat tree without using add()
+        COSArray kids = root.getCOSArray(COSName.KIDS);
+        COSArray nodeKids = node.getCOSArray(COSName.KIDS);
+        List<COSDictionary> pages = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            COSDictionary page = new PDPage().getCOSObject();
+            pages.add(page);
+            if (i >= 500 && i < 600)
+            {
+                page.setItem(COSName.PARENT, node);
+                nodeKids.add(page);
+            }
+            else
+            {
+                page.setItem(COSName.PARENT, root);
+                kids.add(page);
+            }
+            if (i == 500)
+            {
+                kids.add(node);
+            }
+        }
+        node.setInt(COSName.COUNT, 100);
+        root.setInt(COSName.COUNT, 1000);
+
+        doc.getPages().balance();
+        PDPageTree tree = doc.getPages();
+        assertTrue(checkNode(root) <= 4);
+        for (int i = 0; i < pages.size(); i++)
+        {
+            PDPage page = tree.get(i);
+            assertSame(pages.get(i), page.getCOSObject());
+            assertEquals(i >= 500 && i < 600 ? 180 : 90, page.getRotation());
+        }
+
+        // the balanced tree survives saving and loading
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        doc.save(baos);
+        doc.close();
+        doc = PDDocument.load(baos.toByteArray());
+        assertEquals(1000, doc.getNumberOfPages());
+        assertEquals(180, doc.getPage(599).getRotation());
+        assertEquals(90, doc.getPage(600).getRotation());
+        COSBase first = doc.getPages().getCOSObject().getCOSArray(COSName.KIDS).getObject(0);
+        assertEquals(COSName.PAGES, ((COSDictionary) first).getCOSName(COSName.TYPE));
+    }
+
+    @Test
+    public void saveKeepsFlatTree() throws IOException
+    {
+        doc = new PDDocument();
+        COSDictionary root = doc.getPages().getCOSObject();
+        COSArray kids = root.getCOSArray(COSName.KIDS);
+        for (int i = 0; i < 100; i++)
+        {
+            COSDictionary page = new PDPage().getCOSObject();
+            page.setItem(COSName.PARENT, root);
+            kids.add(page);
+        }
+        root.setInt(COSName.COUNT, 100);
+
+        // balancing is only done on request
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        doc.save(baos);
+        assertEquals(100, kids.size());
+        doc.close();
+        doc = PDDocument.load(baos.toByteArray());
+        assertEquals(100, doc.getPages().getCOSObject().getCOSArray(COSName.KIDS).size());
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+/**
+ * Test for {@link StreamingDocumentWriter}.
+ */
+public class TestStreamingDocumentWriter
+{
+    private static final int PAGES = 4200;
+
+    @Test
+    public void testWritePages() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PDPage page100 = null;
+        try (PDDocument doc = new PDDocument();
+             StreamingDocumentWriter writer = new StreamingDocumentWriter(doc, baos))
+        {
+            PDFont font = PDType0Font.load(doc, PDDocument.class.getResourceAsStream(
+                    "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf"));
+            for (int i = 1; i <= PAGES; i++)
+            {
+                PDPage page = new PDPage();
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+                {
+                    cs.beginText();
+                    cs.setFont(font, 12);
+                    cs.newLineAtOffset(100, 700);
+                    cs.showText("Page " + i);
+                    cs.endText();
+                }
+                writer.writePage(page);
+                if (i == 100)
+                {
+                    page100 = page;
+                }
+            }
+            assertEquals(PAGES, writer.getNumberOfPages());
+
+            PDDocumentOutline outline = new PDDocumentOutline();
+            doc.getDocumentCatalog().setDocumentOutline(outline);
+            PDOutlineItem item = new PDOutlineItem();
+            item.setTitle("Page 100");
+            item.setDestination(page100);
+            outline.addLast(item);
+            doc.getDocumentInformation().setTitle("Streamed");
+        }
+
+        try (PDDocument doc = PDDocument.load(baos.toByteArray()))
+        {
+            assertEquals(PAGES, doc.getNumberOfPages());
+            assertEquals("Streamed", doc.getDocumentInformation().getTitle());
+
+            // the page tree has been built with several levels
+            COSDictionary root = doc.getPages().getCOSObject();
+            COSDictionary kid = (COSDictionary) root.getCOSArray(COSName.KIDS).getObject(0);
+            assertEquals(COSName.PAGES, kid.getCOSName(COSName.TYPE));
+            assertEquals(PAGES, root.getInt(COSName.COUNT));
+
+            PDOutlineItem item = doc.getDocumentCatalog().getDocumentOutline().getFirstChild();
+            PDPage page = item.findDestinationPage(doc);
+            assertNotNull(page);
+            assertEquals(99, doc.getPages().indexOf(page));
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int i : new int[] { 1, 64, 65, 4096, 4097, PAGES })
+            {
+                stripper.setStartPage(i);
+                stripper.setEndPage(i);
+                assertEquals("Page " + i, stripper.getText(doc).trim());
+            }
+            // the font has been subset after the last page
+            assertTrue(doc.getPage(0).getResources().getFont(COSName.getPDFName("F1"))
+                    .getName().contains("+"));
+        }
+    }
+
+    /**
+     * The writer doesn't keep written pages in memory, releases the data of the written streams
+     * and doesn't write shared resources twice.
+     */
+    @Test
+    public void testReleaseWrittenObjects() throws Exception
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WeakReference<COSDictionary> firstPage;
+        try (PDDocument doc = new PDDocument();
+             StreamingDocumentWriter writer = new StreamingDocumentWriter(doc, baos))
+        {
+            PDImageXObject image = LosslessFactory.createFromImage(doc,
+                    new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB));
+            PDPage page = createImagePage(doc, image);
+            firstPage = new WeakReference<>(page.getCOSObject());
+            writer.writePage(page);
+            page = null;
+            try
+            {
+                image.getCOSObject().createRawInputStream();
+                fail("the data of the image should have been released");
+            }
+            catch (IOException e)
+            {
+                // expected
+            }
+            for (int i = 0; i < 100; i++)
+            {
+                writer.writePage(createImagePage(doc, image));
+            }
+            for (int i = 0; i < 20 && firstPage.get() != null; i++)
+            {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(firstPage.get());
+        }
+
+        try (PDDocument doc = PDDocument.load(baos.toByteArray()))
+        {
+            assertEquals(101, doc.getNumberOfPages());
+            COSStream first = doc.getPage(0).getResources().getXObject(COSName.getPDFName("Im1"))
+                    .getCOSObject();
+            COSStream last = doc.getPage(100).getResources()
+                    .getXObject(COSName.getPDFName("Im1")).getCOSObject();
+            assertSame(first, last);
+        }
+    }
+
+    private static PDPage createImagePage(PDDocument doc, PDImageXObject image) throws IOException
+    {
+        PDPage page = new PDPage();
+        try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+        {
+            cs.drawImage(image, 100, 100);
+        }
+        return page;
+    }
+
+    @Test
+    public void testNoPages() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument();
+             StreamingDocumentWriter writer = new StreamingDocumentWriter(doc, baos))
+        {
+            assertEquals(0, writer.getNumberOfPages());
+        }
+        try (PDDocument doc = PDDocument.load(baos.toByteArray()))
+        {
+            assertEquals(0, doc.getNumberOfPages());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.Stack;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that a {@link CompiledInstructionSequence} gives the same results as the interpreter.
+ */
+public class TestCompiledInstructionSequence extends TestCase
+{
+    // turns the boolean on the top of the stack into a number, the functions return numbers only
+    private static final String NUM = " { 1 } { 0 } ifelse";
+
+    private static final String[] PROGRAMS = {
+        "5 6 add 5 0.23 add 2147483645 2147483645 add -2147483645 -5 add",
+        "-3 abs 2.1 abs -2.1 abs -7.5 abs -2147483648 abs",
+        "true true and" + NUM + " true false and" + NUM + " 99 1 and 52 7 and",
+        "0 1 atan 1 0 atan -100 0 atan 4 4 atan",
+        "3.2 ceiling -4.8 ceiling 99 ceiling 3.2 floor -4.8 floor 99 floor",
+        "0 cos 90 cos 0 sin 90 sin -90.0 sin 33.3 sin",
+        "-47.8 cvi 520.9 cvi -47.8 cvr 520.9 cvr 77 cvr 77",
+        "3 2 div 4 2 div 1 0 div 9 0.5 exp -9 -1 exp",
+        "3 2 idiv 4 2 idiv -5 2 idiv 5 3 mod 5 2 mod -5 3 mod",
+        "10 ln 100 ln 10 log 100 log",
+        "1 2 mul 1.5 2 mul 1.5 2.1 mul 65536 65536 mul 0.1 0.2 mul",
+        "4.5 neg -3 neg -2147483648 neg",
+        "3.2 round 6.5 round -4.8 round -6.5 round 99 round",
+        "0 sqrt 1 sqrt 4 sqrt 4.4 sqrt",
+        "5 2 sub -7.5 1 sub -2147483648 1 sub 0.3 0.1 sub",
+        "3.2 truncate -4.8 truncate 99 truncate",
+        "7 3 bitshift 142 -3 bitshift",
+        "7 7 eq" + NUM + " 7 6 eq" + NUM + " 7 -7 eq" + NUM + " true true eq" + NUM
+                + " false true eq" + NUM + " 7.7 7.7 eq" + NUM + " 1 true eq" + NUM
+                + " 7 7.0 eq" + NUM,
+        "5 7 ge" + NUM + " 7 5 ge" + NUM + " 7 7 ge" + NUM + " -1 2 ge" + NUM
+                + " 5 7 gt" + NUM + " 7 5 gt" + NUM + " 7 7 gt" + NUM + " -1 2 gt" + NUM,
+        "5 7 le" + NUM + " 7 5 le" + NUM + " 7 7 le" + NUM + " -1 2 le" + NUM
+                + " 5 7 lt" + NUM + " 7 5 lt" + NUM + " 7 7 lt" + NUM + " -1 2 lt" + NUM,
+        "7 7 ne" + NUM + " 7 6 ne" + NUM + " true true ne" + NUM + " false true ne" + NUM
+                + " 7.7 7.7 ne" + NUM,
+        "true not" + NUM + " false not" + NUM + " 52 not -37 not",
+        "true true or" + NUM + " true false or" + NUM + " false false or" + NUM
+                + " 17 5 or 1 1 or",
+        "true true xor" + NUM + " true false xor" + NUM + " false false xor" + NUM
+                + " 7 3 xor 12 3 or",
+        "true { 2 1 add } if false { 2 1 add } if",
+        "true { 2 1 add } { 2 1 sub } ifelse false { 2 1 add } { 2 1 sub } ifelse",
+        "1 2 3 3 copy 0 copy",
+        "true" + NUM + " 1 2 dup true dup" + NUM + " exch" + NUM,
+        "true 1 exch" + NUM + " 1 2.5 exch",
+        "1 2 3 4 0 index 1 2 3 4 3 index",
+        "1 pop 7 2 pop 1 2 3 pop pop",
+        "1 2 3 4 5 5 -2 roll 1 2 3 4 5 5 2 roll 1 2 3 3 0 roll 1 2 3 2 7 roll",
+        "{ 0.5 gt { 1 0 } { 0 1 } ifelse }",
+        "{ dup 0.3 mul exch dup 0.6 mul exch 0 exch 1 exch sub }",
+        "1 { 2 { 3 } }",
+        // errors
+        "pop",
+        "4.4 2 idiv",
+        "77 cvr 2 idiv",
+        "5 2 div 2 mod",
+        "4.4 2 mod",
+        "-4.1 sqrt",
+        "0 { 2 1 add } if",
+        "1 0 idiv",
+        "true 1 add",
+        "1 true and",
+        "1 2 3 5 copy",
+        "1 2 -1 index",
+        "1 2 -1 1 roll",
+        "1 dup dup dup dup dup dup dup dup dup dup dup dup dup dup 99 copy"
+    };
+
+    private static final float[] INPUT = { 0.25f, 0.75f };
+
+    /**
+     * Returns the stack left by the interpreter, or null if the interpreter failed.
+     */
+    private static Stack<Object> interpret(InstructionSequence sequence)
+    {
+        ExecutionContext context = new ExecutionContext(new Operators());
+        for (float value : INPUT)
+        {
+            context.getStack().push(value);
+        }
+        try
+        {
+            sequence.execute(context);
+            return context.getStack();
+        }
+        catch (RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that the compiled sequences give the same results and that they fail when the
+     * interpreter fails. The types of the values matter for the results, e.g. an integer
+     * overflow gives a real and idiv fails for reals.
+     */
+    public void testSameResults()
+    {
+        for (String program : PROGRAMS)
+        {
+            InstructionSequence sequence = InstructionSequenceBuilder.parse(program);
+            CompiledInstructionSequence compiled = CompiledInstructionSequence.compile(sequence);
+            assertNotNull(program, compiled);
+            Stack<Object> expected = interpret(sequence);
+            if (expected == null)
+            {
+                try
+                {
+                    compiled.execute(INPUT, 0);
+                    fail(program + ": RuntimeException expected");
+                }
+                catch (RuntimeException e)
+                {
+                    // expected
+                }
+                continue;
+            }
+            float[] actual = compiled.execute(INPUT, expected.size());
+            assertEquals(program, expected.size(), actual.length);
+            for (int i = 0; i < actual.length; i++)
+            {
+                assertEquals(program, ((Number) expected.get(i)).floatValue(), actual[i], 0);
+            }
+        }
+    }
+
+    /**
+     * Procedures which are not used by if or ifelse can't be compiled.
+     */
+    public void testNotCompilable()
+    {
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("true { 1 } { 2 } if")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ 1 } exch")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("1 2 foo")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ true if }")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ 1 } { 2 }")));
+    }
+
+    /**
+     * The compiled sequence returns the top values of the stack.
+     */
+    public void testOutputValues()
+    {
+        CompiledInstructionSequence compiled = CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ dup 0.5 mul exch 2 mul 7 }"));
+        float[] output = compiled.execute(new float[] { 0.25f }, 2);
+        assertEquals(2, output.length);
+        assertEquals(0.5f, output[0]);
+        assertEquals(7f, output[1]);
+        try
+        {
+            compiled.execute(new float[] { 0.25f }, 4);
+            fail("IllegalStateException expected");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+/**
+ * Benchmark of the interpreted and the compiled evaluation of common type 4 tint transforms.
+ *
+ * <p>Usage: Type4FunctionBenchmark [evaluations]</p>
+ */
+public class Type4FunctionBenchmark
+{
+    // name, number of inputs, number of outputs, function
+    private static final Object[][] FUNCTIONS = {
+        { "Separation to CMYK", 1, 4,
+            "{ dup 0.05 mul exch dup 0.6 mul exch dup 0.9 mul exch 0.1 mul }" },
+        { "Separation to RGB", 1, 3,
+            "{ 1 exch sub dup 0.2 mul 0.8 add exch dup 0.5 mul 0.5 add exch 0.9 mul 0.1 add }" },
+        { "DeviceN (2 inks) to CMYK", 2, 4,
+            "{ 2 copy 0.2 mul exch 0.8 mul add 3 1 roll 2 copy 0.5 mul exch 0.1 mul add "
+                + "3 1 roll 0.7 mul exch 0.3 mul add 0 }" },
+        { "Conditional ramp", 1, 3,
+            "{ dup 0.5 le { 2 mul 0 } { 0.5 sub 2 mul 1 exch } ifelse 0.5 }" },
+        { "Gamma", 1, 3, "{ 2.2 exp dup dup 0.9 mul exch 0.8 mul }" }
+    };
+
+    private Type4FunctionBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        int evaluations = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        Operators operators = new Operators();
+        System.out.println(evaluations + " evaluations");
+        for (Object[] function : FUNCTIONS)
+        {
+            int inputs = (Integer) function[1];
+            int outputs = (Integer) function[2];
+            InstructionSequence sequence = InstructionSequenceBuilder.parse((String) function[3]);
+            CompiledInstructionSequence compiled = CompiledInstructionSequence.compile(sequence);
+
+            // warm up, then measure
+            interpret(sequence, operators, inputs, outputs, evaluations);
+            long start = System.nanoTime();
+            double checksum = interpret(sequence, operators, inputs, outputs, evaluations);
+            long interpreted = System.nanoTime() - start;
+
+            execute(compiled, inputs, outputs, evaluations);
+            start = System.nanoTime();
+            checksum -= execute(compiled, inputs, outputs, evaluations);
+            long compiledTime = System.nanoTime() - start;
+
+            System.out.printf("%-26s interpreted: %6.1f ns, compiled: %6.1f ns, checksum %s%n",
+                    function[0], (double) interpreted / evaluations,
+                    (double) compiledTime / evaluations, checksum == 0 ? "ok" : "differs");
+        }
+    }
+
+    private static double interpret(InstructionSequence sequence, Operators operators, int inputs,
+            int outputs, int evaluations)
+    {
+        double checksum = 0;
+        for (int i = 0; i < evaluations; i++)
+        {
+            ExecutionContext context = new ExecutionContext(operators);
+            for (int j = 0; j < inputs; j++)
+            {
+                context.getStack().push((i % 256) / 255f);
+            }
+            sequence.execute(context);
+            for (int j = 0; j < outputs; j++)
+            {
+                checksum += context.popReal();
+            }
+        }
+        return checksum;
+    }
+
+    private static double execute(CompiledInstructionSequence compiled, int inputs, int outputs,
+            int evaluations)
+    {
+        double checksum = 0;
+        float[] input = new float[inputs];
+        for (int i = 0; i < evaluations; i++)
+        {
+            for (int j = 0; j < inputs; j++)
+            {
+                input[j] = (i % 256) / 255f;
+            }
+            float[] output = compiled.execute(input, outputs);
+            for (int j = outputs - 1; j >= 0; j--)
+            {
+                checksum += output[j];
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.encryption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Test for {@link AESInputStream}.
+ */
+public class TestAESInputStream
+{
+    private static final SecretKeySpec KEY = new SecretKeySpec(new byte[16], "AES");
+    private static final IvParameterSpec IV = new IvParameterSpec(new byte[16]);
+
+    private static byte[] createData()
+    {
+        byte[] data = new byte[10000];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private static AESInputStream createStream(byte[] encrypted, boolean ignorePaddingErrors)
+            throws GeneralSecurityException
+    {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.DECRYPT_MODE, KEY, IV);
+        return new AESInputStream(cipher, new ByteArrayInputStream(encrypted), ignorePaddingErrors);
+    }
+
+    private static byte[] encrypt(byte[] data) throws GeneralSecurityException
+    {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, KEY, IV);
+        return cipher.doFinal(data);
+    }
+
+    @Test
+    public void testDecrypt() throws IOException, GeneralSecurityException
+    {
+        byte[] data = createData();
+        byte[] encrypted = encrypt(data);
+        assertArrayEquals(data, IOUtils.toByteArray(createStream(encrypted, false)));
+        assertArrayEquals(data, IOUtils.toByteArray(createStream(encrypted, true)));
+    }
+
+    @Test
+    public void testBrokenPadding() throws IOException, GeneralSecurityException
+    {
+        byte[] data = createData();
+        byte[] encrypted = encrypt(data);
+        // the last block holds the last 0 to 15 bytes of the data and the padding
+        encrypted[encrypted.length - 1] ^= 1;
+
+        // AES-128: the error is reported, like it was when the data was decrypted at once
+        try
+        {
+            IOUtils.toByteArray(createStream(encrypted, false));
+            fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getCause() instanceof GeneralSecurityException);
+        }
+
+        // AES-256: the error is ignored, the data before the last block is kept
+        byte[] decrypted = IOUtils.toByteArray(createStream(encrypted, true));
+        int length = data.length / 16 * 16;
+        assertArrayEquals(Arrays.copyOf(data, length), decrypted);
+    }
+}
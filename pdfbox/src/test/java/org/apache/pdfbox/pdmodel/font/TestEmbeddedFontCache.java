@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test for {@link EmbeddedFontCache}.
+ */
+public class TestEmbeddedFontCache
+{
+    private static final String FONT = "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf";
+
+    @After
+    public void tearDown()
+    {
+        EmbeddedFontCache.set(null);
+    }
+
+    /**
+     * Creates a document with a fully embedded simple TrueType font and a fully embedded Type0
+     * font.
+     */
+    private static byte[] createDocument(String text) throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            PDFont trueTypeFont;
+            PDFont type0Font;
+            try (InputStream input = PDFont.class.getResourceAsStream(FONT))
+            {
+                trueTypeFont = PDTrueTypeFont.load(doc, input, WinAnsiEncoding.INSTANCE);
+            }
+            try (InputStream input = PDFont.class.getResourceAsStream(FONT))
+            {
+                type0Font = PDType0Font.load(doc, input, false);
+            }
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+            {
+                cs.beginText();
+                cs.setFont(trueTypeFont, 12);
+                cs.newLineAtOffset(100, 700);
+                cs.showText(text);
+                cs.setFont(type0Font, 12);
+                cs.newLineAtOffset(0, -20);
+                cs.showText(text);
+                cs.endText();
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            doc.save(baos);
+            return baos.toByteArray();
+        }
+    }
+
+    private static TrueTypeFont getTrueTypeFont(PDDocument doc, String name) throws IOException
+    {
+        PDFont font = doc.getPage(0).getResources().getFont(COSName.getPDFName(name));
+        if (font instanceof PDType0Font)
+        {
+            return ((PDCIDFontType2) ((PDType0Font) font).getDescendantFont()).getTrueTypeFont();
+        }
+        return ((PDTrueTypeFont) font).getTrueTypeFont();
+    }
+
+    @Test
+    public void testSharedFonts() throws IOException
+    {
+        byte[] first = createDocument("First");
+        byte[] second = createDocument("Second");
+
+        EmbeddedFontCache cache = new EmbeddedFontCache();
+        EmbeddedFontCache.set(cache);
+        try (PDDocument doc1 = PDDocument.load(first);
+             PDDocument doc2 = PDDocument.load(second))
+        {
+            TrueTypeFont simple1 = getTrueTypeFont(doc1, "F1");
+            TrueTypeFont type01 = getTrueTypeFont(doc1, "F2");
+            assertEquals(2, cache.getMissCount());
+            assertEquals(0, cache.getHitCount());
+
+            // the same font program is shared, but not between different parsers
+            assertSame(simple1, getTrueTypeFont(doc2, "F1"));
+            assertSame(type01, getTrueTypeFont(doc2, "F2"));
+            assertNotSame(simple1, type01);
+            assertEquals(2, cache.getHitCount());
+            assertEquals(2, cache.getSize());
+
+            // the shared fonts can still be used after the first document has been closed
+            doc1.close();
+            String text = new PDFTextStripper().getText(doc2);
+            assertEquals("Second\nSecond", text.trim().replace("\r", ""));
+        }
+    }
+
+    @Test
+    public void testDisabled() throws IOException
+    {
+        byte[] first = createDocument("First");
+        try (PDDocument doc1 = PDDocument.load(first);
+             PDDocument doc2 = PDDocument.load(first))
+        {
+            assertNotSame(getTrueTypeFont(doc1, "F1"), getTrueTypeFont(doc2, "F1"));
+        }
+    }
+}
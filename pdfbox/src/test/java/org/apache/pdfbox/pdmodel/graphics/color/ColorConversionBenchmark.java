@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_ColorSpace;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmark of the conversion of CMYK images with the default CMYK profile, with
+ * ColorConvertOp and with the lookup table of the default color conversion engine.
+ *
+ * <p>Usage: ColorConversionBenchmark [width] [height]</p>
+ */
+public class ColorConversionBenchmark
+{
+    private ColorConversionBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE,
+                width, height, 4, null);
+        byte[] samples = ((DataBufferByte) raster.getDataBuffer()).getData();
+        new Random(4711).nextBytes(samples);
+        ColorSpace cmyk = new ICC_ColorSpace(PDDeviceCMYK.INSTANCE.getICCProfile());
+        LookupTableColorConversionEngine engine = new LookupTableColorConversionEngine();
+
+        System.out.println(width + " x " + height + " CMYK pixels");
+        for (int run = 0; run < 2; run++)
+        {
+            // the first run is the warm up
+            long start = System.nanoTime();
+            ColorConvertOpColorConversionEngine.toRGBImageWithColorConvertOp(raster, cmyk);
+            long colorConvertOp = System.nanoTime() - start;
+            start = System.nanoTime();
+            engine.toRGBImage(raster, cmyk);
+            long lookupTable = System.nanoTime() - start;
+            System.out.printf("ColorConvertOp: %5d ms, lookup table: %5d ms%n",
+                    colorConvertOp / 1000000, lookupTable / 1000000);
+        }
+    }
+}
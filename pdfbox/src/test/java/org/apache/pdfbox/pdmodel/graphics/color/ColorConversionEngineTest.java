@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+
+/**
+ * Test of the color conversion engines.
+ */
+public class ColorConversionEngineTest extends TestCase
+{
+    /**
+     * Returns the maximum and the sum of the differences of all color channels.
+     */
+    private static long[] getDifferences(BufferedImage expected, BufferedImage actual)
+    {
+        long[] differences = new long[2];
+        for (int y = 0; y < expected.getHeight(); y++)
+        {
+            for (int x = 0; x < expected.getWidth(); x++)
+            {
+                int rgb1 = expected.getRGB(x, y);
+                int rgb2 = actual.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8)
+                {
+                    int difference = Math.abs((rgb1 >> shift & 0xFF) - (rgb2 >> shift & 0xFF));
+                    differences[0] = Math.max(differences[0], difference);
+                    differences[1] += difference;
+                }
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * By default CMYK images are converted exactly with ColorConvertOp.
+     */
+    public void testDefaultCMYKImage() throws IOException
+    {
+        WritableRaster raster = PDSeparationTest.createRaster(300, 300, 4);
+        BufferedImage image = PDDeviceCMYK.INSTANCE.toRGBImage(raster);
+        ColorSpace cmyk = new ICC_ColorSpace(PDDeviceCMYK.INSTANCE.getICCProfile());
+        BufferedImage expected =
+                ColorConvertOpColorConversionEngine.toRGBImageWithColorConvertOp(raster, cmyk);
+        assertEquals(0, getDifferences(expected, image)[0]);
+    }
+
+    /**
+     * CMYK images are interpolated from a lookup table, close to the result of ColorConvertOp.
+     * The differences are largest where the conversion of the profile isn't smooth.
+     */
+    public void testCMYKImage() throws IOException
+    {
+        WritableRaster raster = PDSeparationTest.createRaster(300, 300, 4);
+        ColorSpace cmyk = new ICC_ColorSpace(PDDeviceCMYK.INSTANCE.getICCProfile());
+        BufferedImage image = new LookupTableColorConversionEngine().toRGBImage(raster, cmyk);
+        BufferedImage expected =
+                ColorConvertOpColorConversionEngine.toRGBImageWithColorConvertOp(raster, cmyk);
+        long[] differences = getDifferences(expected, image);
+        assertTrue("maximum difference: " + differences[0], differences[0] <= 32);
+        double meanDifference = differences[1] / (3.0 * 300 * 300);
+        assertTrue("mean difference: " + meanDifference, meanDifference < 0.5);
+    }
+
+    /**
+     * Gray images are converted exactly, large images in parallel.
+     */
+    public void testGrayImage() throws IOException
+    {
+        WritableRaster raster = PDSeparationTest.createRaster(1500, 800, 1);
+        ColorSpace gray = ColorSpace.getInstance(ColorSpace.CS_GRAY);
+        BufferedImage image = new LookupTableColorConversionEngine().toRGBImage(raster, gray);
+        BufferedImage expected =
+                ColorConvertOpColorConversionEngine.toRGBImageWithColorConvertOp(raster, gray);
+        assertEquals(0, getDifferences(expected, image)[0]);
+    }
+
+    /**
+     * Single colors are converted by the color space and cached.
+     */
+    public void testToRGB() throws IOException
+    {
+        LookupTableColorConversionEngine engine = new LookupTableColorConversionEngine();
+        ColorSpace colorSpace = ColorSpace.getInstance(ColorSpace.CS_PYCC);
+        float[] value = { 0.2f, 0.4f, 0.9f };
+        float[] expected = colorSpace.toRGB(value);
+        float[] rgb = engine.toRGB(colorSpace, value);
+        assertEquals(expected[0], rgb[0]);
+        assertEquals(expected[1], rgb[1]);
+        assertEquals(expected[2], rgb[2]);
+        rgb[0] = -1;
+        rgb = engine.toRGB(colorSpace, value);
+        assertEquals(expected[0], rgb[0]);
+    }
+
+    /**
+     * The engine can be replaced, and ICC profiles are shared by all color spaces which embed
+     * the same profile.
+     */
+    public void testCustomEngineAndProfileCache() throws IOException
+    {
+        final List<ColorSpace> colorSpaces = new ArrayList<>();
+        ColorConversionEngines.set(new LookupTableColorConversionEngine()
+        {
+            @Override
+            public float[] toRGB(ColorSpace colorSpace, float[] value)
+            {
+                colorSpaces.add(colorSpace);
+                return super.toRGB(colorSpace, value);
+            }
+        });
+        try
+        {
+            byte[] profile;
+            try (InputStream is = PDDeviceCMYK.class.getResourceAsStream(
+                    "/org/apache/pdfbox/resources/icc/ISOcoated_v2_300_bas.icc"))
+            {
+                profile = IOUtils.toByteArray(is);
+            }
+            PDICCBased first = createICCBased(profile);
+            PDICCBased second = createICCBased(profile);
+            first.toRGB(new float[] { 0, 0.5f, 1, 0 });
+            second.toRGB(new float[] { 0, 0.5f, 1, 0 });
+            assertEquals(2, colorSpaces.size());
+            assertSame(colorSpaces.get(0), colorSpaces.get(1));
+        }
+        finally
+        {
+            ColorConversionEngines.set(null);
+        }
+        assertSame(ColorConvertOpColorConversionEngine.class,
+                ColorConversionEngines.instance().getClass());
+    }
+
+    private static PDICCBased createICCBased(byte[] profile) throws IOException
+    {
+        COSStream stream = new COSStream();
+        stream.setInt(COSName.N, 4);
+        try (OutputStream os = stream.createOutputStream())
+        {
+            os.write(profile);
+        }
+        COSArray array = new COSArray();
+        array.add(COSName.ICCBASED);
+        array.add(stream);
+        return PDICCBased.create(array, null);
+    }
+}
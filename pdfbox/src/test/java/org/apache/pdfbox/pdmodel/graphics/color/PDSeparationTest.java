@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+import org.apache.pdfbox.pdmodel.common.function.PDFunctionType4;
+import org.apache.pdfbox.util.Charsets;
+
+/**
+ * Test of the image conversion of Separation and DeviceN color spaces.
+ */
+public class PDSeparationTest extends TestCase
+{
+    static PDFunction createFunction(String function, int numInputs, int numOutputs)
+            throws IOException
+    {
+        COSStream stream = new COSStream();
+        stream.setInt("FunctionType", 4);
+        COSArray domain = new COSArray();
+        domain.setFloatArray(createRange(numInputs));
+        stream.setItem("Domain", domain);
+        COSArray range = new COSArray();
+        range.setFloatArray(createRange(numOutputs));
+        stream.setItem("Range", range);
+        try (OutputStream out = stream.createOutputStream())
+        {
+            out.write(function.getBytes(Charsets.US_ASCII));
+        }
+        return new PDFunctionType4(stream);
+    }
+
+    private static float[] createRange(int n)
+    {
+        float[] range = new float[2 * n];
+        for (int i = 0; i < n; i++)
+        {
+            range[2 * i + 1] = 1;
+        }
+        return range;
+    }
+
+    static WritableRaster createRaster(int width, int height, int numComponents)
+    {
+        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE,
+                width, height, numComponents, null);
+        Random random = new Random(4711);
+        int[] pixel = new int[numComponents];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                for (int c = 0; c < numComponents; c++)
+                {
+                    pixel[c] = random.nextInt(256);
+                }
+                raster.setPixel(x, y, pixel);
+            }
+        }
+        return raster;
+    }
+
+    /**
+     * The lookup table for 8-bit samples gives the same image as the conversion of the whole
+     * image in the alternate color space.
+     */
+    public void testLookupTable() throws IOException
+    {
+        PDSeparation separation = new PDSeparation();
+        separation.setColorantName("Spot");
+        separation.setAlternateColorSpace(PDDeviceRGB.INSTANCE);
+        separation.setTintTransform(
+                createFunction("{ dup 0.2 mul exch dup dup mul exch 0.5 exch sub abs }", 1, 3));
+
+        WritableRaster raster = createRaster(64, 32, 1);
+        BufferedImage image = separation.toRGBImage(raster);
+
+        WritableRaster altRaster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 64, 32, 3, null);
+        float[] sample = new float[1];
+        int[] alt = new int[3];
+        for (int y = 0; y < 32; y++)
+        {
+            for (int x = 0; x < 64; x++)
+            {
+                raster.getPixel(x, y, sample);
+                separation.tintTransform(sample, alt);
+                altRaster.setPixel(x, y, alt);
+            }
+        }
+        BufferedImage expected = PDDeviceRGB.INSTANCE.toRGBImage(altRaster);
+        for (int y = 0; y < 32; y++)
+        {
+            for (int x = 0; x < 64; x++)
+            {
+                assertEquals(expected.getRGB(x, y), image.getRGB(x, y));
+            }
+        }
+
+        // a new tint transform invalidates the table
+        separation.setTintTransform(createFunction("{ pop 1 0 0 }", 1, 3));
+        assertEquals(0xFFFF0000, separation.toRGBImage(raster).getRGB(0, 0));
+    }
+
+    /**
+     * Images with one or two colorants are converted exactly, images with more colorants are
+     * interpolated from a sampled tint transform.
+     */
+    public void testDeviceN() throws IOException
+    {
+        String[] functions = {
+            "{ dup 1 exch sub 0.5 }",
+            "{ 2 copy mul 3 1 roll 1 exch sub exch }",
+            "{ 3 copy add add 3 div 4 1 roll mul mul 1 exch sub 0.25 }",
+            "{ 4 copy mul mul mul 5 1 roll add add add 4 div dup dup mul }"
+        };
+        for (int n = 1; n <= 4; n++)
+        {
+            PDDeviceN deviceN = new PDDeviceN();
+            String[] names = new String[n];
+            for (int i = 0; i < n; i++)
+            {
+                names[i] = "Spot" + i;
+            }
+            deviceN.setColorantNames(Arrays.asList(names));
+            deviceN.setAlternateColorSpace(PDDeviceRGB.INSTANCE);
+            deviceN.setTintTransform(createFunction(functions[n - 1], n, 3));
+
+            WritableRaster raster = createRaster(500, 500, n);
+            BufferedImage image = deviceN.toRGBImage(raster);
+            float[] sample = new float[n];
+            int maxDifference = 0;
+            for (int y = 0; y < 500; y += 7)
+            {
+                for (int x = 0; x < 500; x += 3)
+                {
+                    raster.getPixel(x, y, sample);
+                    for (int c = 0; c < n; c++)
+                    {
+                        sample[c] /= 255;
+                    }
+                    float[] rgb = deviceN.toRGB(sample);
+                    int actual = image.getRGB(x, y);
+                    for (int c = 0; c < 3; c++)
+                    {
+                        int difference = Math.abs((int) (rgb[c] * 255)
+                                - (actual >> (16 - 8 * c) & 0xFF));
+                        maxDifference = Math.max(maxDifference, difference);
+                    }
+                }
+            }
+            if (n <= 2)
+            {
+                assertEquals(0, maxDifference);
+            }
+            else
+            {
+                assertTrue(n + " colorants, difference: " + maxDifference, maxDifference <= 4);
+            }
+        }
+    }
+}
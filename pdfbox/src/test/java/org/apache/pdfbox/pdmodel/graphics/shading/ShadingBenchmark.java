@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.util.Charsets;
+
+/**
+ * Benchmark of the rendering of free-form (type 4), lattice-form (type 5), Coons patch (type 6)
+ * and tensor-product patch (type 7) mesh shadings which cover a whole page.
+ *
+ * <p>Usage: ShadingBenchmark [dpi] [cells per row]</p>
+ */
+public class ShadingBenchmark
+{
+    private static final float WIDTH = PDRectangle.LETTER.getWidth();
+    private static final float HEIGHT = PDRectangle.LETTER.getHeight();
+
+    private ShadingBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        float dpi = args.length > 0 ? Float.parseFloat(args[0]) : 300;
+        int cells = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        System.out.println(dpi + " dpi, " + cells + " x " + cells + " cells");
+        for (int shadingType = 4; shadingType <= 7; shadingType++)
+        {
+            try (PDDocument document = createDocument(shadingType, cells))
+            {
+                PDFRenderer renderer = new PDFRenderer(document);
+                // warm up, then measure
+                for (int i = 0; i < 3; i++)
+                {
+                    renderer.renderImageWithDPI(0, dpi);
+                }
+                int iterations = 5;
+                long start = System.nanoTime();
+                long checksum = 0;
+                for (int i = 0; i < iterations; i++)
+                {
+                    BufferedImage image = renderer.renderImageWithDPI(0, dpi);
+                    checksum += image.getRGB(image.getWidth() / 2, image.getHeight() / 2);
+                }
+                long time = (System.nanoTime() - start) / 1000000 / iterations;
+                if (checksum == 42)
+                {
+                    // prevent dead code elimination
+                    System.out.println();
+                }
+                System.out.printf("type %d: %6d ms per page%n", shadingType, time);
+            }
+        }
+    }
+
+    /**
+     * Creates a document with one page which is filled by a mesh shading of the given type. The
+     * mesh consists of cells x cells squares, a square being two triangles or one patch.
+     */
+    static PDDocument createDocument(int shadingType, int cells) throws IOException
+    {
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage(PDRectangle.LETTER);
+        document.addPage(page);
+
+        COSStream stream = document.getDocument().createCOSStream();
+        stream.setInt(COSName.SHADING_TYPE, shadingType);
+        stream.setItem(COSName.COLORSPACE, COSName.DEVICERGB);
+        stream.setInt(COSName.BITS_PER_COORDINATE, 16);
+        stream.setInt(COSName.BITS_PER_COMPONENT, 8);
+        if (shadingType == 5)
+        {
+            stream.setInt(COSName.VERTICES_PER_ROW, cells + 1);
+        }
+        else
+        {
+            stream.setInt(COSName.BITS_PER_FLAG, 8);
+        }
+        COSArray decode = new COSArray();
+        decode.setFloatArray(new float[] { 0, WIDTH, 0, HEIGHT, 0, 1, 0, 1, 0, 1 });
+        stream.setItem(COSName.DECODE, decode);
+        try (OutputStream os = stream.createOutputStream())
+        {
+            os.write(createMesh(shadingType, cells));
+        }
+        PDResources resources = new PDResources();
+        COSName name = resources.add(PDShading.create(stream));
+        page.setResources(resources);
+        PDStream contents = new PDStream(document);
+        try (OutputStream os = contents.createOutputStream())
+        {
+            os.write(("/" + name.getName() + " sh").getBytes(Charsets.US_ASCII));
+        }
+        page.setContents(contents);
+        return document;
+    }
+
+    private static byte[] createMesh(int shadingType, int cells)
+    {
+        ByteArrayOutputStream mesh = new ByteArrayOutputStream();
+        float w = WIDTH / cells;
+        float h = HEIGHT / cells;
+        for (int row = 0; row < cells + (shadingType == 5 ? 1 : 0); row++)
+        {
+            for (int col = 0; col < cells + (shadingType == 5 ? 1 : 0); col++)
+            {
+                float x0 = col * w;
+                float y0 = row * h;
+                float x1 = x0 + w;
+                float y1 = y0 + h;
+                switch (shadingType)
+                {
+                    case 4:
+                        writeVertex(mesh, true, x0, y0);
+                        writeVertex(mesh, true, x1, y0);
+                        writeVertex(mesh, true, x0, y1);
+                        writeVertex(mesh, true, x1, y0);
+                        writeVertex(mesh, true, x1, y1);
+                        writeVertex(mesh, true, x0, y1);
+                        break;
+                    case 5:
+                        writeVertex(mesh, false, x0, y0);
+                        break;
+                    default:
+                        writePatch(mesh, shadingType, x0, y0, x1, y1);
+                        break;
+                }
+            }
+        }
+        return mesh.toByteArray();
+    }
+
+    private static void writeVertex(ByteArrayOutputStream mesh, boolean flag, float x, float y)
+    {
+        if (flag)
+        {
+            mesh.write(0);
+        }
+        writePoint(mesh, x, y);
+        writeColor(mesh, x, y);
+    }
+
+    private static void writePatch(ByteArrayOutputStream mesh, int shadingType,
+            float x0, float y0, float x1, float y1)
+    {
+        float w = x1 - x0;
+        float h = y1 - y0;
+        // slightly curved edges, shared by adjacent patches
+        float dx = w / 8;
+        float dy = h / 8;
+        mesh.write(0);
+        writePoint(mesh, x0, y0);
+        writePoint(mesh, x0 + dx, y0 + h / 3);
+        writePoint(mesh, x0 - dx, y0 + 2 * h / 3);
+        writePoint(mesh, x0, y1);
+        writePoint(mesh, x0 + w / 3, y1 + dy);
+        writePoint(mesh, x0 + 2 * w / 3, y1 - dy);
+        writePoint(mesh, x1, y1);
+        writePoint(mesh, x1 - dx, y1 - h / 3);
+        writePoint(mesh, x1 + dx, y1 - 2 * h / 3);
+        writePoint(mesh, x1, y0);
+        writePoint(mesh, x1 - w / 3, y0 - dy);
+        writePoint(mesh, x1 - 2 * w / 3, y0 + dy);
+        if (shadingType == 7)
+        {
+            writePoint(mesh, x0 + w / 3, y0 + h / 3);
+            writePoint(mesh, x0 + w / 3, y0 + 2 * h / 3);
+            writePoint(mesh, x0 + 2 * w / 3, y0 + 2 * h / 3);
+            writePoint(mesh, x0 + 2 * w / 3, y0 + h / 3);
+        }
+        writeColor(mesh, x0, y0);
+        writeColor(mesh, x0, y1);
+        writeColor(mesh, x1, y1);
+        writeColor(mesh, x1, y0);
+    }
+
+    private static void writePoint(ByteArrayOutputStream mesh, float x, float y)
+    {
+        int ix = Math.round(Math.max(0, Math.min(x / WIDTH, 1)) * 65535);
+        int iy = Math.round(Math.max(0, Math.min(y / HEIGHT, 1)) * 65535);
+        mesh.write(ix >> 8);
+        mesh.write(ix);
+        mesh.write(iy >> 8);
+        mesh.write(iy);
+    }
+
+    private static void writeColor(ByteArrayOutputStream mesh, float x, float y)
+    {
+        mesh.write(Math.round(x / WIDTH * 255));
+        mesh.write(Math.round(y / HEIGHT * 255));
+        mesh.write((int) Math.round(127.5 + 127.5 * Math.sin(x / 40) * Math.cos(y / 40)));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.util.Charsets;
+import org.junit.Test;
+
+/**
+ * Test for the rasterization of triangle based shadings.
+ */
+public class TestTriangleBasedShading
+{
+    private static final float SIZE = 400;
+
+    /**
+     * Creates a page with a free-form Gouraud shading of one triangle, with a red, a green and a
+     * blue corner.
+     */
+    private static PDDocument createDocument() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage(new PDRectangle(SIZE, SIZE));
+        document.addPage(page);
+
+        COSStream stream = document.getDocument().createCOSStream();
+        stream.setInt(COSName.SHADING_TYPE, 4);
+        stream.setItem(COSName.COLORSPACE, COSName.DEVICERGB);
+        stream.setInt(COSName.BITS_PER_COORDINATE, 8);
+        stream.setInt(COSName.BITS_PER_COMPONENT, 8);
+        stream.setInt(COSName.BITS_PER_FLAG, 8);
+        COSArray decode = new COSArray();
+        decode.setFloatArray(new float[] { 0, SIZE, 0, SIZE, 0, 1, 0, 1, 0, 1 });
+        stream.setItem(COSName.DECODE, decode);
+        try (OutputStream os = stream.createOutputStream())
+        {
+            // flag, x, y, r, g, b; (25, 25), (375, 25) and (25, 375) in user space
+            os.write(new byte[] {
+                0, 16, 16, (byte) 255, 0, 0,
+                0, (byte) 240, 16, 0, (byte) 255, 0,
+                0, 16, (byte) 240, 0, 0, (byte) 255 });
+        }
+        PDResources resources = new PDResources();
+        COSName name = resources.add(PDShading.create(stream));
+        page.setResources(resources);
+        PDStream contents = new PDStream(document);
+        try (OutputStream os = contents.createOutputStream())
+        {
+            os.write(("/" + name.getName() + " sh").getBytes(Charsets.US_ASCII));
+        }
+        page.setContents(contents);
+        return document;
+    }
+
+    private static void assertColor(int expectedRed, int expectedGreen, int expectedBlue, int rgb)
+    {
+        String message = "expected " + expectedRed + "," + expectedGreen + "," + expectedBlue
+                + " but was " + Integer.toHexString(rgb);
+        assertTrue(message, Math.abs(((rgb >> 16) & 0xff) - expectedRed) <= 2);
+        assertTrue(message, Math.abs(((rgb >> 8) & 0xff) - expectedGreen) <= 2);
+        assertTrue(message, Math.abs((rgb & 0xff) - expectedBlue) <= 2);
+    }
+
+    @Test
+    public void testGouraudTriangle() throws IOException
+    {
+        try (PDDocument document = createDocument())
+        {
+            BufferedImage image = new PDFRenderer(document).renderImage(0);
+            assertEquals((int) SIZE, image.getWidth());
+
+            // the corners, in device space
+            assertColor(255, 0, 0, image.getRGB(25, 375));
+            assertColor(0, 255, 0, image.getRGB(375, 375));
+            assertColor(0, 0, 255, image.getRGB(25, 25));
+
+            // the colors are interpolated linearly
+            assertColor(85, 85, 85, image.getRGB(142, 258));
+            assertColor(128, 127, 0, image.getRGB(200, 375));
+            assertColor(0, 128, 127, image.getRGB(200, 200));
+
+            // outside of the triangle
+            assertColor(255, 255, 255, image.getRGB(300, 100));
+            assertColor(255, 255, 255, image.getRGB(10, 10));
+        }
+    }
+
+    @Test
+    public void testMeshShadings() throws IOException
+    {
+        for (int shadingType = 4; shadingType <= 7; shadingType++)
+        {
+            try (PDDocument document = ShadingBenchmark.createDocument(shadingType, 4))
+            {
+                BufferedImage image = new PDFRenderer(document).renderImage(0);
+                // the color of the shading is (x / width, y / height, ...)
+                int rgb = image.getRGB(image.getWidth() / 4, image.getHeight() / 4);
+                assertColor(64, 191, (rgb & 0xff), rgb);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Test;
+
+/**
+ * Test for {@link GlyphPathCache}.
+ */
+public class TestGlyphPathCache
+{
+    private static PDDocument createDocument(PDFont font, int pageCount) throws IOException
+    {
+        PDDocument doc = new PDDocument();
+        for (int i = 0; i < pageCount; i++)
+        {
+            PDPage page = new PDPage(PDRectangle.A6);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+            {
+                cs.beginText();
+                cs.setFont(font, 14);
+                cs.newLineAtOffset(20, 300);
+                cs.showText("Page " + i + ": The quick brown fox");
+                cs.endText();
+            }
+        }
+        return doc;
+    }
+
+    private static int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    public void testSharedOutlines() throws IOException
+    {
+        PDFont font = PDType1Font.HELVETICA;
+        try (PDDocument doc = createDocument(font, 3))
+        {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            assertNull(renderer.getGlyphPathCache());
+            GlyphPathCache cache = new GlyphPathCache();
+            renderer.setGlyphPathCache(cache);
+            BufferedImage[] images = new BufferedImage[3];
+            for (int i = 0; i < 3; i++)
+            {
+                images[i] = renderer.renderImage(i);
+            }
+            assertEquals(1, cache.getSize());
+            assertSame(cache.getGlyphCache(font), cache.getGlyphCache(font));
+            GlyphCache glyphCache = cache.getGlyphCache(font);
+            assertSame(glyphCache.getPathForCharacterCode('T'),
+                    glyphCache.getPathForCharacterCode('T'));
+
+            // same result without the shared cache
+            renderer.setGlyphPathCache(null);
+            assertNull(renderer.getGlyphPathCache());
+            for (int i = 0; i < 3; i++)
+            {
+                assertArrayEquals(getPixels(images[i]), getPixels(renderer.renderImage(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testEviction()
+    {
+        GlyphPathCache cache = new GlyphPathCache(2);
+        assertEquals(2, cache.getMaximumSize());
+        GlyphCache helvetica = cache.getGlyphCache(PDType1Font.HELVETICA);
+        GlyphCache times = cache.getGlyphCache(PDType1Font.TIMES_ROMAN);
+        assertSame(helvetica, cache.getGlyphCache(PDType1Font.HELVETICA));
+        cache.getGlyphCache(PDType1Font.COURIER);
+        assertEquals(2, cache.getSize());
+
+        // the least recently used font was evicted
+        assertSame(helvetica, cache.getGlyphCache(PDType1Font.HELVETICA));
+        assertNotSame(times, cache.getGlyphCache(PDType1Font.TIMES_ROMAN));
+        assertEquals(2, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+}
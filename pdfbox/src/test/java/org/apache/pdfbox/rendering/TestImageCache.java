@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.Test;
+
+/**
+ * Test for {@link ImageCache}.
+ */
+public class TestImageCache
+{
+    private static PDImageXObject createImage(PDDocument doc, int width, int height)
+            throws IOException
+    {
+        BufferedImage bim = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                bim.setRGB(x, y,
+                        (x * 255 / width) << 16 | (y * 255 / height) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        return LosslessFactory.createFromImage(doc, bim);
+    }
+
+    /**
+     * Creates a document whose pages all draw the same image.
+     */
+    private static PDDocument createDocument(int pageCount) throws IOException
+    {
+        PDDocument doc = new PDDocument();
+        PDImageXObject image = createImage(doc, 400, 300);
+        for (int i = 0; i < pageCount; i++)
+        {
+            PDPage page = new PDPage(PDRectangle.A6);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page))
+            {
+                cs.drawImage(image, 20 + 10 * i, 50, 200, 150);
+            }
+        }
+        return doc;
+    }
+
+    private static int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    public void testRendering() throws IOException
+    {
+        try (PDDocument doc = createDocument(3))
+        {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            renderer.setSubsamplingAllowed(true);
+            BufferedImage[] expected = new BufferedImage[3];
+            for (int i = 0; i < 3; i++)
+            {
+                expected[i] = renderer.renderImageWithDPI(i, 144);
+            }
+            BufferedImage thumbnail = renderer.renderImageWithDPI(0, 18);
+
+            ImageCache cache = new ImageCache();
+            renderer.setImageCache(cache);
+            assertArrayEquals(getPixels(expected[0]),
+                    getPixels(renderer.renderImageWithDPI(0, 144)));
+            long missCount = cache.getMissCount();
+            assertTrue(missCount > 0);
+
+            // the image drawn again on the other pages is taken from the cache
+            for (int i = 1; i < 3; i++)
+            {
+                assertArrayEquals(getPixels(expected[i]),
+                        getPixels(renderer.renderImageWithDPI(i, 144)));
+            }
+            assertEquals(missCount, cache.getMissCount());
+            assertTrue(cache.getHitCount() >= 2);
+            assertEquals(1, cache.getSize());
+
+            // same result at another resolution
+            assertArrayEquals(getPixels(thumbnail), getPixels(renderer.renderImageWithDPI(0, 18)));
+            assertEquals(1, cache.getSize());
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            PDImageXObject image1 = createImage(doc, 100, 100);
+            PDImageXObject image2 = createImage(doc, 100, 50);
+            ImageCache cache = new ImageCache(45000);
+            BufferedImage bim1 = cache.getImage(image1, 1);
+            assertSame(bim1, cache.getImage(image1, 1));
+            assertEquals(40000, cache.getWeight());
+
+            // the least recently used image is evicted
+            cache.getImage(image2, 1);
+            assertEquals(1, cache.getSize());
+            assertEquals(20000, cache.getWeight());
+
+            // other levels of the only image are evicted
+            cache.getImage(image1, 2);
+            cache.getImage(image1, 1);
+            assertEquals(1, cache.getSize());
+            assertEquals(40000, cache.getWeight());
+
+            cache.remove(image1);
+            assertEquals(0, cache.getSize());
+            assertEquals(0, cache.getWeight());
+            assertEquals(4, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+        }
+    }
+}
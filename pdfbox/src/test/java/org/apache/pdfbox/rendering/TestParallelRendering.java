@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+/**
+ * Test for {@link PDFRenderer#renderPages(int, int, float, ImageType, Callable, int,
+ * PageImageConsumer)}.
+ */
+public class TestParallelRendering
+{
+    private static final File FILE =
+            new File("src/test/resources/org/apache/pdfbox/pdmodel/page_tree_multiple_levels.pdf");
+
+    private static final Callable<PDDocument> LOADER = new Callable<PDDocument>()
+    {
+        @Override
+        public PDDocument call() throws IOException
+        {
+            return PDDocument.load(FILE);
+        }
+    };
+
+    private static int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    public void testRenderPages() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            final PDFRenderer renderer = new PDFRenderer(document);
+            final int pageCount = document.getNumberOfPages();
+            assertTrue(pageCount > 2);
+            final List<Integer> pageIndexes = new ArrayList<>();
+            renderer.renderPages(0, pageCount, 36, ImageType.RGB, LOADER, 3,
+                    new PageImageConsumer()
+            {
+                @Override
+                public void accept(int pageIndex, BufferedImage image) throws IOException
+                {
+                    pageIndexes.add(pageIndex);
+                    BufferedImage expected = renderer.renderImageWithDPI(pageIndex, 36);
+                    assertEquals(expected.getWidth(), image.getWidth());
+                    assertEquals(expected.getHeight(), image.getHeight());
+                    assertArrayEquals(getPixels(expected), getPixels(image));
+                }
+            });
+            List<Integer> expectedIndexes = new ArrayList<>();
+            for (int i = 0; i < pageCount; i++)
+            {
+                expectedIndexes.add(i);
+            }
+            assertEquals(expectedIndexes, pageIndexes);
+        }
+    }
+
+    @Test
+    public void testFailingConsumer() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            final List<Integer> pageIndexes = Collections.synchronizedList(new ArrayList<Integer>());
+            try
+            {
+                new PDFRenderer(document).renderPages(0, document.getNumberOfPages(), 36,
+                        ImageType.GRAY, LOADER, 2, new PageImageConsumer()
+                {
+                    @Override
+                    public void accept(int pageIndex, BufferedImage image) throws IOException
+                    {
+                        pageIndexes.add(pageIndex);
+                        throw new IOException("failed");
+                    }
+                });
+                fail("IOException expected");
+            }
+            catch (IOException e)
+            {
+                assertEquals("failed", e.getMessage());
+            }
+            assertEquals(Collections.singletonList(0), pageIndexes);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            new PDFRenderer(document).renderPages(0, document.getNumberOfPages() + 1, 36,
+                    ImageType.RGB, LOADER, 2, null);
+        }
+    }
+}
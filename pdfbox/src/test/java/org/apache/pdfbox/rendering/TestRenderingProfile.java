@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.form.PDTransparencyGroup;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.apache.pdfbox.util.Charsets;
+import org.junit.Test;
+
+/**
+ * Test for the rendering with {@link RenderingProfile#DRAFT}.
+ */
+public class TestRenderingProfile
+{
+    private static final PDRectangle PAGE_SIZE = new PDRectangle(200, 100);
+
+    @Test
+    public void testShadingAverageColor() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = createPage(document);
+            COSDictionary function = new COSDictionary();
+            function.setInt(COSName.FUNCTION_TYPE, 2);
+            function.setItem(COSName.DOMAIN, createArray(0, 1));
+            function.setItem(COSName.C0, createArray(1, 0, 0));
+            function.setItem(COSName.C1, createArray(0, 0, 1));
+            function.setInt(COSName.N, 1);
+            COSDictionary shading = new COSDictionary();
+            shading.setInt(COSName.SHADING_TYPE, 2);
+            shading.setItem(COSName.COLORSPACE, COSName.DEVICERGB);
+            shading.setItem(COSName.COORDS, createArray(0, 0, 200, 0));
+            shading.setItem(COSName.FUNCTION, function);
+            COSArray extend = new COSArray();
+            extend.add(COSBoolean.TRUE);
+            extend.add(COSBoolean.TRUE);
+            shading.setItem(COSName.EXTEND, extend);
+            COSName name = page.getResources().add(PDShading.create(shading));
+            setContents(document, page, "/" + name.getName() + " sh");
+
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage quality = renderer.renderImage(0);
+            assertNotEquals(quality.getRGB(10, 50), quality.getRGB(190, 50));
+
+            renderer.setRenderingProfile(RenderingProfile.DRAFT);
+            BufferedImage draft = renderer.renderImage(0);
+            Color color = new Color(draft.getRGB(10, 50));
+            assertEquals(draft.getRGB(10, 50), draft.getRGB(190, 50));
+            assertEquals(128, color.getRed(), 1);
+            assertEquals(0, color.getGreen());
+            assertEquals(128, color.getBlue(), 1);
+        }
+    }
+
+    @Test
+    public void testFlattenedTransparencyGroup() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = createPage(document);
+            // two overlapping black squares in a group which is drawn with alpha 0.5
+            PDTransparencyGroup group = createGroup(document,
+                    "0 g 0 0 60 60 re f 40 0 60 60 re f");
+            PDExtendedGraphicsState extGState = new PDExtendedGraphicsState();
+            extGState.setNonStrokingAlphaConstant(0.5f);
+            PDResources resources = page.getResources();
+            setContents(document, page, "/" + resources.add(extGState).getName() + " gs /"
+                    + resources.add(group).getName() + " Do");
+
+            PDFRenderer renderer = new PDFRenderer(document);
+            BufferedImage quality = renderer.renderImage(0);
+            int single = quality.getRGB(20, 70);
+            assertNotEquals(Color.WHITE.getRGB(), single);
+            assertEquals(single, quality.getRGB(50, 70));
+
+            // without an offscreen image, the overlapping squares are darker
+            renderer.setRenderingProfile(RenderingProfile.DRAFT);
+            BufferedImage draft = renderer.renderImage(0);
+            assertEquals(single, draft.getRGB(20, 70));
+            assertTrue(new Color(draft.getRGB(50, 70)).getRed() < new Color(single).getRed());
+        }
+    }
+
+    @Test
+    public void testIgnoredSoftMask() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = createPage(document);
+            // a black luminosity mask hides everything
+            COSDictionary softMask = new COSDictionary();
+            softMask.setItem(COSName.TYPE, COSName.MASK);
+            softMask.setItem(COSName.S, COSName.LUMINOSITY);
+            softMask.setItem(COSName.G, createGroup(document, "0 g 0 0 200 100 re f"));
+            PDExtendedGraphicsState extGState = new PDExtendedGraphicsState();
+            extGState.getCOSObject().setItem(COSName.SMASK, softMask);
+            COSName name = page.getResources().add(extGState);
+            setContents(document, page, "/" + name.getName() + " gs 1 0 0 rg 0 0 200 100 re f");
+
+            PDFRenderer renderer = new PDFRenderer(document);
+            assertEquals(Color.WHITE.getRGB(), renderer.renderImage(0).getRGB(100, 50));
+
+            renderer.setRenderingProfile(RenderingProfile.DRAFT);
+            assertEquals(Color.RED.getRGB(), renderer.renderImage(0).getRGB(100, 50));
+        }
+    }
+
+    private static PDPage createPage(PDDocument document)
+    {
+        PDPage page = new PDPage(PAGE_SIZE);
+        page.setResources(new PDResources());
+        document.addPage(page);
+        return page;
+    }
+
+    private static void setContents(PDDocument document, PDPage page, String contents)
+            throws IOException
+    {
+        PDStream stream = new PDStream(document);
+        try (OutputStream os = stream.createOutputStream())
+        {
+            os.write(contents.getBytes(Charsets.US_ASCII));
+        }
+        page.setContents(stream);
+    }
+
+    private static PDTransparencyGroup createGroup(PDDocument document, String contents)
+            throws IOException
+    {
+        COSStream stream = document.getDocument().createCOSStream();
+        try (OutputStream os = stream.createOutputStream())
+        {
+            os.write(contents.getBytes(Charsets.US_ASCII));
+        }
+        stream.setItem(COSName.TYPE, COSName.XOBJECT);
+        stream.setItem(COSName.SUBTYPE, COSName.FORM);
+        stream.setItem(COSName.BBOX, PAGE_SIZE.getCOSArray());
+        COSDictionary attributes = new COSDictionary();
+        attributes.setItem(COSName.S, COSName.TRANSPARENCY);
+        stream.setItem(COSName.GROUP, attributes);
+        return new PDTransparencyGroup(stream, null);
+    }
+
+    private static COSArray createArray(float... values)
+    {
+        COSArray array = new COSArray();
+        array.setFloatArray(values);
+        return array;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+/**
+ * Test for the rendering of page regions and tiles.
+ */
+public class TestTiledRendering
+{
+    private static final File FILE =
+            new File("src/test/resources/input/PDFBOX-2984-rotations.pdf");
+
+    @Test
+    public void testTilesMatchPage() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            final PDFRenderer renderer = new PDFRenderer(document);
+            for (int pageIndex = 0; pageIndex < document.getNumberOfPages(); pageIndex++)
+            {
+                final BufferedImage page = renderer.renderImage(pageIndex, 1.5f, ImageType.RGB);
+                assertEquals(new Dimension(page.getWidth(), page.getHeight()),
+                        renderer.getImageSize(pageIndex, 1.5f));
+
+                final int[] pixels = new int[2];
+                renderer.renderTiles(pageIndex, 1.5f, ImageType.RGB, 173, 131,
+                        new PageTileConsumer()
+                {
+                    @Override
+                    public void accept(Rectangle region, BufferedImage tile)
+                    {
+                        assertEquals(region.width, tile.getWidth());
+                        assertEquals(region.height, tile.getHeight());
+                        for (int y = 0; y < region.height; y++)
+                        {
+                            for (int x = 0; x < region.width; x++)
+                            {
+                                if (tile.getRGB(x, y) != page.getRGB(region.x + x, region.y + y))
+                                {
+                                    pixels[1]++;
+                                }
+                            }
+                        }
+                        pixels[0] += region.width * region.height;
+                    }
+                });
+                assertEquals(page.getWidth() * page.getHeight(), pixels[0]);
+                // the rasterizer of the JDK may clip edges differently within a tile
+                assertTrue("too many different pixels: " + pixels[1], pixels[1] < pixels[0] / 1000);
+            }
+        }
+    }
+
+    @Test
+    public void testRegion() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            Dimension size = renderer.getImageSize(0, 2);
+
+            // the region is clipped to the page image
+            BufferedImage image = renderer.renderImage(0, 2, ImageType.GRAY,
+                    new Rectangle(size.width - 50, -20, 100, 100));
+            assertEquals(50, image.getWidth());
+            assertEquals(80, image.getHeight());
+            assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionOutsideOfPage() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            Dimension size = renderer.getImageSize(0, 1);
+            renderer.renderImage(0, 1, ImageType.RGB, new Rectangle(size.width, 0, 10, 10));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link PDFTextStripper#getText(PDDocument, Callable, ExecutorService)}.
+ */
+public class TestParallelTextExtraction
+{
+    private static final File FILE = new File("src/test/resources/input/cweb.pdf");
+
+    private static final Callable<PDDocument> LOADER = new Callable<PDDocument>()
+    {
+        @Override
+        public PDDocument call() throws IOException
+        {
+            return PDDocument.load(FILE);
+        }
+    };
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGetText() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            assertTrue(document.getNumberOfPages() > 10);
+            PDFTextStripper stripper = new PDFTextStripper();
+            String expected = stripper.getText(document);
+            assertEquals(expected, stripper.getText(document, LOADER, executor));
+
+            stripper.setSortByPosition(true);
+            stripper.setAddMoreFormatting(true);
+            expected = stripper.getText(document);
+            assertEquals(expected, stripper.getText(document, LOADER, executor));
+        }
+    }
+
+    @Test
+    public void testPageRange() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(3);
+            stripper.setEndPage(7);
+            String expected = stripper.getText(document);
+            assertTrue(expected.length() > 0);
+            assertEquals(expected, stripper.getText(document, LOADER, executor));
+        }
+    }
+
+    @Test
+    public void testFailingLoader() throws IOException
+    {
+        try (PDDocument document = PDDocument.load(FILE))
+        {
+            new PDFTextStripper().getText(document, new Callable<PDDocument>()
+            {
+                @Override
+                public PDDocument call() throws IOException
+                {
+                    throw new IOException("failed");
+                }
+            }, executor);
+            fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+}
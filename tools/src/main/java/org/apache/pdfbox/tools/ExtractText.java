@@ -25,6 +25,9 @@ import java.io.Writer;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
@@ -65,6 +68,7 @@ public final class ExtractText
     private static final String HTML = "-html";
     private static final String ALWAYSNEXT = "-alwaysNext";
     private static final String ROTATION_MAGIC = "-rotationMagic";
+    private static final String THREADS = "-threads";
     private static final String STD_ENCODING = "UTF-8";
 
     /*
@@ -117,6 +121,7 @@ public final class ExtractText
         String ext = ".txt";
         int startPage = 1;
         int endPage = Integer.MAX_VALUE;
+        int threads = 1;
         for( int i=0; i<args.length; i++ )
         {
             if( args[i].equals( PASSWORD ) )
@@ -184,6 +189,15 @@ public final class ExtractText
             {
                 toConsole = true;
             }
+            else if (args[i].equals(THREADS))
+            {
+                i++;
+                if (i >= args.length)
+                {
+                    usage();
+                }
+                threads = Integer.parseInt(args[i]);
+            }
             else
             {
                 if( pdfFile == null )
@@ -269,8 +283,18 @@ public final class ExtractText
                     stripper.setShouldSeparateByBeads(separateBeads);
 
                     // Extract text for main document:
-                    extractPages(startPage, Math.min(endPage, document.getNumberOfPages()), 
-                                 stripper, document, output, rotationMagic, alwaysNext);
+                    if (threads > 1 && !rotationMagic && !alwaysNext)
+                    {
+                        stripper.setStartPage(startPage);
+                        stripper.setEndPage(endPage);
+                        extractPagesInParallel(stripper, document, output,
+                                new File(pdfFile), password, threads);
+                    }
+                    else
+                    {
+                        extractPages(startPage, Math.min(endPage, document.getNumberOfPages()), 
+                                     stripper, document, output, rotationMagic, alwaysNext);
+                    }
                 }
 
                 // ... also for any embedded PDFs:
@@ -380,6 +404,28 @@ public final class ExtractText
         }
     }
 
+    private void extractPagesInParallel(PDFTextStripper stripper, PDDocument document,
+            Writer output, final File file, final String password, int threads) throws IOException
+    {
+        // each thread extracts the text from its own instance of the document
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            stripper.writeText(document, output, new Callable<PDDocument>()
+            {
+                @Override
+                public PDDocument call() throws IOException
+                {
+                    return PDDocument.load(file, password);
+                }
+            }, executor);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     private long startProcessing(String message) 
     {
         if (debug) 
@@ -422,6 +468,8 @@ public final class ExtractText
             + "                                (slower, and ignored when -html)\n"
             + "  -startPage <number>         : The first page to start extraction (1 based)\n"
             + "  -endPage <number>           : The last page to extract (1 based, inclusive)\n"
+            + "  -threads <number>           : The number of threads extracting pages (ignored\n"
+            + "                                when -html, -rotationMagic or -alwaysNext)\n"
             + "  <inputfile>                 : The PDF document to use\n"
             + "  [output-text-file]          : The file to write the text to";
         
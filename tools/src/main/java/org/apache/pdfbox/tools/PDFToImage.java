@@ -21,6 +21,7 @@ import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
 
 import javax.imageio.ImageIO;
 
@@ -29,6 +30,7 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.PageImageConsumer;
 import org.apache.pdfbox.tools.imageio.ImageIOUtil;
 
 /**
@@ -53,6 +55,7 @@ public final class PDFToImage
     private static final String CROPBOX = "-cropbox";
     private static final String TIME = "-time";
     private static final String SUBSAMPLING = "-subsampling";
+    private static final String THREADS = "-threads";
 
     /**
      * private constructor.
@@ -89,6 +92,7 @@ public final class PDFToImage
         float cropBoxUpperRightY = 0;
         boolean showTime = false;
         boolean subsampling = false;
+        int threads = 1;
         try
         {
             dpi = Toolkit.getDefaultToolkit().getScreenResolution();
@@ -173,6 +177,14 @@ public final class PDFToImage
                 case SUBSAMPLING:
                     subsampling = true;
                     break;
+                case THREADS:
+                    i++;
+                    if (i >= args.length)
+                    {
+                        usage();
+                    }
+                    threads = Integer.parseInt(args[i]);
+                    break;
                 default:
                     if (pdfFile == null)
                     {
@@ -237,11 +249,44 @@ public final class PDFToImage
                 endPage = Math.min(endPage, document.getNumberOfPages());
                 PDFRenderer renderer = new PDFRenderer(document);
                 renderer.setSubsamplingAllowed(subsampling);
-                for (int i = startPage - 1; i < endPage; i++)
+                if (threads > 1 && startPage <= endPage)
                 {
-                    BufferedImage image = renderer.renderImageWithDPI(i, dpi, imageType);
-                    String fileName = outputPrefix + (i + 1) + "." + imageFormat;
-                    success &= ImageIOUtil.writeImage(image, fileName, dpi, quality);
+                    // each thread renders from its own instance of the document
+                    final File file = new File(pdfFile);
+                    final String documentPassword = password;
+                    final float[] cropBox = Float.compare(cropBoxLowerLeftX, 0) != 0 ||
+                            Float.compare(cropBoxLowerLeftY, 0) != 0 ||
+                            Float.compare(cropBoxUpperRightX, 0) != 0 ||
+                            Float.compare(cropBoxUpperRightY, 0) != 0 ?
+                            new float[] { cropBoxLowerLeftX, cropBoxLowerLeftY,
+                                          cropBoxUpperRightX, cropBoxUpperRightY } : null;
+                    PageImageWriter writer = new PageImageWriter(outputPrefix, imageFormat, dpi,
+                                                                 quality);
+                    renderer.renderPages(startPage - 1, endPage, dpi, imageType,
+                            new Callable<PDDocument>()
+                    {
+                        @Override
+                        public PDDocument call() throws IOException
+                        {
+                            PDDocument workerDocument = PDDocument.load(file, documentPassword);
+                            if (cropBox != null)
+                            {
+                                changeCropBox(workerDocument,
+                                        cropBox[0], cropBox[1], cropBox[2], cropBox[3]);
+                            }
+                            return workerDocument;
+                        }
+                    }, threads, writer);
+                    success = writer.success;
+                }
+                else
+                {
+                    for (int i = startPage - 1; i < endPage; i++)
+                    {
+                        BufferedImage image = renderer.renderImageWithDPI(i, dpi, imageType);
+                        String fileName = outputPrefix + (i + 1) + "." + imageFormat;
+                        success &= ImageIOUtil.writeImage(image, fileName, dpi, quality);
+                    }
                 }
 
                 // performance stats
@@ -283,6 +328,7 @@ public final class PDFToImage
             + "  -cropbox <int> <int> <int> <int> : The page area to export\n"
             + "  -time                            : Prints timing information to stdout\n"
             + "  -subsampling                     : Activate subsampling (for PDFs with huge images)\n"
+            + "  -threads <int>                   : The number of threads rendering pages (default: 1)\n"
             + "  <inputfile>                      : The PDF document to use\n";
         
         System.err.println(message);
@@ -320,4 +366,31 @@ public final class PDFToImage
             page.setCropBox(rectangle);
         }
     }
+
+    /**
+     * Writes the rendered pages to image files.
+     */
+    private static final class PageImageWriter implements PageImageConsumer
+    {
+        private final String outputPrefix;
+        private final String imageFormat;
+        private final int dpi;
+        private final float quality;
+        private boolean success = true;
+
+        PageImageWriter(String outputPrefix, String imageFormat, int dpi, float quality)
+        {
+            this.outputPrefix = outputPrefix;
+            this.imageFormat = imageFormat;
+            this.dpi = dpi;
+            this.quality = quality;
+        }
+
+        @Override
+        public void accept(int pageIndex, BufferedImage image) throws IOException
+        {
+            String fileName = outputPrefix + (pageIndex + 1) + "." + imageFormat;
+            success &= ImageIOUtil.writeImage(image, fileName, dpi, quality);
+        }
+    }
 }